@@ -2,6 +2,7 @@ package com.sp;
 
 import com.sp.cca_stuff.InitializeComponents;
 import com.sp.cca_stuff.PlayerComponent;
+import com.sp.command.BackroomsCommand;
 import com.sp.command.EventCommand;
 import com.sp.command.GimmeMyInventoryBack;
 import com.sp.command.LevelCommand;
@@ -15,6 +16,18 @@ import com.sp.entity.ik.util.PrAnCommonClass;
 import com.sp.init.*;
 import com.sp.item.ModItemGroups;
 import com.sp.networking.InitializePackets;
+import com.sp.sounds.voicechat.VoiceCapturePolicy;
+import com.sp.world.generation.CompactChunkStorage;
+import com.sp.world.generation.DeferredChunkWrites;
+import com.sp.world.generation.GenerationProfiler;
+import com.sp.world.generation.GenerationRandom;
+import com.sp.world.generation.Pregenerator;
+import com.sp.world.generation.RegionLayoutIndex;
+import com.sp.world.generation.maze_generator.cells.RoomCatalog;
+import com.sp.world.generation.template.CompiledTemplate;
+import com.sp.world.generation.template.TemplateArchive;
+import com.sp.world.generation.template.TemplatePreloader;
+import com.sp.world.lights.LightFixtureIndex;
 import eu.midnightdust.lib.config.MidnightConfig;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
@@ -71,11 +84,24 @@ public class SPBRevamped implements ModInitializer {
 		ModBlockEntities.registerAllBlockEntities();
 		MidnightConfig.init(MOD_ID, ConfigStuff.class);
 		ModGamerules.registerGamerules();
+		LightFixtureIndex.init();
+		TemplatePreloader.init();
+		RoomCatalog.init();
+		CompiledTemplate.init();
+		TemplateArchive.init();
+		DeferredChunkWrites.init();
+		CompactChunkStorage.init();
+		GenerationRandom.init();
+		GenerationProfiler.init();
+		RegionLayoutIndex.init();
+		Pregenerator.init();
+		VoiceCapturePolicy.init();
 
 		CommandRegistrationCallback.EVENT.register(EventCommand::register);
 		CommandRegistrationCallback.EVENT.register(LevelCommand::register);
 		CommandRegistrationCallback.EVENT.register(GimmeMyInventoryBack::register);
 		CommandRegistrationCallback.EVENT.register(SkinwalkerCommand::register);
+		CommandRegistrationCallback.EVENT.register(BackroomsCommand::register);
 
 		// Thanks Bob Mowzie
 		GeckoLibUtil.addCustomBakedModelFactory(MOD_ID, new MowzieModelFactory());
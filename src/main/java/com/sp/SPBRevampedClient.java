@@ -413,7 +413,7 @@ public class SPBRevampedClient implements ClientModInitializer {
 
                 BackroomsLevels.getLevel(client.world).ifPresent((backroomsLevel -> {
                     if (backroomsLevel instanceof Level2BackroomsLevel level) {
-                        if (level.isWarping() || !finishedWarp(client.world)) {
+                        if (level.getState(client.world).isWarping() || !finishedWarp(client.world)) {
                             definitions.define("WARP");
                         } else {
                             definitions.remove("WARP");
@@ -451,7 +451,7 @@ public class SPBRevampedClient implements ClientModInitializer {
                 //*Just in case it become unsynced
                 BackroomsLevels.getLevel(client.world).ifPresent((backroomsLevel -> {
                     if (backroomsLevel instanceof PoolroomsBackroomsLevel poolroomsBackroomsLevel) {
-                        PoolroomsDayCycle.dayTime = poolroomsBackroomsLevel.getTimeOfDay();
+                        PoolroomsDayCycle.dayTime = poolroomsBackroomsLevel.getState(client.world).getTimeOfDay();
                     }
                 }));
 
@@ -470,6 +470,8 @@ public class SPBRevampedClient implements ClientModInitializer {
             }
 
             cutsceneManager.reset();
+            FluorescentLightClusters.clear();
+            LightBudgetManager.clear();
 
             if(this.grassRenderer != null) {
                 this.grassRenderer.close();
@@ -558,6 +560,9 @@ public class SPBRevampedClient implements ClientModInitializer {
                             FlockManager.tick();
                         }
                     }));
+
+                    FluorescentLightClusters.tick();
+                    LightBudgetManager.tick(client, flashlightRenderer.getLightCount());
                 }
             }
         });
@@ -580,12 +585,12 @@ public class SPBRevampedClient implements ClientModInitializer {
             return 0;
         }
 
-        if (level.isWarping() || tickTimer.getCurrentTick() != 0) {
+        if (level.getState(world).isWarping() || tickTimer.getCurrentTick() != 0) {
             tickTimer.setOnOrOff(true);
             float x = tickTimer.getCurrentTick();
             float w = 0.03141592f;
             float result = MathStuff.mod((x * w) * 0.002f, w);
-            if (result == 0 || (!level.isWarping() && result == 0.03141592f/2)) {
+            if (result == 0 || (!level.getState(world).isWarping() && result == 0.03141592f/2)) {
                 tickTimer.resetToZero();
             }
             return result;
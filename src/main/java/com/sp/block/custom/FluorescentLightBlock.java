@@ -2,6 +2,7 @@ package com.sp.block.custom;
 
 import com.sp.block.entity.FluorescentLightBlockEntity;
 import com.sp.init.ModBlockEntities;
+import com.sp.world.lights.LightFixtureIndex;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockRenderType;
 import net.minecraft.block.BlockState;
@@ -44,6 +45,24 @@ public class FluorescentLightBlock extends BlockWithEntity {
         return super.getStateForNeighborUpdate(state, direction, neighborState, world, pos, neighborPos);
     }
 
+    @Override
+    public void onBlockAdded(BlockState state, World world, BlockPos pos, BlockState oldState, boolean notify) {
+        super.onBlockAdded(state, world, pos, oldState, notify);
+
+        if (!oldState.isOf(this)) {
+            LightFixtureIndex.onFixturePlaced(world, pos);
+        }
+    }
+
+    @Override
+    public void onStateReplaced(BlockState state, World world, BlockPos pos, BlockState newState, boolean moved) {
+        super.onStateReplaced(state, world, pos, newState, moved);
+
+        if (!newState.isOf(this)) {
+            LightFixtureIndex.onFixtureRemoved(world, pos);
+        }
+    }
+
     @Override
     public BlockRenderType getRenderType(BlockState state) {
         if(state.get(BLACKOUT) || !state.get(ON)){
@@ -57,6 +76,11 @@ public class FluorescentLightBlock extends BlockWithEntity {
     @Nullable
     @Override
     public <T extends BlockEntity> BlockEntityTicker<T> getTicker(World world, BlockState state, BlockEntityType<T> type) {
+        //The server side is handled by the LightFixtureIndex
+        if (!world.isClient) {
+            return null;
+        }
+
         return checkType(type, ModBlockEntities.FLUORESCENT_LIGHT_BLOCK_ENTITY, (world1, pos, state1, blockEntity) -> blockEntity.tick(world1, pos, state1));
     }
 
@@ -2,6 +2,7 @@ package com.sp.block.custom;
 
 import com.sp.block.entity.TinyFluorescentLightBlockEntity;
 import com.sp.init.ModBlockEntities;
+import com.sp.world.lights.LightFixtureIndex;
 import net.minecraft.block.*;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.block.entity.BlockEntityTicker;
@@ -59,6 +60,24 @@ public class TinyFluorescentLightBlock extends BlockWithEntity {
         return new TinyFluorescentLightBlockEntity(pos,state);
     }
 
+    @Override
+    public void onBlockAdded(BlockState state, World world, BlockPos pos, BlockState oldState, boolean notify) {
+        super.onBlockAdded(state, world, pos, oldState, notify);
+
+        if (!oldState.isOf(this)) {
+            LightFixtureIndex.onFixturePlaced(world, pos);
+        }
+    }
+
+    @Override
+    public void onStateReplaced(BlockState state, World world, BlockPos pos, BlockState newState, boolean moved) {
+        super.onStateReplaced(state, world, pos, newState, moved);
+
+        if (!newState.isOf(this)) {
+            LightFixtureIndex.onFixtureRemoved(world, pos);
+        }
+    }
+
     @Override
     public BlockRenderType getRenderType(BlockState state) {
         if(state.get(BLACKOUT) || !state.get(ON)){
@@ -72,6 +91,11 @@ public class TinyFluorescentLightBlock extends BlockWithEntity {
     @Nullable
     @Override
     public <T extends BlockEntity> BlockEntityTicker<T> getTicker(World world, BlockState state, BlockEntityType<T> type) {
+        //The server side is handled by the LightFixtureIndex
+        if (!world.isClient) {
+            return null;
+        }
+
         return checkType(type, ModBlockEntities.TINY_FLUORESCENT_LIGHT_BLOCK_ENTITY, (world1, pos, state1, blockEntity) -> blockEntity.tick(world1, pos, state1));
     }
 }
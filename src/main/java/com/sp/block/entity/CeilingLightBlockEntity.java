@@ -1,19 +1,16 @@
 package com.sp.block.entity;
 
+import com.sp.clientWrapper.ClientWrapper;
 import com.sp.init.ModBlockEntities;
-import foundry.veil.api.client.render.VeilRenderSystem;
-import foundry.veil.api.client.render.deferred.light.AreaLight;
+import com.sp.render.ManagedLight;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.random.Random;
 import net.minecraft.world.World;
-import org.joml.Quaternionf;
-import org.joml.Vector3d;
 
 public class CeilingLightBlockEntity extends BlockEntity {
-    AreaLight light;
+    ManagedLight light;
     float brightness;
     float angle;
     int ticks;
@@ -30,7 +27,7 @@ public class CeilingLightBlockEntity extends BlockEntity {
     @Override
     public void markRemoved() {
         if (this.light != null && world.isClient) {
-            VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().removeLight(this.light);
+            ClientWrapper.removeManagedLight(this.light);
             this.light = null;
         }
         super.markRemoved();
@@ -45,19 +42,9 @@ public class CeilingLightBlockEntity extends BlockEntity {
             return;
         }
 
-        Vec3d position = pos.toCenterPos().add(-0.5, -0.06, 0);
         this.brightness = 2.58f;
         this.angle = 60.4f;
-        this.light = new AreaLight();
-
-        VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().addLight(this.light
-                .setBrightness(this.brightness)
-                .setSize(0.9, 0.0)
-                .setAngle((float) Math.toRadians(this.angle))
-                .setOrientation(new Quaternionf().rotateXYZ((float) Math.toRadians(-90d), 0, 0))
-                .setPosition(new Vector3d(position.x, position.y, position.z))
-                .setDistance(15)
-        );
+        this.light = ClientWrapper.addCeilingLight(pos);
 
 //            if(!state.get(CeilingLight.STOPPED)) {
 //                ticks++;
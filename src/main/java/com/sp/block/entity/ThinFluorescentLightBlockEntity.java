@@ -2,13 +2,12 @@ package com.sp.block.entity;
 
 import com.sp.block.custom.FluorescentLightBlock;
 import com.sp.block.custom.ThinFluorescentLightBlock;
+import com.sp.clientWrapper.ClientWrapper;
 import com.sp.init.BackroomsLevels;
 import com.sp.init.ModBlockEntities;
 import com.sp.init.ModBlocks;
-import com.sp.world.levels.custom.Level0BackroomsLevel;
-import com.sp.world.levels.custom.Level1BackroomsLevel;
-import foundry.veil.api.client.render.VeilRenderSystem;
-import foundry.veil.api.client.render.deferred.light.PointLight;
+import com.sp.render.ManagedLight;
+import com.sp.world.lights.LightFlicker;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.util.math.BlockPos;
@@ -22,10 +21,11 @@ import static com.sp.clientWrapper.ClientWrapper.doClientSideThinFluorescentsTic
 public class ThinFluorescentLightBlockEntity extends BlockEntity {
     BlockState currentState;
     public boolean playingSound;
-    public PointLight pointLight;
+    public ManagedLight light;
     public boolean prevOn;
     public final int randInt;
     public int ticks = 0;
+    public BlockPos flickerRoot;
     public final Random random = Random.create();
 
     public ThinFluorescentLightBlockEntity(BlockPos pos, BlockState state) {
@@ -40,10 +40,8 @@ public class ThinFluorescentLightBlockEntity extends BlockEntity {
     @Override
     public void markRemoved() {
         if (this.getWorld() != null && this.getWorld().isClient){
-            if(pointLight != null) {
-                VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().removeLight(pointLight);
-                pointLight = null;
-            }
+            ClientWrapper.removeManagedLight(this.light);
+            this.light = null;
         }
 
         super.markRemoved();
@@ -60,72 +58,8 @@ public class ThinFluorescentLightBlockEntity extends BlockEntity {
         this.currentState = state;
         ticks++;
 
-        if (!world.isClient) {
-            BlockState northState = world.getBlockState(pos.north());
-            BlockState westState = world.getBlockState(pos.west());
-            BlockState downState = world.getBlockState(pos.down());
-            int northOWest = 0;
-
-            if (northState.getBlock() == ModBlocks.THIN_FLUORESCENT_LIGHT) {
-                northOWest = 1;
-            } else if (westState.getBlock() == ModBlocks.THIN_FLUORESCENT_LIGHT) {
-                northOWest = 2;
-            } else if (downState.getBlock() == ModBlocks.THIN_FLUORESCENT_LIGHT) {
-                northOWest = 3;
-            }
-
-            if (northOWest != 0) {
-                if (northOWest == 1) {
-                    world.setBlockState(pos, northState.with(ThinFluorescentLightBlock.COPY, true));
-                } else if (northOWest == 2) {
-                    world.setBlockState(pos, westState.with(ThinFluorescentLightBlock.COPY, true));
-                } else {
-                    world.setBlockState(pos, downState.with(ThinFluorescentLightBlock.COPY, true));
-                }
-            } else {
-                if (state.get(ThinFluorescentLightBlock.COPY)) {
-                    world.setBlockState(pos, world.getBlockState(pos).with(ThinFluorescentLightBlock.COPY, false));
-                }
-
-                //Turn off if Blackout Event is active
-                boolean blackouted = false;
-
-                if ((BackroomsLevels.getLevel(world)).orElse(BackroomsLevels.POOLROOMS_BACKROOMS_LEVEL) instanceof Level1BackroomsLevel level) {
-                    blackouted = level.getLightState() == Level0BackroomsLevel.LightState.BLACKOUT;
-                }
-
-                if ((BackroomsLevels.getLevel(world)).orElse(BackroomsLevels.POOLROOMS_BACKROOMS_LEVEL) instanceof Level0BackroomsLevel level) {
-                    if (level.getLightState() == Level0BackroomsLevel.LightState.BLACKOUT) {
-                        blackouted = true;
-                    }
-                }
-
-                if (blackouted) {
-                    world.setBlockState(pos, world.getBlockState(pos).with(ThinFluorescentLightBlock.BLACKOUT, true));
-                    this.setPlayingSound(false);
-
-                } else {
-                    world.setBlockState(pos, world.getBlockState(pos).with(ThinFluorescentLightBlock.BLACKOUT, false));
-                }
-
-                if ((BackroomsLevels.getLevel(world)).orElse(BackroomsLevels.POOLROOMS_BACKROOMS_LEVEL) instanceof Level1BackroomsLevel level && level.getLightState() == Level0BackroomsLevel.LightState.FLICKER && !state.get(ThinFluorescentLightBlock.BLACKOUT)) {
-                    if (ticks % randInt == 0) {
-                        int i = random.nextBetween(1, 2);
-                        if (i == 1) {
-                            world.setBlockState(pos, world.getBlockState(pos).with(ThinFluorescentLightBlock.ON, true));
-                        } else {
-                            world.setBlockState(pos, world.getBlockState(pos).with(ThinFluorescentLightBlock.ON, false));
-                        }
-                    }
-                } else {
-                    if (!state.get(ThinFluorescentLightBlock.ON)) {
-                        world.setBlockState(pos, world.getBlockState(pos).with(ThinFluorescentLightBlock.ON, true));
-                    }
-                }
-            }
-        }
-
         if (world.isClient) {
+            this.flickerRoot = LightFlicker.tickFixture(world, pos, state, BackroomsLevels.LEVEL1_WORLD_KEY, this.flickerRoot, 7, true, ThinFluorescentLightBlock.ON, ThinFluorescentLightBlock.COPY, ThinFluorescentLightBlock.BLACKOUT);
             doClientSideThinFluorescentsTick(world, pos, state, random1, position, this);
         }
 
@@ -4,13 +4,12 @@ import com.sp.block.custom.FluorescentLightBlock;
 import com.sp.block.custom.TinyFluorescentLightBlock;
 import com.sp.cca_stuff.InitializeComponents;
 import com.sp.cca_stuff.WorldEvents;
+import com.sp.clientWrapper.ClientWrapper;
 import com.sp.init.BackroomsLevels;
 import com.sp.init.ModBlockEntities;
 import com.sp.init.ModBlocks;
-import com.sp.world.levels.custom.Level0BackroomsLevel;
-import com.sp.world.levels.custom.Level1BackroomsLevel;
-import foundry.veil.api.client.render.VeilRenderSystem;
-import foundry.veil.api.client.render.deferred.light.PointLight;
+import com.sp.render.ManagedLight;
+import com.sp.world.lights.LightFlicker;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.util.math.BlockPos;
@@ -24,10 +23,11 @@ import static com.sp.clientWrapper.ClientWrapper.doClientSideTinyFluorescentsTic
 public class TinyFluorescentLightBlockEntity extends BlockEntity {
     BlockState currentState;
     public boolean playingSound;
-    public PointLight pointLight;
+    public ManagedLight light;
     public boolean prevOn;
     public final int randInt;
     public int ticks = 0;
+    public BlockPos flickerRoot;
     public final Random random = Random.create();
 
     public TinyFluorescentLightBlockEntity(BlockPos pos, BlockState state) {
@@ -42,10 +42,8 @@ public class TinyFluorescentLightBlockEntity extends BlockEntity {
     @Override
     public void markRemoved() {
         if (this.getWorld() != null && this.getWorld().isClient){
-            if(pointLight != null) {
-                VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().removeLight(pointLight);
-                pointLight = null;
-            }
+            ClientWrapper.removeManagedLight(this.light);
+            this.light = null;
         }
 
         super.markRemoved();
@@ -63,49 +61,7 @@ public class TinyFluorescentLightBlockEntity extends BlockEntity {
         ticks++;
 
         if (world.isClient) {
-            if (state.get(TinyFluorescentLightBlock.COPY)) {
-                world.setBlockState(pos, world.getBlockState(pos).with(TinyFluorescentLightBlock.COPY, false));
-            }
-
-            //Turn off if Blackout Event is active
-            boolean blackouted = false;
-
-            if ((BackroomsLevels.getLevel(world).orElse(BackroomsLevels.OVERWORLD_REPRESENTING_BACKROOMS_LEVEL)) instanceof Level1BackroomsLevel level) {
-                blackouted = level.getLightState() == Level0BackroomsLevel.LightState.BLACKOUT;
-            }
-
-            if ((BackroomsLevels.getLevel(world).orElse(BackroomsLevels.OVERWORLD_REPRESENTING_BACKROOMS_LEVEL)) instanceof Level0BackroomsLevel level) {
-                if (level.getLightState() == Level0BackroomsLevel.LightState.BLACKOUT) {
-                    blackouted = true;
-                }
-            }
-
-            if (blackouted) {
-                world.setBlockState(pos, world.getBlockState(pos).with(TinyFluorescentLightBlock.BLACKOUT, true));
-                this.setPlayingSound(false);
-
-            } else {
-                world.setBlockState(pos, world.getBlockState(pos).with(TinyFluorescentLightBlock.BLACKOUT, false));
-            }
-
-            if ((BackroomsLevels.getLevel(world).orElse(BackroomsLevels.OVERWORLD_REPRESENTING_BACKROOMS_LEVEL)) instanceof Level1BackroomsLevel level && level.getLightState() == Level0BackroomsLevel.LightState.FLICKER && !state.get(TinyFluorescentLightBlock.BLACKOUT)) {
-                if (ticks % randInt == 0) {
-                    int i = random.nextBetween(1, 2);
-                    if (i == 1) {
-                        world.setBlockState(pos, world.getBlockState(pos).with(TinyFluorescentLightBlock.ON, true));
-                    } else {
-                        world.setBlockState(pos, world.getBlockState(pos).with(TinyFluorescentLightBlock.ON, false));
-                    }
-                }
-            } else {
-                if (!state.get(TinyFluorescentLightBlock.ON)) {
-                    world.setBlockState(pos, world.getBlockState(pos).with(TinyFluorescentLightBlock.ON, true));
-                }
-            }
-        }
-
-
-        if (world.isClient) {
+            this.flickerRoot = LightFlicker.tickFixture(world, pos, state, BackroomsLevels.LEVEL1_WORLD_KEY, this.flickerRoot, 7, false, TinyFluorescentLightBlock.ON, TinyFluorescentLightBlock.COPY, TinyFluorescentLightBlock.BLACKOUT);
             doClientSideTinyFluorescentsTick(world, pos, state, random1, position, this);
         }
 
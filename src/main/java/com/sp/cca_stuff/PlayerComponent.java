@@ -10,10 +10,10 @@ import com.sp.world.levels.BackroomsLevel;
 import com.sp.world.levels.custom.Level2BackroomsLevel;
 import dev.onyxstudios.cca.api.v3.component.ComponentProvider;
 import dev.onyxstudios.cca.api.v3.component.sync.AutoSyncedComponent;
+import dev.onyxstudios.cca.api.v3.component.sync.PlayerSyncPredicate;
 import dev.onyxstudios.cca.api.v3.component.tick.ClientTickingComponent;
 import dev.onyxstudios.cca.api.v3.component.tick.ServerTickingComponent;
 import net.fabricmc.fabric.api.dimension.v1.FabricDimensions;
-import net.minecraft.block.Blocks;
 import net.minecraft.client.sound.MovingSoundInstance;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.attribute.EntityAttributeInstance;
@@ -25,6 +25,7 @@ import net.minecraft.inventory.SimpleInventory;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
+import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.packet.s2c.play.StopSoundS2CPacket;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.network.ServerPlayerEntity;
@@ -32,25 +33,47 @@ import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.GameMode;
 import net.minecraft.world.TeleportTarget;
 import net.minecraft.world.World;
 
-import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.sp.SPBRevamped.SLOW_SPEED_MODIFIER;
 
 @SuppressWarnings("DataFlowIssue")
 public class PlayerComponent implements AutoSyncedComponent, ClientTickingComponent, ServerTickingComponent {
+    // The fields the clients know about, sync() only sends the ones that were set since the last sync
+    private static final int STAMINA = 1;
+    private static final int TELEPORTING_TIMER = 1 << 1;
+    private static final int FLASHLIGHT = 1 << 2;
+    private static final int SHOULD_RENDER = 1 << 3;
+    private static final int DOING_CUTSCENE = 1 << 4;
+    private static final int PLAYING_GLITCH_SOUND = 1 << 5;
+    private static final int NO_CLIP = 1 << 6;
+    private static final int DO_STATIC = 1 << 7;
+    private static final int BEING_CAPTURED = 1 << 8;
+    private static final int HAS_BEEN_CAPTURED = 1 << 9;
+    private static final int BEING_RELEASED = 1 << 10;
+    private static final int MUTED = 1 << 11;
+    private static final int GLITCH = 1 << 12;
+    private static final int GLITCH_DAMAGE = 1 << 13;
+    private static final int ALL_FIELDS = (1 << 14) - 1;
+    // Booleans are sent together as one set of bits
+    private static final int FLAGS = ALL_FIELDS & ~(STAMINA | TELEPORTING_TIMER);
+    // Only the player itself needs to know these
+    private static final int OWNER_ONLY = STAMINA;
+
     public final PlayerEntity player;
     private final SimpleInventory playerSavedMainInventory = new SimpleInventory(36);
     private final SimpleInventory playerSavedArmorInventory = new SimpleInventory(4);
     private final SimpleInventory playerSavedOffhandInventory = new SimpleInventory(1);
     private final Random random = new Random();
+    // Atomic because some setters are called from scheduled tasks off the server thread, a lost bit would never be synced
+    private final AtomicInteger dirtyFields = new AtomicInteger();
 
     private int smilerSpawnDelay = 80;
 
@@ -194,6 +217,7 @@ public class PlayerComponent implements AutoSyncedComponent, ClientTickingCompon
 
     public void setTeleportingTimer(int teleportingTimer) {
         this.teleportingTimer = teleportingTimer;
+        this.markDirty(TELEPORTING_TIMER);
         this.justChanged();
     }
 
@@ -230,10 +254,12 @@ public class PlayerComponent implements AutoSyncedComponent, ClientTickingCompon
     }
     public void setShouldRender(boolean shouldRender) {
         this.shouldRender = shouldRender;
+        this.markDirty(SHOULD_RENDER);
     }
 
     public void setFlashLightOn(boolean set){
         this.flashLightOn = set;
+        this.markDirty(FLASHLIGHT);
     }
     public boolean isFlashLightOn() {
         return flashLightOn;
@@ -244,6 +270,7 @@ public class PlayerComponent implements AutoSyncedComponent, ClientTickingCompon
     }
     public void setDoingCutscene(boolean doingCutscene) {
         isDoingCutscene = doingCutscene;
+        this.markDirty(DOING_CUTSCENE);
     }
 
     public boolean isTeleportingToPoolrooms() {
@@ -255,6 +282,7 @@ public class PlayerComponent implements AutoSyncedComponent, ClientTickingCompon
     }
     public void setShouldNoClip(boolean shouldNoClip) {
         this.shouldNoClip = shouldNoClip;
+        this.markDirty(NO_CLIP);
     }
 
     public boolean isShouldDoStatic() {
@@ -262,19 +290,21 @@ public class PlayerComponent implements AutoSyncedComponent, ClientTickingCompon
     }
     public void setShouldDoStatic(boolean shouldDoStatic) {
         this.shouldDoStatic = shouldDoStatic;
+        this.markDirty(DO_STATIC);
     }
 
     public boolean isBeingCaptured() {return isBeingCaptured;}
-    public void setBeingCaptured(boolean beingCaptured) {isBeingCaptured = beingCaptured;}
+    public void setBeingCaptured(boolean beingCaptured) {isBeingCaptured = beingCaptured; this.markDirty(BEING_CAPTURED);}
 
     public boolean hasBeenCaptured() {return hasBeenCaptured;}
-    public void setHasBeenCaptured(boolean hasBeenCaptured) {this.hasBeenCaptured = hasBeenCaptured;}
+    public void setHasBeenCaptured(boolean hasBeenCaptured) {this.hasBeenCaptured = hasBeenCaptured; this.markDirty(HAS_BEEN_CAPTURED);}
 
     public boolean isBeingReleased() {
         return isBeingReleased;
     }
     public void setBeingReleased(boolean beingReleased) {
         isBeingReleased = beingReleased;
+        this.markDirty(BEING_RELEASED);
     }
 
     public Entity getTargetEntity() {return targetEntity;}
@@ -293,7 +323,7 @@ public class PlayerComponent implements AutoSyncedComponent, ClientTickingCompon
     }
 
     public boolean shouldBeMuted() {return shouldBeMuted;}
-    public void setShouldBeMuted(boolean shouldStayUnmuted) {this.shouldBeMuted = shouldStayUnmuted;}
+    public void setShouldBeMuted(boolean shouldStayUnmuted) {this.shouldBeMuted = shouldStayUnmuted; this.markDirty(MUTED);}
 
     public boolean isSpeaking() {
         return isSpeaking;
@@ -335,10 +365,12 @@ public class PlayerComponent implements AutoSyncedComponent, ClientTickingCompon
     }
     public void setShouldGlitch(boolean shouldGlitch) {
         this.shouldGlitch = shouldGlitch;
+        this.markDirty(GLITCH);
     }
 
     public void setShouldInflictGlitchDamage(boolean shouldInflictGlitchDamage) {
         this.shouldInflictGlitchDamage = shouldInflictGlitchDamage;
+        this.markDirty(GLITCH_DAMAGE);
     }
 
     @Override
@@ -383,12 +415,97 @@ public class PlayerComponent implements AutoSyncedComponent, ClientTickingCompon
         if (BackroomsLevels.isInBackrooms(this.player.getWorld().getRegistryKey())) {
             tag.put("inventory", this.playerSavedMainInventory.toNbtList());
             tag.put("inventoryOffHand", this.playerSavedOffhandInventory.toNbtList());
-            tag.put("inventoryOffHand", this.playerSavedArmorInventory.toNbtList());
+            tag.put("inventoryArmor", this.playerSavedArmorInventory.toNbtList());
         }
     }
 
+    /**
+     * Sends the fields that were set since the last sync to the player and everyone tracking them.
+     */
     public void sync() {
-        InitializeComponents.PLAYER.sync(this.player);
+        int fields = this.dirtyFields.getAndSet(0);
+
+        if (fields != 0) {
+            InitializeComponents.PLAYER.sync(this.player, (buf, recipient) -> this.writeFields(buf, recipient, fields));
+        }
+    }
+
+    private void markDirty(int field) {
+        this.dirtyFields.getAndUpdate(fields -> fields | field);
+    }
+
+    /**
+     * The whole component, for players that start tracking this one. The saved inventories never leave the server.
+     */
+    @Override
+    public void writeSyncPacket(PacketByteBuf buf, ServerPlayerEntity recipient) {
+        this.writeFields(buf, recipient, ALL_FIELDS);
+    }
+
+    private void writeFields(PacketByteBuf buf, ServerPlayerEntity recipient, int fields) {
+        if (recipient != this.player) {
+            fields &= ~OWNER_ONLY;
+        }
+
+        buf.writeVarInt(fields);
+
+        if ((fields & FLAGS) != 0) {
+            int flags = 0;
+            if (this.flashLightOn) flags |= FLASHLIGHT;
+            if (this.shouldRender) flags |= SHOULD_RENDER;
+            if (this.isDoingCutscene) flags |= DOING_CUTSCENE;
+            if (this.playingGlitchSound) flags |= PLAYING_GLITCH_SOUND;
+            if (this.shouldNoClip) flags |= NO_CLIP;
+            if (this.shouldDoStatic) flags |= DO_STATIC;
+            if (this.isBeingCaptured) flags |= BEING_CAPTURED;
+            if (this.hasBeenCaptured) flags |= HAS_BEEN_CAPTURED;
+            if (this.isBeingReleased) flags |= BEING_RELEASED;
+            if (this.shouldBeMuted) flags |= MUTED;
+            if (this.shouldGlitch) flags |= GLITCH;
+            if (this.shouldInflictGlitchDamage) flags |= GLITCH_DAMAGE;
+            buf.writeVarInt(flags & fields);
+        }
+
+        if ((fields & STAMINA) != 0) {
+            buf.writeVarInt(this.stamina);
+        }
+
+        if ((fields & TELEPORTING_TIMER) != 0) {
+            buf.writeVarInt(this.teleportingTimer);
+        }
+    }
+
+    @Override
+    public void applySyncPacket(PacketByteBuf buf) {
+        int fields = buf.readVarInt();
+
+        if ((fields & FLAGS) != 0) {
+            int flags = buf.readVarInt();
+            this.flashLightOn = readFlag(fields, flags, FLASHLIGHT, this.flashLightOn);
+            this.shouldRender = readFlag(fields, flags, SHOULD_RENDER, this.shouldRender);
+            this.isDoingCutscene = readFlag(fields, flags, DOING_CUTSCENE, this.isDoingCutscene);
+            this.playingGlitchSound = readFlag(fields, flags, PLAYING_GLITCH_SOUND, this.playingGlitchSound);
+            this.shouldNoClip = readFlag(fields, flags, NO_CLIP, this.shouldNoClip);
+            this.shouldDoStatic = readFlag(fields, flags, DO_STATIC, this.shouldDoStatic);
+            this.isBeingCaptured = readFlag(fields, flags, BEING_CAPTURED, this.isBeingCaptured);
+            this.hasBeenCaptured = readFlag(fields, flags, HAS_BEEN_CAPTURED, this.hasBeenCaptured);
+            this.isBeingReleased = readFlag(fields, flags, BEING_RELEASED, this.isBeingReleased);
+            this.shouldBeMuted = readFlag(fields, flags, MUTED, this.shouldBeMuted);
+            this.shouldGlitch = readFlag(fields, flags, GLITCH, this.shouldGlitch);
+            this.shouldInflictGlitchDamage = readFlag(fields, flags, GLITCH_DAMAGE, this.shouldInflictGlitchDamage);
+        }
+
+        if ((fields & STAMINA) != 0) {
+            this.stamina = buf.readVarInt();
+        }
+
+        if ((fields & TELEPORTING_TIMER) != 0) {
+            this.teleportingTimer = buf.readVarInt();
+        }
+    }
+
+    private static boolean readFlag(int fields, int flags, int field, boolean current) {
+        return (fields & field) != 0 ? (flags & field) != 0 : current;
     }
 
     @Override
@@ -429,18 +546,8 @@ public class PlayerComponent implements AutoSyncedComponent, ClientTickingCompon
         if (backroomsLevel.isPresent()) {
             BackroomsLevel level = backroomsLevel.get();
 
-            List<BackroomsLevel.LevelTransition> teleports = level.checkForTransition(this, this.player.getWorld());
-
-            if (!teleports.isEmpty() && currentTransition == null) {
-                currentTransition = teleports.get(0);
-            }
-
-            if (level == BackroomsLevels.LEVEL324_BACKROOMS_LEVEL && this.player.getWorld().getBlockState(this.player.getBlockPos().offset(Direction.DOWN, 3)).isOf(Blocks.RED_WOOL)) {
-                this.player.teleport(this.player.getX(), this.player.getY() - 64, this.player.getZ());
-            }
-
-            if (level == BackroomsLevels.LEVEL324_BACKROOMS_LEVEL && this.player.getWorld().getBlockState(this.player.getBlockPos().offset(Direction.DOWN, 3)).isOf(Blocks.YELLOW_WOOL)) {
-                this.player.teleport(this.player.getX(), this.player.getY() + 64, this.player.getZ());
+            if (currentTransition == null) {
+                currentTransition = level.checkForTransition(this, this.player.getWorld());
             }
         }
 
@@ -549,7 +656,7 @@ public class PlayerComponent implements AutoSyncedComponent, ClientTickingCompon
             //*Mod by 20 to reduce packet count
             if(prevStamina != this.stamina && this.stamina % 20 == 0){
                 //*Only sync with the specific player since other players don't need to know your stamina
-                InitializeComponents.PLAYER.syncWith((ServerPlayerEntity) this.player, (ComponentProvider) this.player);
+                InitializeComponents.PLAYER.syncWith((ServerPlayerEntity) this.player, (ComponentProvider) this.player, (buf, recipient) -> this.writeFields(buf, recipient, STAMINA), PlayerSyncPredicate.all());
             }
 
         }
@@ -562,6 +669,7 @@ public class PlayerComponent implements AutoSyncedComponent, ClientTickingCompon
                 if (suffocationTimer == 1) {
                     SPBRevamped.sendPersonalPlaySoundPacket((ServerPlayerEntity) this.player, ModSounds.GLITCH, 1.0f, 1.0f);
                     this.playingGlitchSound = true;
+                    this.markDirty(PLAYING_GLITCH_SOUND);
                 }
 
                 if (suffocationTimer == 40) {
@@ -586,6 +694,9 @@ public class PlayerComponent implements AutoSyncedComponent, ClientTickingCompon
                 StopSoundS2CPacket stopSoundS2CPacket = new StopSoundS2CPacket(new Identifier(SPBRevamped.MOD_ID, "glitch"), null);
                 ((ServerPlayerEntity) this.player).networkHandler.sendPacket(stopSoundS2CPacket);
             }
+            if (this.playingGlitchSound) {
+                this.markDirty(PLAYING_GLITCH_SOUND);
+            }
             this.playingGlitchSound = false;
             suffocationTimer = 0;
         }
@@ -8,11 +8,16 @@ import com.sp.entity.ik.parts.Segment;
 import com.sp.entity.ik.parts.ik_chains.IKChain;
 import com.sp.entity.ik.parts.ik_chains.TargetReachingIKChain;
 import com.sp.entity.ik.parts.sever_limbs.ServerLimb;
+import com.sp.sounds.voicechat.VoiceEffect;
 import dev.onyxstudios.cca.api.v3.component.sync.AutoSyncedComponent;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtString;
 import net.minecraft.util.math.BlockPos;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -33,6 +38,8 @@ public class SkinWalkerComponent implements AutoSyncedComponent {
     private boolean isNoticing;
     private int suspicion;
     private BlockPos lastKnownTargetLocation;
+    // The effects on the voices it plays in its true form, random for every clip if it's empty. Set through the entity's NBT, like "voiceEffects": ["reverse", "bit_crush"]
+    private final List<VoiceEffect> voiceEffects = new ArrayList<>();
 
     private final IKLegComponent<? extends IKChain, ? extends IKAnimatable<?>> IKComponent = new IKLegComponent<>(
             new IKLegComponent.LegSetting.Builder()
@@ -124,6 +131,12 @@ public class SkinWalkerComponent implements AutoSyncedComponent {
     public UUID getTargetPlayerUUID() {return this.targetPlayerUUID;}
     public void setTargetPlayerUUID(UUID targetPlayerUUID) {this.targetPlayerUUID = targetPlayerUUID; sync();}
 
+    public List<VoiceEffect> getVoiceEffects() {return this.voiceEffects;}
+    public void setVoiceEffects(List<VoiceEffect> voiceEffects) {
+        this.voiceEffects.clear();
+        this.voiceEffects.addAll(voiceEffects);
+    }
+
     public void sync(){InitializeComponents.SKIN_WALKER.sync(this.entity);}
 
 
@@ -134,6 +147,15 @@ public class SkinWalkerComponent implements AutoSyncedComponent {
         this.isChasing = tag.getBoolean("isChasing");
         this.trueForm = tag.getBoolean("trueForm");
         this.beginReveal = tag.getBoolean("beginReveal");
+
+        this.voiceEffects.clear();
+        NbtList voiceEffects = tag.getList("voiceEffects", NbtElement.STRING_TYPE);
+        for (int i = 0; i < voiceEffects.size(); i++) {
+            VoiceEffect effect = VoiceEffect.byName(voiceEffects.getString(i));
+            if (effect != null) {
+                this.voiceEffects.add(effect);
+            }
+        }
     }
 
     @Override
@@ -143,6 +165,12 @@ public class SkinWalkerComponent implements AutoSyncedComponent {
         tag.putBoolean("isChasing", this.isChasing);
         tag.putBoolean("trueForm", this.trueForm);
         tag.putBoolean("beginReveal", this.beginReveal);
+
+        NbtList voiceEffects = new NbtList();
+        for (VoiceEffect effect : this.voiceEffects) {
+            voiceEffects.add(NbtString.of(effect.getName()));
+        }
+        tag.put("voiceEffects", voiceEffects);
     }
 
 
@@ -7,29 +7,47 @@ import com.sp.init.ModEntities;
 import com.sp.init.ModSounds;
 import com.sp.sounds.voicechat.BackroomsVoicechatPlugin;
 import com.sp.world.events.AbstractEvent;
+import com.sp.world.events.EventSettings;
+import com.sp.world.events.EventTable;
 import com.sp.world.levels.BackroomsLevel;
+import com.sp.world.levels.LevelState;
 import com.sp.world.levels.custom.Level0BackroomsLevel;
 import dev.onyxstudios.cca.api.v3.component.sync.AutoSyncedComponent;
 import dev.onyxstudios.cca.api.v3.component.tick.ServerTickingComponent;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 import net.minecraft.entity.ai.TargetPredicate;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.network.PacketByteBuf;
 import net.minecraft.predicate.entity.EntityPredicates;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.world.GameMode;
 import net.minecraft.world.World;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 public class WorldEvents implements AutoSyncedComponent, ServerTickingComponent {
+    // The fields the clients know about, sync() only sends the ones that changed since the last sync
+    private static final int LEVEL_STATE = 1;
+    private static final int SKINWALKER_TARGET = 1 << 1;
+    private static final int SKINWALKER_DONE = 1 << 2;
+    private static final int ALL_FIELDS = LEVEL_STATE | SKINWALKER_TARGET | SKINWALKER_DONE;
+
     private final World world;
+    private final LevelState levelState;
 
-    private AbstractEvent activeEvent;
-    public int ticks;
+    private final List<RunningEvent> runningEvents = new ArrayList<>();
+    // When each event can be picked again, in world time
+    private final Object2LongOpenHashMap<String> cooldowns = new Object2LongOpenHashMap<>();
+    private final EventTable.Filter eventFilter = this::canStartEvent;
     private int delay;
+    private int dirtyFields;
 
     private static final UUID nullUUID = UUID.randomUUID();
     private UUID activeSkinwalkerTarget;
@@ -40,18 +58,31 @@ public class WorldEvents implements AutoSyncedComponent, ServerTickingComponent
 
     public WorldEvents(World world) {
         this.world = world;
-        this.ticks = 0;
+        this.levelState = BackroomsLevels.getLevel(world).map(BackroomsLevel::createState).orElseGet(LevelState::new);
         this.delay = 1800;
         this.activeSkinwalkerTarget = nullUUID;
 
         this.done = false;
     }
 
-    public void setActiveEvent(AbstractEvent activeEvent) {
-        this.activeEvent = activeEvent;
-    }
-    public AbstractEvent getActiveEvent() {
-        return this.activeEvent;
+    /**
+     * Starts an event right away, finishing the running event of its group first.
+     * @param name The name the event is registered with in the level, it decides the event's group and cooldown.
+     */
+    public void startEvent(String name, AbstractEvent event) {
+        EventSettings settings = this.getSettings(name);
+
+        for (int i = this.runningEvents.size() - 1; i >= 0; i--) {
+            RunningEvent running = this.runningEvents.get(i);
+            if (running.group.equals(settings.group())) {
+                running.event.finish(this.world);
+                this.runningEvents.remove(i);
+            }
+        }
+
+        this.runningEvents.add(new RunningEvent(name, settings.group(), event));
+        this.cooldowns.put(name, this.world.getTime() + settings.cooldown());
+        event.init(this.world);
     }
 
     public PlayerEntity getActiveSkinwalkerTarget() {
@@ -62,32 +93,82 @@ public class WorldEvents implements AutoSyncedComponent, ServerTickingComponent
     }
     public void setActiveSkinwalkerTarget(UUID uuid) {
         this.activeSkinwalkerTarget = uuid;
+        this.dirtyFields |= SKINWALKER_TARGET;
         this.sync();
     }
 
+    public LevelState getLevelState() {
+        return this.levelState;
+    }
+
+    /**
+     * Sends the fields that changed since the last sync to the clients, the running events never leave the server.
+     */
     public void sync() {
-        InitializeComponents.EVENTS.sync(this.world);
+        int fields = this.dirtyFields;
+        if (this.levelState.shouldSync()) {
+            fields |= LEVEL_STATE;
+        }
+
+        this.dirtyFields = 0;
+
+        if (fields != 0) {
+            int changed = fields;
+            InitializeComponents.EVENTS.sync(this.world, (buf, recipient) -> this.writeFields(buf, changed));
+        }
     }
 
     @Override
-    public void readFromNbt(NbtCompound tag) {
-        for (BackroomsLevel level: BackroomsLevels.BACKROOMS_LEVELS) {
-            if (this.world.getRegistryKey() == level.getWorldKey()) {
-                level.readFromNbt(tag);
-            }
+    public void writeSyncPacket(PacketByteBuf buf, ServerPlayerEntity recipient) {
+        this.writeFields(buf, ALL_FIELDS);
+    }
+
+    private void writeFields(PacketByteBuf buf, int fields) {
+        buf.writeByte(fields);
+
+        if ((fields & LEVEL_STATE) != 0) {
+            this.levelState.writeSyncPacket(buf);
+        }
+
+        if ((fields & SKINWALKER_TARGET) != 0) {
+            buf.writeUuid(this.activeSkinwalkerTarget);
+        }
+
+        if ((fields & SKINWALKER_DONE) != 0) {
+            buf.writeBoolean(this.done);
+        }
+    }
+
+    @Override
+    public void applySyncPacket(PacketByteBuf buf) {
+        int fields = buf.readByte();
+
+        if ((fields & LEVEL_STATE) != 0) {
+            this.levelState.applySyncPacket(buf);
+        }
+
+        if ((fields & SKINWALKER_TARGET) != 0) {
+            this.activeSkinwalkerTarget = buf.readUuid();
         }
 
+        if ((fields & SKINWALKER_DONE) != 0) {
+            this.done = buf.readBoolean();
+        }
+    }
+
+    @Override
+    public void readFromNbt(NbtCompound tag) {
+        this.levelState.readFromNbt(tag);
+        this.readEvents(tag);
+
         this.activeSkinwalkerTarget = tag.getUuid("activeSkinwalkerTarget");
         this.done = tag.getBoolean("skinwalkerDone");
     }
 
     @Override
     public void writeToNbt(NbtCompound tag) {
-        for (BackroomsLevel level: BackroomsLevels.BACKROOMS_LEVELS) {
-            if (this.world.getRegistryKey() == level.getWorldKey()) {
-                level.writeToNbt(tag);
-            }
-        }
+        this.levelState.writeToNbt(tag);
+        this.writeEvents(tag);
 
         tag.putUuid("activeSkinwalkerTarget", this.activeSkinwalkerTarget);
         tag.putBoolean("skinwalkerDone", this.done);
@@ -96,8 +177,6 @@ public class WorldEvents implements AutoSyncedComponent, ServerTickingComponent
     @Override
     public void serverTick() {
         if (world != null && !world.getPlayers().isEmpty() && BackroomsLevels.isInBackrooms(world.getRegistryKey())) {
-            ticks++;
-
             tickWorldEvents();
             //Start Looking for a player to take and take them when they're not talking and can't be seen
             tickSkinWalkerCapturing();
@@ -123,6 +202,7 @@ public class WorldEvents implements AutoSyncedComponent, ServerTickingComponent
                 }
 
                 this.activeSkinwalkerTarget = nullUUID;
+                this.dirtyFields |= SKINWALKER_TARGET;
             }
 
             return;
@@ -146,11 +226,11 @@ public class WorldEvents implements AutoSyncedComponent, ServerTickingComponent
                 tick++;
 
                 if (this.tick == 1) {
-                    level0BackroomsLevel.setLightState(Level0BackroomsLevel.LightState.FLICKER);
+                    level0BackroomsLevel.getState(this.world).setLightState(Level0BackroomsLevel.LightState.FLICKER);
                 }
 
                 if (this.tick == 80) {
-                    level0BackroomsLevel.setLightState(Level0BackroomsLevel.LightState.OFF);
+                    level0BackroomsLevel.getState(this.world).setLightState(Level0BackroomsLevel.LightState.OFF);
 
                     targetComponent.setBeingReleased(true);
                     targetComponent.sync();
@@ -169,7 +249,7 @@ public class WorldEvents implements AutoSyncedComponent, ServerTickingComponent
                 }
 
                 if (this.tick >= 105) {
-                    level0BackroomsLevel.setLightState(Level0BackroomsLevel.LightState.ON);
+                    level0BackroomsLevel.getState(this.world).setLightState(Level0BackroomsLevel.LightState.ON);
                     targetComponent.setBeingReleased(false);
                     targetComponent.setHasBeenCaptured(false);
                     targetComponent.setShouldBeMuted(false);
@@ -185,7 +265,7 @@ public class WorldEvents implements AutoSyncedComponent, ServerTickingComponent
             return;
         }
 
-        if (level0BackroomsLevel.getIntercomCount() < 2 || world.getPlayers().size() <= 1) {
+        if (level0BackroomsLevel.getState(this.world).getIntercomCount() < 2 || world.getPlayers().size() <= 1) {
             return;
         }
 
@@ -266,52 +346,148 @@ public class WorldEvents implements AutoSyncedComponent, ServerTickingComponent
         ((ServerPlayerEntity) target).changeGameMode(GameMode.SPECTATOR);
         ((ServerPlayerEntity) target).setCameraEntity(skinWalkerEntity);
         this.done = true;
+        this.dirtyFields |= SKINWALKER_DONE;
         this.sync();
     }
 
     private void tickWorldEvents() {
-        if (activeEvent == null) {
-            this.delay--;
-            if (this.delay > 0) {
-                return;
+        for (int i = this.runningEvents.size() - 1; i >= 0; i--) {
+            RunningEvent running = this.runningEvents.get(i);
+            running.ticks++;
+
+            if (running.event.duration() <= running.ticks) {
+                running.event.finish(this.world);
+                if (running.event.isDone()) this.runningEvents.remove(i);
+            } else {
+                running.event.ticks(running.ticks, this.world);
             }
+        }
 
-            this.delay = 0;
+        Optional<BackroomsLevel> currentDimension = BackroomsLevels.getLevel(world);
 
-            Optional<BackroomsLevel> currentDimension = BackroomsLevels.getLevel(world);
+        if (currentDimension.isEmpty()) {
+            return;
+        }
 
-            if (currentDimension.isEmpty()) {
-                return;
-            }
+        BackroomsLevel level = currentDimension.get();
+        EventTable table = level.getEventTable();
 
-            this.activeEvent = currentDimension.get().getRandomEvent(world);
-            activeEvent.init(this.world);
-            ticks = 0;
-            this.delay = currentDimension.get().nextEventDelay();
+        // The delay only runs while there's something to pick, same as it used to wait for the active event
+        if (!table.hasAvailable(this.eventFilter)) {
+            return;
+        }
 
+        this.delay--;
+        if (this.delay > 0) {
             return;
         }
 
-        if (activeEvent.duration() <= ticks) {
-            activeEvent.finish(this.world);
-            if (activeEvent.isDone()) activeEvent = null;
-        } else {
-            activeEvent.ticks(ticks, this.world);
+        EventTable.Entry entry = table.pick(this.eventFilter, level.random);
+        if (entry != null) {
+            level.onEventStarted(this.world, entry);
+            this.startEvent(entry.name(), entry.create());
         }
+
+        this.delay = level.nextEventDelay();
     }
 
-    private void shouldSync() {
-        boolean sync = false;
+    private boolean canStartEvent(EventTable.Entry entry) {
+        EventSettings settings = entry.settings();
+
+        if (this.world.getPlayers().size() < settings.minPlayers()) {
+            return false;
+        }
+
+        if (this.world.getTime() < this.cooldowns.getLong(entry.name())) {
+            return false;
+        }
+
+        for (int i = 0; i < this.runningEvents.size(); i++) {
+            if (this.runningEvents.get(i).group.equals(settings.group())) {
+                return false;
+            }
+        }
+
+        return BackroomsLevels.getLevel(this.world).map(level -> level.canStartEvent(this.world, entry)).orElse(false);
+    }
+
+    private EventSettings getSettings(String name) {
+        EventTable.Entry entry = this.getEntry(name);
+        return entry != null ? entry.settings() : EventSettings.DEFAULT;
+    }
+
+    private EventTable.Entry getEntry(String name) {
+        return BackroomsLevels.getLevel(this.world).map(level -> level.getEventTable().get(name)).orElse(null);
+    }
 
-        for (BackroomsLevel backroomsLevel : BackroomsLevels.BACKROOMS_LEVELS) {
-            if (backroomsLevel.shouldSync()) {
-                sync = true;
-                break;
+    private void writeEvents(NbtCompound tag) {
+        NbtList running = new NbtList();
+        for (RunningEvent runningEvent : this.runningEvents) {
+            NbtCompound eventTag = new NbtCompound();
+            eventTag.putString("name", runningEvent.name);
+            eventTag.putInt("ticks", runningEvent.ticks);
+
+            NbtCompound data = new NbtCompound();
+            runningEvent.event.writeToNbt(data);
+            eventTag.put("event", data);
+
+            running.add(eventTag);
+        }
+        tag.put("runningEvents", running);
+
+        NbtCompound cooldownTag = new NbtCompound();
+        this.cooldowns.object2LongEntrySet().forEach(entry -> cooldownTag.putLong(entry.getKey(), entry.getLongValue()));
+        tag.put("eventCooldowns", cooldownTag);
+
+        tag.putInt("eventDelay", this.delay);
+    }
+
+    private void readEvents(NbtCompound tag) {
+        if (tag.contains("eventDelay")) {
+            this.delay = tag.getInt("eventDelay");
+        }
+
+        this.cooldowns.clear();
+        NbtCompound cooldownTag = tag.getCompound("eventCooldowns");
+        for (String name : cooldownTag.getKeys()) {
+            this.cooldowns.put(name, cooldownTag.getLong(name));
+        }
+
+        // The events were already started before the save, so they continue where they were without being started again
+        this.runningEvents.clear();
+        NbtList running = tag.getList("runningEvents", NbtElement.COMPOUND_TYPE);
+        for (int i = 0; i < running.size(); i++) {
+            NbtCompound eventTag = running.getCompound(i);
+            EventTable.Entry entry = this.getEntry(eventTag.getString("name"));
+            if (entry == null) {
+                continue;
             }
+
+            AbstractEvent event = entry.create();
+            event.readFromNbt(eventTag.getCompound("event"));
+
+            RunningEvent runningEvent = new RunningEvent(entry.name(), entry.settings().group(), event);
+            runningEvent.ticks = eventTag.getInt("ticks");
+            this.runningEvents.add(runningEvent);
         }
+    }
 
-        if (sync){
+    private void shouldSync() {
+        if (this.dirtyFields != 0 || this.levelState.isDirty()) {
             this.sync();
         }
     }
+
+    private static class RunningEvent {
+        private final String name;
+        private final String group;
+        private final AbstractEvent event;
+        private int ticks;
+
+        private RunningEvent(String name, String group, AbstractEvent event) {
+            this.name = name;
+            this.group = group;
+            this.event = event;
+        }
+    }
 }
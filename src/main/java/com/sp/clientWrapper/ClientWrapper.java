@@ -20,6 +20,9 @@ import com.sp.init.BackroomsLevels;
 import com.sp.init.HelpfulHintManager;
 import com.sp.init.ModSounds;
 import com.sp.networking.InitializePackets;
+import com.sp.render.FluorescentLightClusters;
+import com.sp.render.LightBudgetManager;
+import com.sp.render.ManagedLight;
 import com.sp.sounds.*;
 import com.sp.sounds.entity.BacteriaChaseSoundInstance;
 import com.sp.sounds.entity.SkinWalkerChaseSoundInstance;
@@ -204,10 +207,8 @@ public class ClientWrapper {
             if (backroomsLevel.isPresent()) {
                 BackroomsLevel level = backroomsLevel.get();
 
-                List<BackroomsLevel.LevelTransition> teleports = level.checkForTransition(playerComponent, playerComponent.player.getWorld());
-
-                if (!teleports.isEmpty() && playerComponent.currentTransition == null) {
-                    playerComponent.currentTransition = teleports.get(0);
+                if (playerComponent.currentTransition == null) {
+                    playerComponent.currentTransition = level.checkForTransition(playerComponent, playerComponent.player.getWorld());
                 }
 
                 ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -285,7 +286,7 @@ public class ClientWrapper {
 
             if ((BackroomsLevels.getLevel(playerComponent.player.getWorld()).orElse(BackroomsLevels.OVERWORLD_REPRESENTING_BACKROOMS_LEVEL))
                     instanceof Level2BackroomsLevel level) {
-                if (levelKey == BackroomsLevels.LEVEL2_WORLD_KEY && !soundManager.isPlaying(playerComponent.WarpAmbience) && level.isWarping()) {
+                if (levelKey == BackroomsLevels.LEVEL2_WORLD_KEY && !soundManager.isPlaying(playerComponent.WarpAmbience) && level.getState(playerComponent.player.getWorld()).isWarping()) {
                     playerComponent.WarpAmbience = new CreakingSoundInstance(playerComponent.player);
                     soundManager.play(playerComponent.WarpAmbience);
                 }
@@ -293,7 +294,7 @@ public class ClientWrapper {
 
             if ((BackroomsLevels.getLevel(playerComponent.player.getWorld()).orElse(BackroomsLevels.OVERWORLD_REPRESENTING_BACKROOMS_LEVEL))
                     instanceof PoolroomsBackroomsLevel level) {
-                if (level.isNoon() && !soundManager.isPlaying(playerComponent.PoolroomsNoonAmbience)) {
+                if (level.getState(playerComponent.player.getWorld()).isNoon() && !soundManager.isPlaying(playerComponent.PoolroomsNoonAmbience)) {
                     playerComponent.PoolroomsNoonAmbience = new PoolroomsNoonAmbienceSoundInstance(playerComponent.player);
                     soundManager.play(playerComponent.PoolroomsNoonAmbience);
                 }
@@ -301,7 +302,7 @@ public class ClientWrapper {
 
             if ((BackroomsLevels.getLevel(playerComponent.player.getWorld()).orElse(BackroomsLevels.OVERWORLD_REPRESENTING_BACKROOMS_LEVEL))
                     instanceof PoolroomsBackroomsLevel level) {
-                if (!level.isNoon() && !soundManager.isPlaying(playerComponent.PoolroomsSunsetAmbience)) {
+                if (!level.getState(playerComponent.player.getWorld()).isNoon() && !soundManager.isPlaying(playerComponent.PoolroomsSunsetAmbience)) {
                     playerComponent.PoolroomsSunsetAmbience = new PoolroomsSunsetAmbienceSoundInstance(playerComponent.player);
                     soundManager.play(playerComponent.PoolroomsSunsetAmbience);
                 }
@@ -309,7 +310,7 @@ public class ClientWrapper {
 
             if ((BackroomsLevels.getLevel(playerComponent.player.getWorld()).orElse(BackroomsLevels.OVERWORLD_REPRESENTING_BACKROOMS_LEVEL))
                     instanceof Level1BackroomsLevel level) {
-                if (level.getLightState() == Level0BackroomsLevel.LightState.BLACKOUT && !soundManager.isPlaying(playerComponent.SmilerAmbience)) {
+                if (level.getState(playerComponent.player.getWorld()).getLightState() == Level0BackroomsLevel.LightState.BLACKOUT && !soundManager.isPlaying(playerComponent.SmilerAmbience)) {
                     playerComponent.SmilerAmbience = new SmilerAmbienceSoundInstance(playerComponent.player);
                     soundManager.play(playerComponent.SmilerAmbience);
                 }
@@ -502,94 +503,81 @@ public class ClientWrapper {
 
         if (player != null) {
             Vec3d playerPos = player.getPos();
-            double distance;
-
-            if (world.getRegistryKey() == BackroomsLevels.LEVEL2_WORLD_KEY) {
-                distance = Math.min(ConfigStuff.getLightRenderDistance(), 32);
-            } else {
-                distance = ConfigStuff.getLightRenderDistance();
-            }
-
-            boolean withinDistance = pos.isWithinDistance(playerPos, distance);
+            boolean lit = !state.get(ThinFluorescentLightBlock.COPY) && state.get(ThinFluorescentLightBlock.ON) && !state.get(ThinFluorescentLightBlock.BLACKOUT);
 
-            if (withinDistance) {
-                if (!state.get(ThinFluorescentLightBlock.COPY) && pos.isWithinDistance(playerPos, 15.0f)) {
-                    if (block.prevOn != world.getBlockState(pos).get(ThinFluorescentLightBlock.ON)) {
-                        MinecraftClient.getInstance().getSoundManager().play(new PositionedSoundInstance(ModSounds.LIGHT_BLINK, SoundCategory.AMBIENT, 0.2F, random1.nextFloat(0.9f, 1.1f), block.random, pos));
-                    }
+            if (!state.get(ThinFluorescentLightBlock.COPY) && pos.isWithinDistance(playerPos, 15.0f)) {
+                if (block.prevOn != world.getBlockState(pos).get(ThinFluorescentLightBlock.ON)) {
+                    MinecraftClient.getInstance().getSoundManager().play(new PositionedSoundInstance(ModSounds.LIGHT_BLINK, SoundCategory.AMBIENT, 0.2F, random1.nextFloat(0.9f, 1.1f), block.random, pos));
                 }
+            }
 
-                if (!state.get(ThinFluorescentLightBlock.COPY) && state.get(ThinFluorescentLightBlock.ON) && !state.get(ThinFluorescentLightBlock.BLACKOUT)) {
-
-                    if (!block.isPlayingSound() && pos.isWithinDistance(playerPos, 15.0f) && !SPBRevampedClient.blackScreen) {
-                        MinecraftClient.getInstance().getSoundManager().play(new ThinFluorescentLightSoundInstance(block, player));
-                        block.setPlayingSound(true);
-                    }
+            if (lit && !block.isPlayingSound() && pos.isWithinDistance(playerPos, 15.0f) && !SPBRevampedClient.blackScreen) {
+                MinecraftClient.getInstance().getSoundManager().play(new ThinFluorescentLightSoundInstance(block, player));
+                block.setPlayingSound(true);
+            }
 
-                    if (block.pointLight == null) {
-                        block.pointLight = new PointLight();
-                        VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().addLight(block.pointLight
-                                .setRadius(18f)
-                                .setBrightness(0.0024f)
-                        );
-                        switch (state.get(FACE)) {
-                            case FLOOR:
-                                block.pointLight.setPosition(position.x, position.y, position.z);
-                            case WALL:
-                                switch (state.get(FACING)) {
-                                    case EAST:
-                                        block.pointLight.setPosition(position.x, position.y, position.z + 0.5);
-                                    case WEST:
-                                        block.pointLight.setPosition(position.x, position.y, position.z - 0.5);
-                                    case SOUTH:
-                                        block.pointLight.setPosition(position.x + 0.5, position.y, position.z);
-                                    case NORTH:
-                                    default:
-                                        block.pointLight.setPosition(position.x - 0.5, position.y, position.z);
-                                }
-                            case CEILING:
-                            default:
-                                block.pointLight.setPosition(position.x, position.y, position.z);
+            //Whether the light is actually rendered is up to the LightBudgetManager
+            if (lit && block.light == null) {
+                block.light = LightBudgetManager.add(position, 18f, 1.0f, () -> createThinFluorescentLight(world, state, position));
+            } else if (!lit) {
+                removeManagedLight(block.light);
+                block.light = null;
+            }
+        }
+    }
 
-                        }
+    private static PointLight createThinFluorescentLight(World world, BlockState state, Vec3d position) {
+        PointLight pointLight = new PointLight();
+        pointLight
+                .setRadius(18f)
+                .setBrightness(0.0024f);
+
+        switch (state.get(FACE)) {
+            case FLOOR:
+                pointLight.setPosition(position.x, position.y, position.z);
+            case WALL:
+                switch (state.get(FACING)) {
+                    case EAST:
+                        pointLight.setPosition(position.x, position.y, position.z + 0.5);
+                    case WEST:
+                        pointLight.setPosition(position.x, position.y, position.z - 0.5);
+                    case SOUTH:
+                        pointLight.setPosition(position.x + 0.5, position.y, position.z);
+                    case NORTH:
+                    default:
+                        pointLight.setPosition(position.x - 0.5, position.y, position.z);
+                }
+            case CEILING:
+            default:
+                pointLight.setPosition(position.x, position.y, position.z);
 
-                        switch (world.getRegistryKey().getValue().toString()) {
-                            case "spb-revamped:poolrooms": {
-                                block.pointLight
-                                        .setColor(175, 175, 255)
-                                        .setBrightness(0.0035f);
-                            }
-                            break;
-                            case "spb-revamped:level0": {
-                                block.pointLight
-                                        .setColor(200, 200, 255)
-                                        .setBrightness(0.005f);
-                            }
-                            break;
-                            default: {
-                                block.pointLight.setColor(255, 255, 255);
-                            }
-                        }
+        }
 
-                        if (world.getRegistryKey() == BackroomsLevels.LEVEL2_WORLD_KEY) {
-                            block.pointLight
-                                    .setColor(200, 200, 255)
-                                    .setBrightness(0.005f);
-                        }
-                    }
-                } else {
-                    if (block.pointLight != null) {
-                        VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().removeLight(block.pointLight);
-                        block.pointLight = null;
-                    }
-                }
-            } else {
-                if (block.pointLight != null) {
-                    VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().removeLight(block.pointLight);
-                    block.pointLight = null;
-                }
+        switch (world.getRegistryKey().getValue().toString()) {
+            case "spb-revamped:poolrooms": {
+                pointLight
+                        .setColor(175, 175, 255)
+                        .setBrightness(0.0035f);
+            }
+            break;
+            case "spb-revamped:level0": {
+                pointLight
+                        .setColor(200, 200, 255)
+                        .setBrightness(0.005f);
             }
+            break;
+            default: {
+                pointLight.setColor(255, 255, 255);
+            }
+        }
+
+        if (world.getRegistryKey() == BackroomsLevels.LEVEL2_WORLD_KEY) {
+            pointLight
+                    .setColor(200, 200, 255)
+                    .setBrightness(0.005f);
         }
+
+        return pointLight;
     }
 
 
@@ -598,74 +586,82 @@ public class ClientWrapper {
 
         if (player != null) {
             Vec3d playerPos = player.getPos();
-            double distance;
+            boolean lit = !state.get(ThinFluorescentLightBlock.COPY) && state.get(ThinFluorescentLightBlock.ON) && !state.get(ThinFluorescentLightBlock.BLACKOUT);
 
-            if (world.getRegistryKey() == BackroomsLevels.LEVEL2_WORLD_KEY) {
-                distance = Math.min(ConfigStuff.getLightRenderDistance(), 32);
-            } else {
-                distance = ConfigStuff.getLightRenderDistance();
+            if (!state.get(ThinFluorescentLightBlock.COPY) && pos.isWithinDistance(playerPos, 15.0f)) {
+                if (block.prevOn != world.getBlockState(pos).get(ThinFluorescentLightBlock.ON)) {
+                    MinecraftClient.getInstance().getSoundManager().play(new PositionedSoundInstance(ModSounds.LIGHT_BLINK, SoundCategory.AMBIENT, 0.2F, random1.nextFloat(0.9f, 1.1f), block.random, pos));
+                }
             }
 
-            boolean withinDistance = pos.isWithinDistance(playerPos, distance);
+            if (lit && !block.isPlayingSound() && pos.isWithinDistance(playerPos, 15.0f) && !SPBRevampedClient.blackScreen) {
+                MinecraftClient.getInstance().getSoundManager().play(new TinyFluorescentLightSoundInstance(block, player));
+                block.setPlayingSound(true);
+            }
 
-            if (withinDistance) {
-                if (!state.get(ThinFluorescentLightBlock.COPY) && pos.isWithinDistance(playerPos, 15.0f)) {
-                    if (block.prevOn != world.getBlockState(pos).get(ThinFluorescentLightBlock.ON)) {
-                        MinecraftClient.getInstance().getSoundManager().play(new PositionedSoundInstance(ModSounds.LIGHT_BLINK, SoundCategory.AMBIENT, 0.2F, random1.nextFloat(0.9f, 1.1f), block.random, pos));
-                    }
-                }
+            if (lit && block.light == null) {
+                block.light = LightBudgetManager.add(position, 18f, 1.0f, () -> createTinyFluorescentLight(world, position));
+            } else if (!lit) {
+                removeManagedLight(block.light);
+                block.light = null;
+            }
+        }
+    }
 
-                if (!state.get(ThinFluorescentLightBlock.COPY) && state.get(ThinFluorescentLightBlock.ON) && !state.get(ThinFluorescentLightBlock.BLACKOUT)) {
+    private static PointLight createTinyFluorescentLight(World world, Vec3d position) {
+        PointLight pointLight = new PointLight();
+        pointLight
+                .setRadius(18f)
+                .setBrightness(0.0024f);
 
-                    if (!block.isPlayingSound() && pos.isWithinDistance(playerPos, 15.0f) && !SPBRevampedClient.blackScreen) {
-                        MinecraftClient.getInstance().getSoundManager().play(new TinyFluorescentLightSoundInstance(block, player));
-                        block.setPlayingSound(true);
-                    }
+        pointLight.setPosition(position.x, position.y, position.z);
 
-                    if (block.pointLight == null) {
-                        block.pointLight = new PointLight();
-                        VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().addLight(block.pointLight
-                                .setRadius(18f)
-                                .setBrightness(0.0024f)
-                        );
+        pointLight.setColor(255, 255, 255);
 
-                        block.pointLight.setPosition(position.x, position.y, position.z);
+        if (world.getRegistryKey().equals(BackroomsLevels.POOLROOMS_WORLD_KEY)) {
+            pointLight
+                    .setColor(175, 175, 255)
+                    .setBrightness(0.0035f);
+        }
 
-                        block.pointLight.setColor(255, 255, 255);
+        if (world.getRegistryKey() == BackroomsLevels.LEVEL2_WORLD_KEY) {
+            pointLight
+                    .setColor(200, 200, 255)
+                    .setBrightness(0.005f);
+        }
 
-                        if (world.getRegistryKey().equals(BackroomsLevels.POOLROOMS_WORLD_KEY)) {
-                            block.pointLight
-                                    .setColor(175, 175, 255)
-                                    .setBrightness(0.0035f);
-                        }
+        if (world.getRegistryKey().equals(BackroomsLevels.LEVEL0_WORLD_KEY)) {
+            pointLight
+                    .setColor(200, 200, 255)
+                    .setBrightness(0.005f);
+        }
 
-                        if (world.getRegistryKey() == BackroomsLevels.LEVEL2_WORLD_KEY) {
-                            block.pointLight
-                                    .setColor(200, 200, 255)
-                                    .setBrightness(0.005f);
-                        }
+        return pointLight;
+    }
 
-                        if (world.getRegistryKey().equals(BackroomsLevels.LEVEL0_WORLD_KEY)) {
-                            block.pointLight
-                                    .setColor(200, 200, 255)
-                                    .setBrightness(0.005f);
-                        }
-                    }
-                } else {
-                    if (block.pointLight != null) {
-                        VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().removeLight(block.pointLight);
-                        block.pointLight = null;
-                    }
-                }
-            } else {
-                if (block.pointLight != null) {
-                    VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().removeLight(block.pointLight);
-                    block.pointLight = null;
-                }
-            }
+    public static ManagedLight addCeilingLight(BlockPos pos) {
+        Vec3d position = pos.toCenterPos().add(-0.5, -0.06, 0);
+
+        return LightBudgetManager.add(position, 15f, 2.58f, () -> new AreaLight()
+                .setBrightness(2.58f)
+                .setSize(0.9, 0.0)
+                .setAngle((float) Math.toRadians(60.4f))
+                .setOrientation(new Quaternionf().rotateXYZ((float) Math.toRadians(-90d), 0, 0))
+                .setPosition(new Vector3d(position.x, position.y, position.z))
+                .setDistance(15)
+        );
+    }
+
+    public static void removeManagedLight(ManagedLight light) {
+        if (light != null) {
+            LightBudgetManager.remove(light);
         }
     }
 
+    public static void removeFluorescentLight(BlockPos pos) {
+        FluorescentLightClusters.setLit(pos, false);
+    }
+
     public static void doClientSideTick(World world, BlockPos pos, BlockState state, FluorescentLightBlockEntity block) {
         if (!world.isClient) {
             return;
@@ -674,8 +670,6 @@ public class ClientWrapper {
         MinecraftClient client = MinecraftClient.getInstance();
         PlayerEntity player = client.player;
 
-        Vec3d position = pos.toCenterPos();
-
         if (player != null) {
 
             if (!state.get(FluorescentLightBlock.COPY)) {
@@ -688,37 +682,22 @@ public class ClientWrapper {
 
             Vec3d playerPos = player.getPos();
             boolean withinDistance = pos.isWithinDistance(playerPos, ConfigStuff.getLightRenderDistance());
+            boolean lit = !state.get(FluorescentLightBlock.COPY) &&
+                    state.get(FluorescentLightBlock.ON) &&
+                    !state.get(FluorescentLightBlock.BLACKOUT);
+
+            //The light itself is merged with its neighbours by FluorescentLightClusters
+            FluorescentLightClusters.setLit(pos, lit);
+
             if (withinDistance) {
-                if (!state.get(FluorescentLightBlock.COPY) &&
-                        state.get(FluorescentLightBlock.ON) &&
-                        !state.get(FluorescentLightBlock.BLACKOUT)) {
-                    if (!block.isPlayingSound() && pos.isWithinDistance(playerPos, 16.0f) && !state.get(FluorescentLightBlock.BLACKOUT) && !SPBRevampedClient.blackScreen) {
+                if (lit) {
+                    if (!block.isPlayingSound() && pos.isWithinDistance(playerPos, 16.0f) && !SPBRevampedClient.blackScreen) {
                         MinecraftClient.getInstance().getSoundManager().play(new FluorescentLightSoundInstance(block, player));
                         block.setPlayingSound(true);
                     }
-
-                    if (block.pointLight == null) {
-                        block.pointLight = new PointLight();
-                        VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().addLight(block.pointLight
-                                .setRadius(13f)
-                                .setColor((float) 255 / 255, (float) 240 / 255, (float) 100 / 255)
-                                .setPosition(position.x, position.y - 1, position.z)
-                                .setBrightness(1.0f)
-                        );
-                    }
                 } else {
-                    if (block.pointLight != null) {
-                        VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().removeLight(block.pointLight);
-                        block.pointLight = null;
-                    }
                     block.setPlayingSound(false);
                 }
-
-            } else {
-                if (block.pointLight != null) {
-                    VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().removeLight(block.pointLight);
-                    block.pointLight = null;
-                }
             }
         }
     }
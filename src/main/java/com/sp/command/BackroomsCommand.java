@@ -0,0 +1,213 @@
+package com.sp.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.LiteralMessage;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import com.sp.SPBRevamped;
+import com.sp.sounds.voicechat.VoiceCapturePolicy;
+import com.sp.world.generation.GenerationProfiler;
+import com.sp.world.generation.Pregenerator;
+import net.minecraft.command.CommandRegistryAccess;
+import net.minecraft.command.argument.DimensionArgumentType;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.world.World;
+
+import java.util.List;
+import java.util.Map;
+
+public class BackroomsCommand {
+    private static final SimpleCommandExceptionType NO_PREGEN_EXCEPTION = new SimpleCommandExceptionType(new LiteralMessage("That dimension isn't being pregenerated"));
+
+    public static void register(CommandDispatcher<ServerCommandSource> serverCommandSourceCommandDispatcher, CommandRegistryAccess commandRegistryAccess, CommandManager.RegistrationEnvironment registrationEnvironment) {
+        serverCommandSourceCommandDispatcher.register(
+                CommandManager.literal("backrooms")
+                        .requires(source -> source.hasPermissionLevel(2))
+                        .then(CommandManager.literal("genstats")
+                                .executes(context -> reportStats(
+                                                context.getSource()
+                                        )
+                                )
+                                .then(CommandManager.literal("reset")
+                                        .executes(context -> resetStats(
+                                                        context.getSource()
+                                                )
+                                        )
+                                )
+                                .then(CommandManager.literal("enable")
+                                        .executes(context -> setStatsEnabled(
+                                                        context.getSource(),
+                                                        true
+                                                )
+                                        )
+                                )
+                                .then(CommandManager.literal("disable")
+                                        .executes(context -> setStatsEnabled(
+                                                        context.getSource(),
+                                                        false
+                                                )
+                                        )
+                                )
+                        )
+                        .then(CommandManager.literal("voicestats")
+                                .executes(context -> reportVoiceStats(
+                                                context.getSource()
+                                        )
+                                )
+                                .then(CommandManager.literal("reset")
+                                        .executes(context -> resetVoiceStats(
+                                                        context.getSource()
+                                                )
+                                        )
+                                )
+                        )
+                        .then(CommandManager.literal("pregen")
+                                .then(CommandManager.argument("dimension", DimensionArgumentType.dimension())
+                                        .then(CommandManager.argument("radius", IntegerArgumentType.integer(1, 512))
+                                                .executes(context -> startPregen(
+                                                                context.getSource(),
+                                                                DimensionArgumentType.getDimensionArgument(context, "dimension"),
+                                                                IntegerArgumentType.getInteger(context, "radius")
+                                                        )
+                                                )
+                                        )
+                                )
+                                .then(CommandManager.literal("pause")
+                                        .then(CommandManager.argument("dimension", DimensionArgumentType.dimension())
+                                                .executes(context -> pausePregen(
+                                                                context.getSource(),
+                                                                DimensionArgumentType.getDimensionArgument(context, "dimension"),
+                                                                true
+                                                        )
+                                                )
+                                        )
+                                )
+                                .then(CommandManager.literal("resume")
+                                        .then(CommandManager.argument("dimension", DimensionArgumentType.dimension())
+                                                .executes(context -> pausePregen(
+                                                                context.getSource(),
+                                                                DimensionArgumentType.getDimensionArgument(context, "dimension"),
+                                                                false
+                                                        )
+                                                )
+                                        )
+                                )
+                                .then(CommandManager.literal("cancel")
+                                        .then(CommandManager.argument("dimension", DimensionArgumentType.dimension())
+                                                .executes(context -> cancelPregen(
+                                                                context.getSource(),
+                                                                DimensionArgumentType.getDimensionArgument(context, "dimension")
+                                                        )
+                                                )
+                                        )
+                                )
+                                .then(CommandManager.literal("status")
+                                        .executes(context -> reportPregen(
+                                                        context.getSource()
+                                                )
+                                        )
+                                )
+                        )
+        );
+    }
+
+    private static int reportStats(ServerCommandSource source) {
+        List<String> report = GenerationProfiler.getReport();
+
+        if (report.isEmpty()) {
+            if (GenerationProfiler.isEnabled()) {
+                source.sendFeedback(() -> Text.literal("No backrooms chunks were generated yet"), false);
+            } else {
+                source.sendFeedback(() -> Text.literal("Generation stats are off, turn them on with /backrooms genstats enable"), false);
+            }
+            return 0;
+        }
+
+        for (String line : report) {
+            source.sendFeedback(() -> Text.literal(line), false);
+            SPBRevamped.LOGGER.info("[genstats] {}", line);
+        }
+
+        return report.size();
+    }
+
+    private static int resetStats(ServerCommandSource source) {
+        GenerationProfiler.reset();
+        source.sendFeedback(() -> Text.literal("Cleared the generation stats"), true);
+        return 1;
+    }
+
+    private static int reportVoiceStats(ServerCommandSource source) {
+        long decoded = VoiceCapturePolicy.getDecoded();
+        long skipped = VoiceCapturePolicy.getSkipped();
+        long total = decoded + skipped;
+
+        String line = "Decoded " + decoded + " of " + total + " voice packets, skipped " + skipped
+                + (total > 0 ? String.format(" (%.1f%%)", skipped * 100.0 / total) : "");
+        source.sendFeedback(() -> Text.literal(line), false);
+        SPBRevamped.LOGGER.info("[voicestats] {}", line);
+        return (int) Math.min(decoded, Integer.MAX_VALUE);
+    }
+
+    private static int resetVoiceStats(ServerCommandSource source) {
+        VoiceCapturePolicy.resetStats();
+        source.sendFeedback(() -> Text.literal("Cleared the voice stats"), true);
+        return 1;
+    }
+
+    private static int setStatsEnabled(ServerCommandSource source, boolean enabled) {
+        GenerationProfiler.setEnabled(enabled);
+        source.sendFeedback(() -> Text.literal((enabled ? "Started" : "Stopped") + " recording generation stats"), true);
+        return 1;
+    }
+
+    private static int startPregen(ServerCommandSource source, ServerWorld world, int radius) {
+        Pregenerator task = Pregenerator.start(world, radius);
+        source.sendFeedback(() -> Text.literal("Pregenerating " + task.getTotal() + " chunks in " + world.getRegistryKey().getValue()), true);
+        return task.getTotal();
+    }
+
+    private static int pausePregen(ServerCommandSource source, ServerWorld world, boolean paused) throws CommandSyntaxException {
+        Pregenerator task = getPregen(world);
+        task.setPaused(world, paused);
+        source.sendFeedback(() -> Text.literal((paused ? "Paused" : "Resumed") + " pregenerating " + world.getRegistryKey().getValue()), true);
+        return 1;
+    }
+
+    private static int cancelPregen(ServerCommandSource source, ServerWorld world) throws CommandSyntaxException {
+        Pregenerator task = getPregen(world);
+        task.cancel(world);
+        source.sendFeedback(() -> Text.literal("Stopped pregenerating " + world.getRegistryKey().getValue() + " at " + task.getCompleted() + "/" + task.getTotal() + " chunks"), true);
+        return 1;
+    }
+
+    private static int reportPregen(ServerCommandSource source) {
+        int count = 0;
+
+        for (Map.Entry<RegistryKey<World>, Pregenerator> entry : Pregenerator.getTasks()) {
+            String line = entry.getKey().getValue() + ": " + entry.getValue().describe();
+            source.sendFeedback(() -> Text.literal(line), false);
+            count++;
+        }
+
+        if (count == 0) {
+            source.sendFeedback(() -> Text.literal("Nothing is being pregenerated"), false);
+        }
+
+        return count;
+    }
+
+    private static Pregenerator getPregen(ServerWorld world) throws CommandSyntaxException {
+        Pregenerator task = Pregenerator.get(world);
+        if (task == null) {
+            throw NO_PREGEN_EXCEPTION.create();
+        }
+
+        return task;
+    }
+}
@@ -7,7 +7,6 @@ import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
 import com.sp.cca_stuff.InitializeComponents;
 import com.sp.cca_stuff.WorldEvents;
 import com.sp.init.BackroomsLevels;
-import com.sp.world.events.AbstractEvent;
 import com.sp.world.events.infinite_grass.InfiniteGrassAmbience;
 import com.sp.world.events.level0.Level0Blackout;
 import com.sp.world.events.level0.Level0Flicker;
@@ -88,11 +87,11 @@ public class EventCommand {
 
         if (registryKey == BackroomsLevels.LEVEL0_WORLD_KEY) {
             Level0Flicker flicker = new Level0Flicker();
-            setEvent(events, world, flicker);
+            events.startEvent("flicker", flicker);
             return 1;
         } else if (registryKey == BackroomsLevels.LEVEL1_WORLD_KEY) {
             Level1Flicker flicker = new Level1Flicker();
-            setEvent(events, world, flicker);
+            events.startEvent("flicker", flicker);
 
 
             return 1;
@@ -108,12 +107,12 @@ public class EventCommand {
 
         if (registryKey == BackroomsLevels.LEVEL0_WORLD_KEY) {
             Level0Blackout blackout = new Level0Blackout();
-            setEvent(events, world, blackout);
+            events.startEvent("blackout", blackout);
 
             return 1;
         } else if (registryKey == BackroomsLevels.LEVEL1_WORLD_KEY) {
             Level1Blackout blackout = new Level1Blackout();
-            setEvent(events, world, blackout);
+            events.startEvent("blackout", blackout);
 
             return 1;
         }
@@ -128,7 +127,7 @@ public class EventCommand {
 
         if (registryKey == BackroomsLevels.LEVEL0_WORLD_KEY) {
             Level0IntercomBasic intercom = new Level0IntercomBasic();
-            setEvent(events, world, intercom);
+            events.startEvent("intercom", intercom);
             return 1;
         }
 
@@ -142,7 +141,7 @@ public class EventCommand {
 
         if (registryKey == BackroomsLevels.LEVEL0_WORLD_KEY) {
             Level0Music music = new Level0Music();
-            setEvent(events, world, music);
+            events.startEvent("music", music);
             return 1;
         }
 
@@ -156,21 +155,21 @@ public class EventCommand {
 
         if (registryKey == BackroomsLevels.POOLROOMS_WORLD_KEY) {
             PoolroomsAmbience ambience = new PoolroomsAmbience();
-            setEvent(events, world, ambience);
+            events.startEvent("ambience", ambience);
             return 1;
         } else if (registryKey == BackroomsLevels.LEVEL1_WORLD_KEY) {
             Level1Ambience ambience = new Level1Ambience();
-            setEvent(events, world, ambience);
+            events.startEvent("ambience", ambience);
 
             return 1;
         } else if (registryKey == BackroomsLevels.LEVEL2_WORLD_KEY) {
             Level1Ambience ambience = new Level1Ambience();
-            setEvent(events, world, ambience);
+            events.startEvent("ambience", ambience);
 
             return 1;
         } else if (registryKey == BackroomsLevels.INFINITE_FIELD_WORLD_KEY) {
             InfiniteGrassAmbience ambience = new InfiniteGrassAmbience();
-            setEvent(events, world, ambience);
+            events.startEvent("ambience", ambience);
 
             return 1;
         }
@@ -185,7 +184,7 @@ public class EventCommand {
 
         if (registryKey == BackroomsLevels.LEVEL2_WORLD_KEY) {
             Level2Warp warp = new Level2Warp();
-            setEvent(events, world, warp);
+            events.startEvent("warp", warp);
             return 1;
         }
 
@@ -199,20 +198,11 @@ public class EventCommand {
 
         if (registryKey == BackroomsLevels.POOLROOMS_WORLD_KEY) {
             PoolroomsSunset sunset = new PoolroomsSunset();
-            setEvent(events, world, sunset);
+            events.startEvent("sunset", sunset);
             return 1;
         }
 
         throw SUNSET_EXCEPTION.create();
     }
 
-    private static void setEvent(WorldEvents events, World world, AbstractEvent activeEvent) {
-        if (events.getActiveEvent() != null) {
-            events.getActiveEvent().finish(world);
-        }
-        events.setActiveEvent(activeEvent);
-        activeEvent.init(world);
-        events.ticks = 0;
-    }
-
 }
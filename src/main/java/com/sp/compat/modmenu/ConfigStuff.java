@@ -68,6 +68,13 @@ public class ConfigStuff extends MidnightConfig {
         return lightRenderDistance;
     }
 
+    @Entry(category = SHADERS, min = 8, max = 512)
+    public static int lightBudget = 96;
+
+    public static int getLightBudget() {
+        return lightBudget;
+    }
+
 
     @Comment(category = SHADERS)
     public static Comment spacer3;
@@ -117,4 +124,22 @@ public class ConfigStuff extends MidnightConfig {
     @Entry(category = SERVER, min = 200, max = 1000)
     public static int exitSpawnRadius = 300;
 
+    @Entry(category = SERVER, min = 10, max = 50)
+    public static int pregenMaxMspt = 40;
+
+    @Entry(category = SERVER, min = 0, max = 2048)
+    public static int templatePreloadMb = 512;
+
+    @Entry(category = SERVER)
+    public static boolean compactChunkStorage = false;
+
+    @Entry(category = SERVER, min = 16, max = 256)
+    public static int voiceCaptureRange = 100;
+
+    @Entry(category = SERVER, min = 0, max = 20)
+    public static int voiceClipQuota = 10;
+
+    @Entry(category = SERVER)
+    public static boolean keepOpusClips = false;
+
 }
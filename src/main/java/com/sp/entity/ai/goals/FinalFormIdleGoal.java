@@ -13,6 +13,9 @@ import net.minecraft.predicate.entity.EntityPredicates;
 import java.util.List;
 
 public class FinalFormIdleGoal extends Goal {
+    // How far away a player that's visible gets noticed
+    public static final int NOTICE_RANGE = 100;
+
     private final SkinWalkerEntity entity;
     private final SkinWalkerComponent component;
     private final int chance;
@@ -55,10 +58,10 @@ public class FinalFormIdleGoal extends Goal {
                     TargetPredicate.DEFAULT
                             .ignoreDistanceScalingFactor()
                             .ignoreVisibility()
-                            .setBaseMaxDistance(100)
+                            .setBaseMaxDistance(NOTICE_RANGE)
                             .setPredicate(EntityPredicates.EXCEPT_CREATIVE_OR_SPECTATOR::test),
                     this.entity,
-                    this.entity.getBoundingBox().expand(100));
+                    this.entity.getBoundingBox().expand(NOTICE_RANGE));
 
             for (PlayerEntity player : playerEntityList) {
                 PlayerComponent playerComponent = InitializeComponents.PLAYER.get(player);
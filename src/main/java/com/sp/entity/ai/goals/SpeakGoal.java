@@ -4,6 +4,12 @@ import com.sp.cca_stuff.InitializeComponents;
 import com.sp.cca_stuff.SkinWalkerComponent;
 import com.sp.entity.custom.SkinWalkerEntity;
 import com.sp.sounds.voicechat.BackroomsVoicechatPlugin;
+import com.sp.sounds.voicechat.OpusClipPlayer;
+import com.sp.sounds.voicechat.PcmClipPlayer;
+import com.sp.sounds.voicechat.VoiceClip;
+import com.sp.sounds.voicechat.VoiceClipStore;
+import com.sp.sounds.voicechat.VoiceEffect;
+import com.sp.sounds.voicechat.VoiceEffectChain;
 import de.maxhenkel.voicechat.api.VoicechatServerApi;
 import de.maxhenkel.voicechat.api.audiochannel.AudioPlayer;
 import de.maxhenkel.voicechat.api.audiochannel.LocationalAudioChannel;
@@ -11,6 +17,9 @@ import de.maxhenkel.voicechat.plugins.impl.ServerLevelImpl;
 import net.minecraft.entity.ai.goal.Goal;
 import net.minecraft.util.math.random.Random;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class SpeakGoal extends Goal {
     private final Random random = Random.create();
     private final SkinWalkerEntity entity;
@@ -86,108 +95,84 @@ public class SpeakGoal extends Goal {
             return;
         }
 
-        if (BackroomsVoicechatPlugin.randomSpeakingList.isEmpty()) {
-            return;
+        if (this.audioChannel == null) {
+            this.audioChannel = api.createLocationalAudioChannel(this.entity.getUuid(), this.serverLevel, api.createPosition(this.entity.getX(), this.entity.getY(), this.entity.getZ()));
         }
 
-        if (!BackroomsVoicechatPlugin.randomSpeakingList.containsKey(this.component.getTargetPlayerUUID())) {
+        if (this.audioChannel == null) {
             return;
         }
 
-        if (BackroomsVoicechatPlugin.randomSpeakingList.get(this.component.getTargetPlayerUUID()) == null) {
-            return;
-        }
+        this.audioChannel.updateLocation(api.createPosition(this.entity.getX(), this.entity.getY(), this.entity.getZ()));
 
-        if (BackroomsVoicechatPlugin.randomSpeakingList.get(this.component.getTargetPlayerUUID()).isEmpty()) {
+        if (this.audioPlayer != null && this.audioPlayer.isPlaying()) {
             return;
         }
 
-        short[] data = BackroomsVoicechatPlugin.randomSpeakingList.get(this.component.getTargetPlayerUUID()).get(random.nextBetween(0, BackroomsVoicechatPlugin.randomSpeakingList.get(this.component.getTargetPlayerUUID()).size() - 1));
+        VoiceClipStore clips = BackroomsVoicechatPlugin.getClips(this.component.getTargetPlayerUUID());
 
-        if (this.component.isInTrueForm()) {
-            if(data != null && data.length > 0) {
-                data = demonizeVoice(data);
-            }
+        if (clips == null) {
+            return;
         }
 
-        if (this.audioChannel == null) {
-            this.audioChannel = api.createLocationalAudioChannel(this.entity.getUuid(), this.serverLevel, api.createPosition(this.entity.getX(), this.entity.getY(), this.entity.getZ()));
-        }
+        VoiceClip clip = clips.pick(this.random);
 
-        if (this.audioChannel == null) {
+        if (clip == null) {
             return;
         }
 
-        this.audioChannel.updateLocation(api.createPosition(this.entity.getX(), this.entity.getY(), this.entity.getZ()));
-
-        if (this.audioPlayer == null) {
-            this.audioPlayer = api.createAudioPlayer(this.audioChannel, api.createEncoder(), data);
+        List<VoiceEffect> effects = List.of();
+        if (this.component.isInTrueForm()) {
+            effects = this.component.getVoiceEffects().isEmpty() ? this.randomVoiceEffects(clip.isOpus()) : this.component.getVoiceEffects();
         }
 
-        if (!this.audioPlayer.isPlaying()) {
-            this.audioPlayer = api.createAudioPlayer(this.audioChannel, api.createEncoder(), data);
-            this.audioPlayer.startPlaying();
-        }
-    }
+        //Opus clips are sent as they were recorded, so only effects that rearrange whole frames work on them
+        if (clip.isOpus()) {
+            int[] order = new int[clip.getFrameCount()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
 
-    private short[] demonizeVoice(short[] data) {
-        switch (this.random.nextBetween(0, 3)) {
-            case 0:
-                data = applyStutter(data);
-                break;
-            case 1:
-                data = reverseData(data);
-                break;
-            default:
-                data = bitCrush(data, 8);
-                break;
-        }
-        //data = warpSpeed(data);
-        //data = reverseSegments(data);
-        //data = addStaticNoise(data);
+            for (VoiceEffect effect : effects) {
+                order = effect.apply(order);
+            }
 
-        if (this.random.nextBetween(0, 3) < 2) {
-            data = demonizeVoice(data);
+            this.audioPlayer = OpusClipPlayer.create(api, this.audioChannel, clip, order);
+            this.audioPlayer.startPlaying();
+            return;
         }
 
-        return data;
-    }
-
-    private short[] bitCrush(short[] data, int resolution) {
-        short[] crushedData = new short[data.length];
-        int mask = -(1 << (16 - resolution));
-
-        for (int i = 0; i < data.length; i++) {
-            crushedData[i] = (short) (data[i] & mask);
+        VoiceEffectChain chain = new VoiceEffectChain();
+        for (VoiceEffect effect : effects) {
+            effect.apply(chain);
         }
 
-        return crushedData;
+        this.audioPlayer = PcmClipPlayer.create(api, this.audioChannel, clip, chain);
+        this.audioPlayer.startPlaying();
     }
 
-    private short[] applyStutter(short[] data) {
-        short[] stutteredData = new short[data.length];
-        int stutterSize = 500;
-        int stutterInterval = 1000;
-
-        System.arraycopy(data, 0, stutteredData, 0, data.length);
-
-        for (int i = 0; i < data.length; i += stutterInterval) {
-            for (int j = 0; j < stutterSize && (i + j) < data.length; j++) {
-                stutteredData[i + j] = data[i];
+    private List<VoiceEffect> randomVoiceEffects(boolean opus) {
+        List<VoiceEffect> effects = new ArrayList<>();
+
+        do {
+            if (opus) {
+                effects.add(this.random.nextBoolean() ? VoiceEffect.STUTTER : VoiceEffect.REVERSE);
+            } else {
+                switch (this.random.nextBetween(0, 3)) {
+                    case 0:
+                        effects.add(VoiceEffect.STUTTER);
+                        break;
+                    case 1:
+                        effects.add(VoiceEffect.REVERSE);
+                        break;
+                    default:
+                        effects.add(VoiceEffect.BIT_CRUSH);
+                        break;
+                }
             }
-        }
-
-        return stutteredData;
-    }
+        } while (this.random.nextBetween(0, 3) < 2);
 
-    private short[] reverseData(short[] data) {
-        short[] reversedData = new short[data.length];
-
-        for (int i = 0; i < data.length; i++) {
-            reversedData[i] = data[data.length - 1 - i];
-        }
-
-        return reversedData;
+        return effects;
     }
 
     private short[] addStaticNoise(short[] data) {
@@ -219,13 +219,13 @@ public class SkinWalkerEntity extends HostileEntity implements GeoEntity, GeoAni
 
             if (this.ticks == 110) {
                 if (backroomsLevel instanceof Level0BackroomsLevel level) {
-                    level.setLightState(Level0BackroomsLevel.LightState.FLICKER);
+                    level.getState(this.getWorld()).setLightState(Level0BackroomsLevel.LightState.FLICKER);
                 }
             }
 
             if (this.ticks == 195) {
                 if (backroomsLevel instanceof Level0BackroomsLevel level) {
-                    level.setLightState(Level0BackroomsLevel.LightState.OFF);
+                    level.getState(this.getWorld()).setLightState(Level0BackroomsLevel.LightState.OFF);
                 }
 
                 for (PlayerEntity player : this.getWorld().getPlayers()) {
@@ -237,7 +237,7 @@ public class SkinWalkerEntity extends HostileEntity implements GeoEntity, GeoAni
 
             if (this.ticks >= 220) {
                 if (backroomsLevel instanceof Level0BackroomsLevel level) {
-                    level.setLightState(Level0BackroomsLevel.LightState.ON);
+                    level.getState(this.getWorld()).setLightState(Level0BackroomsLevel.LightState.ON);
                 }
                 this.component.setBeginReveal(false);
                 this.component.setTrueForm(true);
@@ -79,7 +79,7 @@ public class SmilerEntity extends MobEntity {
             }
 
             if (((BackroomsLevels.getLevel(this.getWorld()).orElse(BackroomsLevels.OVERWORLD_REPRESENTING_BACKROOMS_LEVEL)) instanceof Level1BackroomsLevel level)) {
-                if (level.getLightState() != Level0BackroomsLevel.LightState.BLACKOUT) {
+                if (level.getState(this.getWorld()).getLightState() != Level0BackroomsLevel.LightState.BLACKOUT) {
                     this.discard();
                 }
             }
@@ -13,6 +13,8 @@ import net.minecraft.world.World;
 import net.minecraft.world.dimension.DimensionType;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -35,6 +37,9 @@ public class BackroomsLevels {
     public static final BackroomsLevel LEVEL324_BACKROOMS_LEVEL = new Level324Backroomslevel();
 
     public static List<BackroomsLevel> BACKROOMS_LEVELS = new ArrayList<>();
+    // Registry keys are interned, so they can be compared by identity. The optionals are kept so lookups don't allocate
+    private static final Map<RegistryKey<World>, Optional<BackroomsLevel>> LEVELS_BY_WORLD = new IdentityHashMap<>();
+    private static final Map<String, BackroomsLevel> LEVELS_BY_ID = new HashMap<>();
 
     public static void init() {
         BACKROOMS_LEVELS.add(LEVEL0_BACKROOMS_LEVEL);
@@ -47,35 +52,31 @@ public class BackroomsLevels {
 
         for (BackroomsLevel backroomsLevel : BACKROOMS_LEVELS) {
             backroomsLevel.register();
+            LEVELS_BY_WORLD.put(backroomsLevel.getWorldKey(), Optional.of(backroomsLevel));
+            LEVELS_BY_ID.put(backroomsLevel.getLevelId(), backroomsLevel);
         }
     }
 
     public static boolean isInBackroomsLevel(World world, BackroomsLevel level) {
-        return getLevel(world).map(backroomsLevel -> backroomsLevel.equals(level)).orElse(false);
+        return getLevel(world).orElse(null) == level;
     }
 
     public static Optional<BackroomsLevel> getLevel(World world) {
-        for (BackroomsLevel backroomsLevel : BACKROOMS_LEVELS) {
-            if (backroomsLevel.getWorldKey().equals(world.getRegistryKey())) {
-                return Optional.of(backroomsLevel);
-            }
-        }
+        return getLevel(world.getRegistryKey());
+    }
 
-        return Optional.empty();
+    public static Optional<BackroomsLevel> getLevel(RegistryKey<World> world) {
+        return LEVELS_BY_WORLD.getOrDefault(world, Optional.empty());
     }
 
     public static boolean isInBackrooms(RegistryKey<World> world){
-        return BACKROOMS_LEVELS.stream().anyMatch(level -> level.getWorldKey().equals(world) && !(level instanceof WorldRepresentingBackroomsLevel));
+        Optional<BackroomsLevel> level = getLevel(world);
+        return level.isPresent() && !(level.get() instanceof WorldRepresentingBackroomsLevel);
     }
 
     public static Vec3d getCurrentLevelsOrigin(RegistryKey<World> world) {
-        for (BackroomsLevel backroomsLevel : BACKROOMS_LEVELS) {
-            if (backroomsLevel.getWorldKey().equals(world)) {
-                return backroomsLevel.getSpawnPos();
-            }
-        }
-
-        return null;
+        Optional<BackroomsLevel> level = getLevel(world);
+        return level.isPresent() ? level.get().getSpawnPos() : null;
     }
 
     public static Map<String, RegistryKey<World>> definitions = Map.of(
@@ -88,12 +89,6 @@ public class BackroomsLevels {
     );
 
     public static Optional<BackroomsLevel> getById(String levelId) {
-        for (BackroomsLevel backroomsLevel : BACKROOMS_LEVELS) {
-            if (backroomsLevel.getLevelId().equals(levelId)) {
-                return Optional.of(backroomsLevel);
-            }
-        }
-
-        return Optional.empty();
+        return Optional.ofNullable(LEVELS_BY_ID.get(levelId));
     }
 }
@@ -1,10 +1,14 @@
 package com.sp.mixin;
 
+import com.mojang.datafixers.util.Either;
+import com.sp.world.generation.CompactChunkStorage;
+import com.sp.world.generation.DeferredChunkRegion;
+import com.sp.world.generation.GenerationProfiler;
 import com.sp.world.generation.chunk_generator.BackroomsChunkGenerator;
+import net.minecraft.server.world.ChunkHolder;
 import net.minecraft.server.world.ServerLightingProvider;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.structure.StructureTemplateManager;
-import net.minecraft.world.ChunkRegion;
 import net.minecraft.world.StructureWorldAccess;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkStatus;
@@ -21,7 +25,9 @@ import java.util.function.Function;
 
 /**
  * This mixin calls the {@link  BackroomsChunkGenerator#generate(StructureWorldAccess, Chunk)} method.
- * It's what allows minecraft to generate the backrooms mazes
+ * It's what allows minecraft to generate the backrooms mazes.
+ * Anything other chunks queued for this chunk is applied first, see {@link DeferredChunkRegion}.
+ * Chunks saved by {@link CompactChunkStorage} don't go on loading until their blocks are rebuilt.
  */
 @Mixin(ChunkStatus.class)
 public abstract class ChunkStatusMixin {
@@ -29,9 +35,20 @@ public abstract class ChunkStatusMixin {
     private static void runGenerationTask(ChunkStatus targetStatus, Executor executor, ServerWorld world, ChunkGenerator generator, StructureTemplateManager structureTemplateManager, ServerLightingProvider lightingProvider, Function fullChunkConverter, List<Chunk> chunks, Chunk chunk, CallbackInfoReturnable<CompletableFuture> cir) {
 
         if (generator instanceof BackroomsChunkGenerator backroomsChunkGenerator) {
-            ChunkRegion chunkRegion = new ChunkRegion(world, chunks, targetStatus, backroomsChunkGenerator.getPlacementRadius());
+            long startNanos = System.nanoTime();
+            long startBytes = GenerationProfiler.begin();
+
+            DeferredChunkRegion chunkRegion = new DeferredChunkRegion(world, chunks, targetStatus, backroomsChunkGenerator.getPlacementRadius());
+            chunkRegion.applyDeferredWrites(chunk);
             backroomsChunkGenerator.generate(chunkRegion, chunk);
+
+            GenerationProfiler.end(generator, GenerationProfiler.Step.FEATURES, startNanos, startBytes);
         }
 
     }
+
+    @Inject(method = "runLoadTask", at = @At("RETURN"), cancellable = true)
+    private void awaitCompactReplay(ServerWorld world, StructureTemplateManager structureTemplateManager, ServerLightingProvider lightingProvider, Function<Chunk, CompletableFuture<Either<Chunk, ChunkHolder.Unloaded>>> fullChunkConverter, Chunk chunk, CallbackInfoReturnable<CompletableFuture<Either<Chunk, ChunkHolder.Unloaded>>> cir) {
+        cir.setReturnValue(CompactChunkStorage.awaitReplay(chunk, cir.getReturnValue()));
+    }
 }
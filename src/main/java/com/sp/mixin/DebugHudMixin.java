@@ -0,0 +1,24 @@
+package com.sp.mixin;
+
+import com.sp.compat.modmenu.ConfigStuff;
+import com.sp.render.FluorescentLightClusters;
+import com.sp.render.LightBudgetManager;
+import net.minecraft.client.gui.hud.DebugHud;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.List;
+
+@Mixin(DebugHud.class)
+public class DebugHudMixin {
+
+    @Inject(method = "getLeftText", at = @At("RETURN"))
+    private void addLightCounts(CallbackInfoReturnable<List<String>> cir) {
+        cir.getReturnValue().add("");
+        cir.getReturnValue().add(String.format("Fluorescent lights: %d fixtures -> %d merged", FluorescentLightClusters.getFixtureCount(), FluorescentLightClusters.getLightCount()));
+        cir.getReturnValue().add(String.format("Light budget: %d/%d shown, %d sources", LightBudgetManager.getShownCount(), ConfigStuff.getLightBudget(), LightBudgetManager.getSourceCount()));
+    }
+
+}
@@ -33,7 +33,7 @@ public abstract class EntityMixin {
                 return;
             }
 
-            if(!level.isNoon()){
+            if(!level.getState(world).isNoon()){
                 if(this.isTouchingWater()){
                     this.damage(ModDamageTypes.of(world, ModDamageTypes.ACID_WATER), 1.0f);
                 }
@@ -15,10 +15,46 @@ public abstract class ServerPropertiesHandlerMixin  extends AbstractPropertiesHa
     }
 
     @Unique private final int exitSpawnRadius = this.getInt("backrooms-exit-spawn-radius", 300);
+    @Unique private final int pregenMaxMspt = this.getInt("backrooms-pregen-max-mspt", 40);
+    @Unique private final int templatePreloadMb = this.getInt("backrooms-template-preload-mb", 512);
+    @Unique private final boolean compactChunkStorage = this.parseBoolean("backrooms-compact-chunk-storage", false);
+    @Unique private final int voiceCaptureRange = this.getInt("backrooms-voice-capture-range", 100);
+    @Unique private final int voiceClipQuota = this.getInt("backrooms-voice-clip-quota", 10);
+    @Unique private final boolean keepOpusClips = this.parseBoolean("backrooms-keep-opus-clips", false);
 
     @Override
     public int getExitSpawnRadius() {
         return this.exitSpawnRadius;
     }
 
+    @Override
+    public int getPregenMaxMspt() {
+        return this.pregenMaxMspt;
+    }
+
+    @Override
+    public int getTemplatePreloadMb() {
+        return this.templatePreloadMb;
+    }
+
+    @Override
+    public boolean isCompactChunkStorage() {
+        return this.compactChunkStorage;
+    }
+
+    @Override
+    public int getVoiceCaptureRange() {
+        return this.voiceCaptureRange;
+    }
+
+    @Override
+    public int getVoiceClipQuota() {
+        return this.voiceClipQuota;
+    }
+
+    @Override
+    public boolean isKeepOpusClips() {
+        return this.keepOpusClips;
+    }
+
 }
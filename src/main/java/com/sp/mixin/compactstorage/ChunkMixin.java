@@ -0,0 +1,48 @@
+package com.sp.mixin.compactstorage;
+
+import com.sp.mixininterfaces.GenerationLogHolder;
+import com.sp.world.generation.ChunkGenerationLog;
+import net.minecraft.world.chunk.Chunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+import java.util.concurrent.CompletableFuture;
+
+@Mixin(Chunk.class)
+public abstract class ChunkMixin implements GenerationLogHolder {
+    @Unique
+    private ChunkGenerationLog generationLog;
+    @Unique
+    private CompletableFuture<Void> pendingReplay;
+
+    @Override
+    public ChunkGenerationLog getGenerationLog() {
+        if (this.generationLog == null) {
+            this.generationLog = new ChunkGenerationLog(false);
+        }
+
+        return this.generationLog;
+    }
+
+    @Override
+    public ChunkGenerationLog peekGenerationLog() {
+        return this.generationLog;
+    }
+
+    @Override
+    public void setGenerationLog(ChunkGenerationLog generationLog) {
+        this.generationLog = generationLog;
+    }
+
+    @Override
+    public void setPendingReplay(CompletableFuture<Void> replay) {
+        this.pendingReplay = replay;
+    }
+
+    @Override
+    public CompletableFuture<Void> takePendingReplay() {
+        CompletableFuture<Void> replay = this.pendingReplay;
+        this.pendingReplay = null;
+        return replay;
+    }
+}
@@ -0,0 +1,30 @@
+package com.sp.mixin.compactstorage;
+
+import com.sp.world.generation.CompactChunkStorage;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.ChunkSerializer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ProtoChunk;
+import net.minecraft.world.poi.PointOfInterestStorage;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Saves backrooms chunks as their generation log when compact chunk storage is on, see {@link CompactChunkStorage}.
+ */
+@Mixin(ChunkSerializer.class)
+public abstract class ChunkSerializerMixin {
+    @Inject(method = "serialize", at = @At("RETURN"))
+    private static void writeCompact(ServerWorld world, Chunk chunk, CallbackInfoReturnable<NbtCompound> cir) {
+        CompactChunkStorage.write(world, chunk, cir.getReturnValue());
+    }
+
+    @Inject(method = "deserialize", at = @At("RETURN"))
+    private static void readCompact(ServerWorld world, PointOfInterestStorage poiStorage, ChunkPos chunkPos, NbtCompound nbt, CallbackInfoReturnable<ProtoChunk> cir) {
+        CompactChunkStorage.read(world, cir.getReturnValue(), nbt);
+    }
+}
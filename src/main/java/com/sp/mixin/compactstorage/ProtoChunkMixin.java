@@ -0,0 +1,28 @@
+package com.sp.mixin.compactstorage;
+
+import com.sp.world.generation.ChunkGenerationLog;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.ProtoChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Records the single blocks the generators place while the chunk is still generating, after the fill step.
+ */
+@Mixin(ProtoChunk.class)
+public abstract class ProtoChunkMixin {
+    @Inject(method = "setBlockState", at = @At("RETURN"))
+    private void recordBlock(BlockPos pos, BlockState state, boolean moved, CallbackInfoReturnable<BlockState> cir) {
+        if (cir.getReturnValue() == null) {
+            return;
+        }
+
+        ChunkGenerationLog log = ChunkGenerationLog.getIfRecording((ProtoChunk) (Object) this);
+        if (log != null) {
+            log.addBlock(pos, state);
+        }
+    }
+}
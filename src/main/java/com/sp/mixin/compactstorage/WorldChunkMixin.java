@@ -0,0 +1,40 @@
+package com.sp.mixin.compactstorage;
+
+import com.sp.mixininterfaces.GenerationLogHolder;
+import com.sp.world.generation.ChunkGenerationLog;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.ProtoChunk;
+import net.minecraft.world.chunk.WorldChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Keeps the generation log when a chunk finishes generating, and remembers every block that changes afterwards.
+ */
+@Mixin(WorldChunk.class)
+public abstract class WorldChunkMixin {
+    @Inject(method = "<init>(Lnet/minecraft/server/world/ServerWorld;Lnet/minecraft/world/chunk/ProtoChunk;Lnet/minecraft/world/chunk/WorldChunk$EntityLoader;)V", at = @At("RETURN"))
+    private void copyGenerationLog(ServerWorld world, ProtoChunk protoChunk, WorldChunk.EntityLoader entityLoader, CallbackInfo ci) {
+        ChunkGenerationLog log = ChunkGenerationLog.getIfRecording(protoChunk);
+        if (log != null) {
+            ((GenerationLogHolder) this).setGenerationLog(log);
+        }
+    }
+
+    @Inject(method = "setBlockState", at = @At("RETURN"))
+    private void markModified(BlockPos pos, BlockState state, boolean moved, CallbackInfoReturnable<BlockState> cir) {
+        if (cir.getReturnValue() == null) {
+            return;
+        }
+
+        ChunkGenerationLog log = ChunkGenerationLog.getIfRecording((WorldChunk) (Object) this);
+        if (log != null) {
+            log.markModified(pos);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.sp.mixin.lighting;
+
+import com.sp.init.BackroomsLevels;
+import com.sp.world.levels.BackroomsLevel;
+import net.minecraft.server.world.ChunkTaskPrioritySystem;
+import net.minecraft.server.world.ServerLightingProvider;
+import net.minecraft.server.world.ThreadedAnvilChunkStorage;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.thread.MessageListener;
+import net.minecraft.util.thread.TaskExecutor;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkProvider;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.ModifyVariable;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Skips light propagation in levels with the {@link BackroomsLevel.LightingModel#FLAT} lighting model.
+ * The light step still runs, so the chunk is marked as lit and the light tickets are released like normal,
+ * it just doesn't spread any light. Block changes don't queue light updates either.
+ */
+@Mixin(ServerLightingProvider.class)
+public abstract class ServerLightingProviderMixin {
+    @Unique
+    private boolean flatLighting;
+
+    @Inject(method = "<init>", at = @At("RETURN"))
+    private void getLightingModel(ChunkProvider chunkProvider, ThreadedAnvilChunkStorage chunkStorage, boolean hasBlockLight, TaskExecutor<Runnable> processor, MessageListener<ChunkTaskPrioritySystem.Task<Runnable>> executor, CallbackInfo ci) {
+        if (chunkProvider.getWorld() instanceof World world) {
+            this.flatLighting = BackroomsLevels.getLevel(world).map(level -> level.getLightingModel() == BackroomsLevel.LightingModel.FLAT).orElse(false);
+        }
+    }
+
+    @ModifyVariable(method = "light", at = @At("HEAD"), argsOnly = true)
+    private boolean skipPropagation(boolean excludeBlocks) {
+        return excludeBlocks || this.flatLighting;
+    }
+
+    @Inject(method = "checkBlock", at = @At("HEAD"), cancellable = true)
+    private void skipBlockUpdate(BlockPos pos, CallbackInfo ci) {
+        if (this.flatLighting) {
+            ci.cancel();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.sp.mixininterfaces;
+
+import com.sp.world.generation.ChunkGenerationLog;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface GenerationLogHolder {
+    ChunkGenerationLog getGenerationLog();
+
+    /**
+     * @return The chunk's log, or null if none was started for it
+     */
+    @Nullable
+    ChunkGenerationLog peekGenerationLog();
+
+    void setGenerationLog(ChunkGenerationLog generationLog);
+
+    void setPendingReplay(CompletableFuture<Void> replay);
+
+    /**
+     * @return The rebuild of a compact chunk that was started when it was read, only returned once.
+     */
+    @Nullable
+    CompletableFuture<Void> takePendingReplay();
+}
@@ -2,4 +2,16 @@ package com.sp.mixininterfaces;
 
 public interface NewServerProperties {
     int getExitSpawnRadius();
+
+    int getPregenMaxMspt();
+
+    int getTemplatePreloadMb();
+
+    boolean isCompactChunkStorage();
+
+    int getVoiceCaptureRange();
+
+    int getVoiceClipQuota();
+
+    boolean isKeepOpusClips();
 }
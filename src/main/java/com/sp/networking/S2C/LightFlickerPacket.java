@@ -0,0 +1,26 @@
+package com.sp.networking.S2C;
+
+import com.sp.world.lights.LightFlicker;
+import net.fabricmc.fabric.api.networking.v1.PacketSender;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.PacketByteBuf;
+
+public class LightFlickerPacket {
+
+    public static void receive(MinecraftClient client, ClientPlayNetworkHandler handler, PacketByteBuf buf, PacketSender responseSender){
+        long seed = buf.readLong();
+        long startTick = buf.readLong();
+        int duration = buf.readInt();
+        boolean litAfter = buf.readBoolean();
+
+        client.execute(()->{
+            if (duration == 0 || client.world == null) {
+                LightFlicker.stop(litAfter);
+            } else {
+                LightFlicker.start(client.world.getRegistryKey(), seed, startTick, duration);
+            }
+        });
+    }
+
+}
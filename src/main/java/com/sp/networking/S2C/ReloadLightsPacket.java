@@ -1,6 +1,7 @@
 package com.sp.networking.S2C;
 
 import com.sp.SPBRevampedClient;
+import com.sp.render.LightBudgetManager;
 import foundry.veil.api.client.render.VeilRenderSystem;
 import foundry.veil.api.client.render.VeilRenderer;
 import net.fabricmc.fabric.api.networking.v1.PacketSender;
@@ -15,6 +16,7 @@ public class ReloadLightsPacket {
         client.execute(()->{
             VeilRenderer renderer = VeilRenderSystem.renderer();
             renderer.getDeferredRenderer().getLightRenderer().free();
+            LightBudgetManager.invalidate();
 
             if(SPBRevampedClient.getCutsceneManager().started) {
                 SPBRevampedClient.getCutsceneManager().blackScreen.showBlackScreen(60, true, false);
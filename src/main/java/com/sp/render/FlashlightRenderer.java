@@ -88,6 +88,16 @@ public class FlashlightRenderer {
         }
     }
 
+    public int getLightCount() {
+        int count = 0;
+        for (ArrayList<AreaLight> areaLightList : this.flashLightList2.values()) {
+            if (areaLightList != null) {
+                count += areaLightList.size();
+            }
+        }
+        return count;
+    }
+
     public void clearFlashlights(){
         this.flashLightList2.clear();
     }
@@ -0,0 +1,174 @@
+package com.sp.render;
+
+import foundry.veil.api.client.render.deferred.light.PointLight;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * Merges the lights of nearby fluorescent lights into one Veil light per grid cell.
+ * <p>
+ * COPY fixtures never get a light of their own, so only the roots of each COPY chain are submitted here.
+ * Roots are then grouped by a {@value #CELL_SIZE} block grid on the same y level and every group is
+ * rendered as a single point light at the centre of its fixtures. Only the cells that had a fixture
+ * turn on or off are rebuilt. The merged lights then go through the {@link LightBudgetManager} like any other light.
+ */
+public class FluorescentLightClusters {
+    private static final int CELL_SIZE = 8;
+    private static final float RADIUS = 13.0f;
+    private static final float MAX_BRIGHTNESS = 2.0f;
+
+    private static final Long2ObjectOpenHashMap<Cluster> clusters = new Long2ObjectOpenHashMap<>();
+    private static final LongOpenHashSet dirtyClusters = new LongOpenHashSet();
+
+    private static int fixtureCount;
+    private static int lightCount;
+
+    /**
+     * Sets whether the fixture at this position should be lighting its cluster. Cheap to call every tick.
+     */
+    public static void setLit(BlockPos pos, boolean lit) {
+        long key = getClusterKey(pos);
+        Cluster cluster = clusters.get(key);
+
+        if (lit) {
+            if (cluster == null) {
+                cluster = new Cluster();
+                clusters.put(key, cluster);
+            }
+
+            if (cluster.fixtures.add(pos.asLong())) {
+                fixtureCount++;
+                dirtyClusters.add(key);
+            }
+        } else if (cluster != null && cluster.fixtures.remove(pos.asLong())) {
+            fixtureCount--;
+            dirtyClusters.add(key);
+        }
+    }
+
+    public static void tick() {
+        if (dirtyClusters.isEmpty()) {
+            return;
+        }
+
+        LongIterator iterator = dirtyClusters.iterator();
+        while (iterator.hasNext()) {
+            long key = iterator.nextLong();
+            Cluster cluster = clusters.get(key);
+
+            if (cluster == null) {
+                continue;
+            }
+
+            cluster.rebuild();
+
+            if (cluster.fixtures.isEmpty()) {
+                clusters.remove(key);
+            }
+        }
+
+        dirtyClusters.clear();
+    }
+
+    public static void clear() {
+        for (Cluster cluster : clusters.values()) {
+            cluster.fixtures.clear();
+            cluster.rebuild();
+        }
+
+        clusters.clear();
+        dirtyClusters.clear();
+        fixtureCount = 0;
+        lightCount = 0;
+    }
+
+    /**
+     * @return How many lights would have been submitted without merging
+     */
+    public static int getFixtureCount() {
+        return fixtureCount;
+    }
+
+    /**
+     * @return How many lights are submitted to the light budget
+     */
+    public static int getLightCount() {
+        return lightCount;
+    }
+
+    private static long getClusterKey(BlockPos pos) {
+        return BlockPos.asLong(Math.floorDiv(pos.getX(), CELL_SIZE), pos.getY(), Math.floorDiv(pos.getZ(), CELL_SIZE));
+    }
+
+    private static class Cluster {
+        final LongOpenHashSet fixtures = new LongOpenHashSet();
+        ManagedLight light;
+        Vec3d position = Vec3d.ZERO;
+        float radius;
+        float brightness;
+
+        void rebuild() {
+            if (this.fixtures.isEmpty()) {
+                if (this.light != null) {
+                    LightBudgetManager.remove(this.light);
+                    this.light = null;
+                    lightCount--;
+                }
+                return;
+            }
+
+            double x = 0;
+            double y = 0;
+            double z = 0;
+
+            LongIterator iterator = this.fixtures.iterator();
+            while (iterator.hasNext()) {
+                long pos = iterator.nextLong();
+                x += BlockPos.unpackLongX(pos);
+                y += BlockPos.unpackLongY(pos);
+                z += BlockPos.unpackLongZ(pos);
+            }
+
+            int count = this.fixtures.size();
+            x = x / count + 0.5;
+            y = y / count + 0.5;
+            z = z / count + 0.5;
+
+            //Grow the light so it still reaches as far as the outermost fixture did on its own
+            double spread = 0;
+            iterator = this.fixtures.iterator();
+            while (iterator.hasNext()) {
+                long pos = iterator.nextLong();
+                double dx = BlockPos.unpackLongX(pos) + 0.5 - x;
+                double dz = BlockPos.unpackLongZ(pos) + 0.5 - z;
+                spread = Math.max(spread, Math.sqrt(dx * dx + dz * dz));
+            }
+
+            this.position = new Vec3d(x, y - 1, z);
+            this.radius = RADIUS + (float) spread;
+            this.brightness = Math.min((float) Math.sqrt(count), MAX_BRIGHTNESS);
+
+            if (this.light == null) {
+                this.light = LightBudgetManager.add(this.position, this.radius, this.brightness, this::createLight);
+                lightCount++;
+            } else {
+                this.light.setPosition(this.position.x, this.position.y, this.position.z);
+                this.light.setSize(this.radius, this.brightness);
+                this.light.refresh();
+            }
+        }
+
+        PointLight createLight() {
+            PointLight pointLight = new PointLight();
+            pointLight
+                    .setRadius(this.radius)
+                    .setColor((float) 255 / 255, (float) 240 / 255, (float) 100 / 255)
+                    .setPosition(this.position.x, this.position.y, this.position.z)
+                    .setBrightness(this.brightness);
+            return pointLight;
+        }
+    }
+}
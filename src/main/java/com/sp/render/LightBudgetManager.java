@@ -0,0 +1,281 @@
+package com.sp.render;
+
+import com.sp.compat.modmenu.ConfigStuff;
+import com.sp.init.BackroomsLevels;
+import foundry.veil.api.client.render.VeilRenderSystem;
+import foundry.veil.api.client.render.deferred.light.Light;
+import foundry.veil.api.client.render.deferred.light.renderer.LightRenderer;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.Frustum;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+/**
+ * Decides which light sources actually get a Veil light.
+ * <p>
+ * Light sources register once and are kept in a spatial hash. Once per tick the manager scores every source in
+ * range by distance, brightness and whether it's on screen, and only the best {@link ConfigStuff#lightBudget}
+ * get a light. Lights that are already shown get a bonus so they don't swap every time the camera moves, and
+ * lights fade in and out instead of popping.
+ */
+public class LightBudgetManager {
+    private static final int CELL_SIZE = 16;
+    private static final float ACTIVE_BONUS = 1.5f;
+    private static final float OFF_SCREEN_FACTOR = 0.3f;
+    private static final float FADE_STEP = 0.25f;
+
+    private static final Long2ObjectOpenHashMap<ObjectArrayList<ManagedLight>> cells = new Long2ObjectOpenHashMap<>();
+    private static final ObjectOpenHashSet<ManagedLight> shown = new ObjectOpenHashSet<>();
+    private static final ObjectArrayList<ManagedLight> candidates = new ObjectArrayList<>();
+
+    private static int sourceCount;
+
+    public static ManagedLight add(Vec3d pos, float radius, float intensity, Supplier<? extends Light> factory) {
+        ManagedLight light = new ManagedLight(pos.x, pos.y, pos.z, radius, intensity, factory);
+        light.cell = getCell(pos.x, pos.z);
+        cells.computeIfAbsent(light.cell, key -> new ObjectArrayList<>()).add(light);
+        sourceCount++;
+        return light;
+    }
+
+    public static void remove(ManagedLight light) {
+        if (light.removed) {
+            return;
+        }
+
+        light.removed = true;
+        removeFromCell(light);
+        sourceCount--;
+
+        //Removed sources don't fade, the block is already gone
+        hide(light);
+    }
+
+    static void move(ManagedLight light, double x, double y, double z) {
+        light.x = x;
+        light.y = y;
+        light.z = z;
+
+        long cell = getCell(x, z);
+        if (cell != light.cell && !light.removed) {
+            removeFromCell(light);
+            light.cell = cell;
+            cells.computeIfAbsent(cell, key -> new ObjectArrayList<>()).add(light);
+        }
+    }
+
+    static void refresh(ManagedLight light) {
+        if (light.light == null) {
+            return;
+        }
+
+        LightRenderer lightRenderer = VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer();
+        lightRenderer.removeLight(light.light);
+
+        light.light = light.factory.get();
+        light.targetBrightness = light.light.getBrightness();
+        light.light.setBrightness(light.targetBrightness * light.fade);
+        lightRenderer.addLight(light.light);
+    }
+
+    /**
+     * @param reserved How many lights are already used up by something else, like flashlights
+     */
+    public static void tick(MinecraftClient client, int reserved) {
+        if (client.world == null || client.gameRenderer == null) {
+            return;
+        }
+
+        Vec3d camera = client.gameRenderer.getCamera().getPos();
+        Frustum frustum = client.worldRenderer.frustum;
+        int budget = Math.max(ConfigStuff.getLightBudget() - reserved, 0);
+
+        double maxDistance = ConfigStuff.getLightRenderDistance();
+        if (client.world.getRegistryKey() == BackroomsLevels.LEVEL2_WORLD_KEY) {
+            maxDistance = Math.min(maxDistance, 32);
+        }
+
+        gatherCandidates(camera, frustum, maxDistance);
+        candidates.sort((a, b) -> Float.compare(b.score, a.score));
+
+        //Everything that didn't make the cut fades out first, so the budget is free for the new lights
+        for (int i = budget; i < candidates.size(); i++) {
+            ManagedLight light = candidates.get(i);
+            if (light.light != null) {
+                light.fadingOut = true;
+            }
+        }
+
+        for (ManagedLight light : shown) {
+            if (!light.removed && light.score < 0) {
+                light.fadingOut = true;
+            }
+        }
+
+        int selected = Math.min(budget, candidates.size());
+        for (int i = 0; i < selected; i++) {
+            ManagedLight light = candidates.get(i);
+
+            if (light.light != null) {
+                light.fadingOut = false;
+            } else if (shown.size() < budget) {
+                show(light);
+            }
+        }
+
+        updateFades();
+    }
+
+    private static void gatherCandidates(Vec3d camera, Frustum frustum, double maxDistance) {
+        candidates.clear();
+
+        for (ManagedLight light : shown) {
+            light.score = -1;
+        }
+
+        double maxDistanceSq = maxDistance * maxDistance;
+        int minX = MathHelper.floor((camera.x - maxDistance) / CELL_SIZE);
+        int maxX = MathHelper.floor((camera.x + maxDistance) / CELL_SIZE);
+        int minZ = MathHelper.floor((camera.z - maxDistance) / CELL_SIZE);
+        int maxZ = MathHelper.floor((camera.z + maxDistance) / CELL_SIZE);
+
+        for (int cellX = minX; cellX <= maxX; cellX++) {
+            for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                ObjectArrayList<ManagedLight> cell = cells.get(BlockPos.asLong(cellX, 0, cellZ));
+                if (cell == null) {
+                    continue;
+                }
+
+                for (ManagedLight light : cell) {
+                    double dx = light.x - camera.x;
+                    double dy = light.y - camera.y;
+                    double dz = light.z - camera.z;
+                    double distanceSq = dx * dx + dy * dy + dz * dz;
+
+                    if (distanceSq > maxDistanceSq) {
+                        continue;
+                    }
+
+                    double radiusSq = light.radius * light.radius;
+                    float score = (float) (light.intensity * radiusSq / (radiusSq + distanceSq));
+
+                    //Same test as the Box overload, without allocating a box for every light
+                    if (frustum != null && !frustum.isVisible(light.x - light.radius, light.y - light.radius, light.z - light.radius, light.x + light.radius, light.y + light.radius, light.z + light.radius)) {
+                        score *= OFF_SCREEN_FACTOR;
+                    }
+
+                    if (light.light != null && !light.fadingOut) {
+                        score *= ACTIVE_BONUS;
+                    }
+
+                    light.score = score;
+                    candidates.add(light);
+                }
+            }
+        }
+    }
+
+    private static void updateFades() {
+        Iterator<ManagedLight> iterator = shown.iterator();
+
+        while (iterator.hasNext()) {
+            ManagedLight light = iterator.next();
+
+            if (light.light == null) {
+                iterator.remove();
+                continue;
+            }
+
+            light.fade = MathHelper.clamp(light.fade + (light.fadingOut ? -FADE_STEP : FADE_STEP), 0.0f, 1.0f);
+            light.light.setBrightness(light.targetBrightness * light.fade);
+
+            if (light.fadingOut && light.fade <= 0.0f) {
+                VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().removeLight(light.light);
+                light.light = null;
+                light.fadingOut = false;
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void show(ManagedLight light) {
+        light.light = light.factory.get();
+        light.targetBrightness = light.light.getBrightness();
+        light.fade = 0.0f;
+        light.fadingOut = false;
+        light.light.setBrightness(0.0f);
+        VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().addLight(light.light);
+        shown.add(light);
+    }
+
+    private static void hide(ManagedLight light) {
+        if (light.light != null) {
+            VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().removeLight(light.light);
+            light.light = null;
+        }
+
+        light.fadingOut = false;
+        shown.remove(light);
+    }
+
+    private static void removeFromCell(ManagedLight light) {
+        ObjectArrayList<ManagedLight> cell = cells.get(light.cell);
+        if (cell != null) {
+            cell.remove(light);
+            if (cell.isEmpty()) {
+                cells.remove(light.cell);
+            }
+        }
+    }
+
+    /**
+     * Has to be called after Veil dropped all of its lights, the best ones are added again on the next tick.
+     */
+    public static void invalidate() {
+        for (ManagedLight light : shown) {
+            light.light = null;
+            light.fadingOut = false;
+        }
+
+        shown.clear();
+    }
+
+    public static void clear() {
+        for (ManagedLight light : shown) {
+            if (light.light != null) {
+                VeilRenderSystem.renderer().getDeferredRenderer().getLightRenderer().removeLight(light.light);
+                light.light = null;
+            }
+        }
+
+        for (ObjectArrayList<ManagedLight> cell : cells.values()) {
+            for (ManagedLight light : cell) {
+                light.removed = true;
+            }
+        }
+
+        shown.clear();
+        cells.clear();
+        candidates.clear();
+        sourceCount = 0;
+    }
+
+    public static int getSourceCount() {
+        return sourceCount;
+    }
+
+    public static int getShownCount() {
+        return shown.size();
+    }
+
+    private static long getCell(double x, double z) {
+        return BlockPos.asLong(MathHelper.floor(x / CELL_SIZE), 0, MathHelper.floor(z / CELL_SIZE));
+    }
+}
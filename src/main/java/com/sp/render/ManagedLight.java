@@ -0,0 +1,66 @@
+package com.sp.render;
+
+import foundry.veil.api.client.render.deferred.light.Light;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * A light source handed to the {@link LightBudgetManager}. The Veil light is only created while the manager
+ * decides it's worth rendering, so the light has to be built from the factory every time.
+ */
+public class ManagedLight {
+    final Supplier<? extends Light> factory;
+    float radius;
+    float intensity;
+
+    double x;
+    double y;
+    double z;
+    long cell;
+
+    @Nullable
+    Light light;
+    float targetBrightness;
+    float fade;
+    boolean fadingOut;
+    boolean removed;
+    float score;
+
+    ManagedLight(double x, double y, double z, float radius, float intensity, Supplier<? extends Light> factory) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.radius = radius;
+        this.intensity = intensity;
+        this.factory = factory;
+    }
+
+    /**
+     * Rebuilds the Veil light from the factory if it is currently shown, for when the light's settings changed.
+     */
+    public void refresh() {
+        LightBudgetManager.refresh(this);
+    }
+
+    /**
+     * Changes how far the light reaches and how bright it is, which is what it's scored by. Call {@link #refresh()} afterward.
+     */
+    public void setSize(float radius, float intensity) {
+        this.radius = radius;
+        this.intensity = intensity;
+    }
+
+    public void setPosition(double x, double y, double z) {
+        LightBudgetManager.move(this, x, y, z);
+    }
+
+    public boolean isActive() {
+        return this.light != null && !this.fadingOut;
+    }
+
+    @Nullable
+    public Light getLight() {
+        return this.light;
+    }
+}
@@ -25,12 +25,12 @@ public class PoolroomsDayCycle {
                 return 0;
             }
 
-            if(level.isSunsetTransitioning()) {
+            if(level.getState(world).isSunsetTransitioning()) {
 
                 if(!done) {
                     if (startTime == null) {
                         prevDayTime = dayTime;
-                        targetDayTime = level.getTimeOfDay();
+                        targetDayTime = level.getState(world).getTimeOfDay();
                         startTime = System.currentTimeMillis();
                     }
 
@@ -48,7 +48,7 @@ public class PoolroomsDayCycle {
             } else {
                 done = false;
             }
-            float currentTime = level.getTimeOfDay();
+            float currentTime = level.getState(world).getTimeOfDay();
 
             dayTime = currentTime;
             if(dayTime >= 1.0f){
@@ -30,8 +30,8 @@ public class CreakingSoundInstance extends MovingSoundInstance {
             return;
         }
 
-        if(this.player.isRemoved() || (!level.isWarping() && SPBRevampedClient.finishedWarp(player.getWorld()))) {
-            if(!level.isWarping()){
+        if(this.player.isRemoved() || (!level.getState(player.getWorld()).isWarping() && SPBRevampedClient.finishedWarp(player.getWorld()))) {
+            if(!level.getState(player.getWorld()).isWarping()){
                 this.volume -= 0.01f;
             }else {
                 this.volume = 0.0f;
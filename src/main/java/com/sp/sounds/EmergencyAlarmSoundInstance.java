@@ -49,7 +49,7 @@ public class EmergencyAlarmSoundInstance extends MovingSoundInstance {
                 if(world != null) {
                     if (!this.entity.isRemoved() &&
                             this.entity.getPos().isWithinDistance(player.getPos(), 80.0f) &&
-                            level.getLightState() != Level0BackroomsLevel.LightState.BLACKOUT &&
+                            level.getState(world).getLightState() != Level0BackroomsLevel.LightState.BLACKOUT &&
                             !SPBRevampedClient.blackScreen)
                     {
                         this.pitch = 1.0F;
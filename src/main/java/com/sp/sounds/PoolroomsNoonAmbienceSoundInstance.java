@@ -29,7 +29,7 @@ public class PoolroomsNoonAmbienceSoundInstance extends MovingSoundInstance {
             return;
         }
 
-        if(!level.isNoon() || this.player.isRemoved()){
+        if(!level.getState(player.getWorld()).isNoon() || this.player.isRemoved()){
             this.setDone();
             this.repeat = true;
         }
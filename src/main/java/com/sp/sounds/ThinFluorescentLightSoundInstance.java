@@ -48,11 +48,11 @@ public class ThinFluorescentLightSoundInstance extends MovingSoundInstance {
             boolean blackedOut = false;
 
             if ((BackroomsLevels.getLevel(world)).orElse(BackroomsLevels.POOLROOMS_BACKROOMS_LEVEL) instanceof Level0BackroomsLevel level) {
-                blackedOut = level.getLightState() == Level0BackroomsLevel.LightState.BLACKOUT;
+                blackedOut = level.getState(world).getLightState() == Level0BackroomsLevel.LightState.BLACKOUT;
             }
 
             if ((BackroomsLevels.getLevel(world)).orElse(BackroomsLevels.POOLROOMS_BACKROOMS_LEVEL) instanceof Level1BackroomsLevel level) {
-                blackedOut = level.getLightState() == Level0BackroomsLevel.LightState.BLACKOUT;
+                blackedOut = level.getState(world).getLightState() == Level0BackroomsLevel.LightState.BLACKOUT;
             }
 
             if (!this.entity.isRemoved() &&
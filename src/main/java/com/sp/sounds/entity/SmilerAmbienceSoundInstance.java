@@ -27,7 +27,7 @@ public class SmilerAmbienceSoundInstance extends MovingSoundInstance {
             return;
         }
 
-        if(level.getLightState() != Level0BackroomsLevel.LightState.BLACKOUT || this.player.isRemoved()){
+        if(level.getState(player.getWorld()).getLightState() != Level0BackroomsLevel.LightState.BLACKOUT || this.player.isRemoved()){
             this.setDone();
         }
     }
@@ -14,7 +14,7 @@ import de.maxhenkel.voicechat.voice.common.Utils;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.predicate.entity.EntityPredicates;
-import net.minecraft.util.math.random.Random;
+import org.jetbrains.annotations.Nullable;
 import org.lwjgl.openal.AL10;
 
 import java.util.*;
@@ -25,9 +25,8 @@ public class BackroomsVoicechatPlugin implements VoicechatPlugin {
     private ConcurrentHashMap<UUID, OpusDecoder> decoders;
     public static ConcurrentHashMap<UUID, Float> speakingTime;
 
-    public static Map<UUID, Vector<short[]>> randomSpeakingList;
-    private static Map<UUID, short[]> totalSoundData;
-    private static Map<UUID, Integer> ticks;
+    private static ConcurrentHashMap<UUID, VoiceClipStore> clipStores;
+    private ConcurrentHashMap<UUID, VoiceRecorder> recorders;
 
     @Override
     public String getPluginId() {
@@ -38,9 +37,16 @@ public class BackroomsVoicechatPlugin implements VoicechatPlugin {
     public void initialize(VoicechatApi api) {
         decoders = new ConcurrentHashMap<>();
         speakingTime = new ConcurrentHashMap<>();
-        randomSpeakingList = new HashMap<>();
-        ticks = new HashMap<>();
-        totalSoundData = new HashMap<>();
+        clipStores = new ConcurrentHashMap<>();
+        recorders = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return The clips recorded of the player, or null if none were recorded yet.
+     */
+    @Nullable
+    public static VoiceClipStore getClips(UUID uuid) {
+        return clipStores != null && uuid != null ? clipStores.get(uuid) : null;
     }
 
     @Override
@@ -102,93 +108,84 @@ public class BackroomsVoicechatPlugin implements VoicechatPlugin {
             return;
         }
 
-
-        if (ticks.containsKey(player.getUuid())) {
-            ticks.put(player.getUuid(), ticks.get(player.getUuid()) + 1);
-        } else {
-            ticks.put(player.getUuid(), 0);
-        }
-
         byte[] encodedData = microphonePacketEvent.getPacket().getOpusEncodedData();
+        VoiceRecorder recorder = recorders.computeIfAbsent(player.getUuid(), uuid -> new VoiceRecorder());
 
-        byte[] copyData = encodedData.clone();
-
-        if (copyData.length != 0) {
-            if (!decoders.containsKey(player.getUuid())) {
-                decoders.put(player.getUuid(), microphonePacketEvent.getVoicechat().createDecoder());
+        if (encodedData.length != 0) {
+            PlayerComponent component = InitializeComponents.PLAYER.get(player);
+            if (component.shouldBeMuted()) {
+                microphonePacketEvent.cancel();
+                return;
             }
 
-            OpusDecoder decoder = decoders.get(player.getUuid());
-
-            short[] data = decoder.decode(encodedData);
+            component.setSpeaking(true);
 
-            PlayerComponent component = InitializeComponents.PLAYER.get(player);
-            if(!component.shouldBeMuted()) {
-                component.setSpeaking(true);
-
-                //Update the amount of time that the players are talking for the skinstealer to determine who to take
-                if(!player.isSpectator() && !player.isCreative()) {
-                    if (!speakingTime.containsKey(player.getUuid())) {
-                        speakingTime.put(player.getUuid(), 0.0f);
-                    }
-
-                    speakingTime.put(player.getUuid(), speakingTime.get(player.getUuid()) + 0.0001f);
-
-                    //If the player is talking too loud, make them visible to the skinwalker
-                    if (!component.isVisibleToEntity()) {
-                        double volume = Utils.dbToPerc(Utils.getHighestAudioLevel(data));
-
-                        if (volume >= 0.8) {
-                            component.setTalkingTooLoud(true);
-                            component.resetTalkingTooLoudTimer();
-                        }
-                    }
-                } else if(!component.isBeingCaptured() && !component.hasBeenCaptured()) {
-                    speakingTime.remove(player.getUuid());
+            //Update the amount of time that the players are talking for the skinstealer to determine who to take
+            boolean survival = !player.isSpectator() && !player.isCreative();
+            if (survival) {
+                if (!speakingTime.containsKey(player.getUuid())) {
+                    speakingTime.put(player.getUuid(), 0.0f);
                 }
-            } else {
-                microphonePacketEvent.cancel();
-                return;
+
+                speakingTime.put(player.getUuid(), speakingTime.get(player.getUuid()) + 0.0001f);
+            } else if (!component.isBeingCaptured() && !component.hasBeenCaptured()) {
+                speakingTime.remove(player.getUuid());
             }
 
-            short[] totalData;
-            if (totalSoundData.containsKey(player.getUuid())) {
-                totalData = totalSoundData.get(player.getUuid());
-            } else {
-                totalData = new short[0];
+            if (!recorder.hasStarted()) {
+                recorder.start(VoiceCapturePolicy.shouldCapture(player.getUuid()), VoiceCapturePolicy.isKeepingOpus());
             }
 
-            short[] result = new short[totalData.length + data.length];
-            System.arraycopy(totalData, 0, result, 0, totalData.length);
-            System.arraycopy(data, 0, result, totalData.length, data.length);
-            totalData = result;
-            totalSoundData.put(player.getUuid(), totalData);
+            //The loudness is checked for every packet while a skinwalker could notice the player, recorded or not
+            boolean checkLoudness = survival && !component.isVisibleToEntity() && VoiceCapturePolicy.canBeHeard(player.getUuid());
+            boolean recordPcm = recorder.isCapturing() && !recorder.isOpus();
 
-            return;
-        }
+            //Opus clips are kept as they came in
+            if (recorder.isCapturing() && recorder.isOpus()) {
+                recorder.append(encodedData);
+            }
+
+            //Only decode what's going to be checked or recorded, everything else passes through as it is
+            if (!checkLoudness && !recordPcm) {
+                VoiceCapturePolicy.onSkipped();
+                return;
+            }
 
-        decoders.get(player.getUuid()).resetState();
+            OpusDecoder decoder = decoders.get(player.getUuid());
+            if (decoder == null) {
+                decoder = microphonePacketEvent.getVoicechat().createDecoder();
+                decoders.put(player.getUuid(), decoder);
+            }
 
-        if (ticks.get(player.getUuid()) > 40  && ticks.get(player.getUuid()) < 200) {
-            Random random = Random.create();
+            short[] data = decoder.decode(encodedData);
+            VoiceCapturePolicy.onDecoded();
 
-            Vector<short[]> soundList = new Vector<>();
+            //If the player is talking too loud, make them visible to the skinwalker
+            if (checkLoudness) {
+                double volume = Utils.dbToPerc(Utils.getHighestAudioLevel(data));
 
-            if (randomSpeakingList.containsKey(player.getUuid())) {
-                soundList = randomSpeakingList.getOrDefault(player.getUuid(), new Vector<>());
+                if (volume >= 0.8) {
+                    component.setTalkingTooLoud(true);
+                    component.resetTalkingTooLoudTimer();
+                }
             }
 
-            if (soundList.size() < 20) {
-                soundList.add(totalSoundData.get(player.getUuid()));
-            } else {
-                soundList.set(random.nextBetween(0, randomSpeakingList.size() - 1), totalSoundData.get(player.getUuid()));
+            if (recordPcm) {
+                recorder.append(data);
             }
+            return;
+        }
 
-            randomSpeakingList.put(player.getUuid(), soundList);
+        //An empty packet means the player stopped talking
+        OpusDecoder decoder = decoders.get(player.getUuid());
+        if (decoder != null) {
+            decoder.resetState();
         }
 
-        ticks.put(player.getUuid(), 0);
-        totalSoundData.remove(player.getUuid());
+        VoiceClip clip = recorder.finish();
+        if (clip != null) {
+            clipStores.computeIfAbsent(player.getUuid(), uuid -> new VoiceClipStore()).add(clip);
+        }
     }
 
     private void onServerStart(VoicechatServerStartedEvent voicechatServerStartedEvent) {
@@ -205,11 +202,15 @@ public class BackroomsVoicechatPlugin implements VoicechatPlugin {
     private void playerDisconnect(PlayerDisconnectedEvent playerDisconnectedEvent) {
         UUID playerUUID = playerDisconnectedEvent.getPlayerUuid();
         this.removePlayerDecoder(playerUUID, decoders.get(playerUUID));
+        this.removePlayerRecorder(playerUUID);
         speakingTime.remove(playerUUID);
     }
 
     private void onServerStop(VoicechatServerStoppedEvent voicechatServerStoppedEvent) {
         decoders.forEach(this::removePlayerDecoder);
+        recorders.keySet().forEach(this::removePlayerRecorder);
+        clipStores.values().forEach(VoiceClipStore::clear);
+        clipStores.clear();
         speakingTime.clear();
     }
 
@@ -220,4 +221,11 @@ public class BackroomsVoicechatPlugin implements VoicechatPlugin {
         decoders.remove(uuid);
     }
 
+    private void removePlayerRecorder(UUID uuid) {
+        VoiceRecorder recorder = recorders.remove(uuid);
+        if (recorder != null) {
+            recorder.clear();
+        }
+    }
+
 }
\ No newline at end of file
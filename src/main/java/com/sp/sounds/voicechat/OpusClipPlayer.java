@@ -0,0 +1,64 @@
+package com.sp.sounds.voicechat;
+
+import de.maxhenkel.voicechat.api.VoicechatServerApi;
+import de.maxhenkel.voicechat.api.audiochannel.AudioChannel;
+import de.maxhenkel.voicechat.api.audiochannel.AudioPlayer;
+import de.maxhenkel.voicechat.api.opus.OpusEncoder;
+
+/**
+ * Plays an Opus clip's frames as they were recorded, without decoding or encoding them again.
+ * <p>
+ * The {@link AudioPlayer} still keeps the timing, it asks for a frame of audio every 20 ms and hands it to its encoder.
+ * This is that encoder, it ignores the audio, which is always silence, and returns the next recorded frame instead.
+ * The frames are played in the given order, so effects like reversing and stuttering only rearrange indices.
+ */
+public class OpusClipPlayer implements OpusEncoder {
+    private static final short[] PLACEHOLDER = new short[PcmFramePool.FRAME_SIZE];
+
+    private final VoiceClip clip;
+    private final int[] order;
+    private int position;
+    private volatile boolean closed;
+
+    private OpusClipPlayer(VoiceClip clip, int[] order) {
+        this.clip = clip;
+        this.order = order;
+    }
+
+    /**
+     * Takes over the reference the caller has to the clip, it's released once the player stops.
+     * @param order The indices of the clip's frames, in the order they're played.
+     */
+    public static AudioPlayer create(VoicechatServerApi api, AudioChannel channel, VoiceClip clip, int[] order) {
+        OpusClipPlayer source = new OpusClipPlayer(clip, order);
+        AudioPlayer player = api.createAudioPlayer(channel, source, source::nextFrame);
+        player.setOnStopped(source::close);
+        return player;
+    }
+
+    private short[] nextFrame() {
+        return this.position < this.order.length ? PLACEHOLDER : null;
+    }
+
+    @Override
+    public byte[] encode(short[] rawAudio) {
+        return this.clip.getOpusFrame(this.order[this.position++]);
+    }
+
+    @Override
+    public void resetState() {
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!this.closed) {
+            this.closed = true;
+            this.clip.release();
+        }
+    }
+}
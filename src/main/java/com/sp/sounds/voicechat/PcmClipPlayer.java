@@ -0,0 +1,70 @@
+package com.sp.sounds.voicechat;
+
+import de.maxhenkel.voicechat.api.VoicechatServerApi;
+import de.maxhenkel.voicechat.api.audiochannel.AudioChannel;
+import de.maxhenkel.voicechat.api.audiochannel.AudioPlayer;
+import de.maxhenkel.voicechat.api.opus.OpusEncoder;
+
+/**
+ * Plays a PCM clip through its effects, one 20 ms frame at a time as the {@link AudioPlayer} asks for it.
+ * <p>
+ * Playback starts right away however long the clip is, and the only memory it needs is a single pooled frame,
+ * which is filled again for every frame the player encodes.
+ */
+public class PcmClipPlayer {
+    private static final int FRAME_SIZE = PcmFramePool.FRAME_SIZE;
+
+    private final VoiceClip clip;
+    private final VoiceEffectChain effects;
+    private final OpusEncoder encoder;
+    private final short[] buffer = PcmFramePool.acquire();
+    private final int length;
+    private int position;
+    private boolean closed;
+
+    private PcmClipPlayer(VoiceClip clip, VoiceEffectChain effects, OpusEncoder encoder) {
+        this.clip = clip;
+        this.effects = effects;
+        this.encoder = encoder;
+        this.length = clip.getFrameCount() * FRAME_SIZE;
+    }
+
+    /**
+     * Takes over the reference the caller has to the clip, it's released once the player stops.
+     */
+    public static AudioPlayer create(VoicechatServerApi api, AudioChannel channel, VoiceClip clip, VoiceEffectChain effects) {
+        OpusEncoder encoder = api.createEncoder();
+        PcmClipPlayer source = new PcmClipPlayer(clip, effects, encoder);
+        AudioPlayer player = api.createAudioPlayer(channel, encoder, source::nextFrame);
+        player.setOnStopped(source::close);
+        return player;
+    }
+
+    private short[] nextFrame() {
+        if (this.position >= this.length) {
+            return null;
+        }
+
+        if (this.effects.movesSamples()) {
+            for (int i = 0; i < FRAME_SIZE; i++) {
+                int source = this.effects.getSource(this.position + i, this.length);
+                this.buffer[i] = this.clip.getFrame(source / FRAME_SIZE)[source % FRAME_SIZE];
+            }
+        } else {
+            System.arraycopy(this.clip.getFrame(this.position / FRAME_SIZE), 0, this.buffer, 0, FRAME_SIZE);
+        }
+
+        this.effects.process(this.buffer);
+        this.position += FRAME_SIZE;
+        return this.buffer;
+    }
+
+    private synchronized void close() {
+        if (!this.closed) {
+            this.closed = true;
+            this.encoder.close();
+            this.clip.release();
+            PcmFramePool.release(this.buffer);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.sp.sounds.voicechat;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Recycles the 20 ms PCM frames recorded voice clips are made of, so recording doesn't allocate an array for every packet.
+ * <p>
+ * Frames come back when the recorder drops a clip that's too short, or when the last user of a clip releases it.
+ * The pool only keeps so many frames around, anything past that is left to the garbage collector.
+ */
+public class PcmFramePool {
+    // 48 kHz mono, what Simple Voice Chat sends every 20 ms
+    public static final int FRAME_SIZE = 960;
+    // About 7.5 MB of frames, enough for a few hundred clips to come and go without allocating
+    private static final int MAX_POOLED_FRAMES = 4096;
+
+    private static final ArrayBlockingQueue<short[]> FRAMES = new ArrayBlockingQueue<>(MAX_POOLED_FRAMES);
+
+    public static short[] acquire() {
+        short[] frame = FRAMES.poll();
+        return frame != null ? frame : new short[FRAME_SIZE];
+    }
+
+    /**
+     * Copies decoded audio into a pooled frame, longer audio is cut off and shorter audio is padded with silence.
+     */
+    public static short[] copyOf(short[] pcm) {
+        short[] frame = acquire();
+        int length = Math.min(pcm.length, FRAME_SIZE);
+        System.arraycopy(pcm, 0, frame, 0, length);
+        if (length < FRAME_SIZE) {
+            Arrays.fill(frame, length, FRAME_SIZE, (short) 0);
+        }
+
+        return frame;
+    }
+
+    public static void release(short[] frame) {
+        FRAMES.offer(frame);
+    }
+}
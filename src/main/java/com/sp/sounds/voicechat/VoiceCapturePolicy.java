@@ -0,0 +1,159 @@
+package com.sp.sounds.voicechat;
+
+import com.sp.compat.modmenu.ConfigStuff;
+import com.sp.entity.ai.goals.FinalFormIdleGoal;
+import com.sp.entity.custom.SkinWalkerEntity;
+import com.sp.init.ModEntities;
+import com.sp.mixininterfaces.NewServerProperties;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.dedicated.MinecraftDedicatedServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which voice packets get decoded, so that only happens when a clip is wanted or a skinwalker could hear the player.
+ * <p>
+ * A player is recorded while a skinwalker is close enough to mimic them, or while they have fewer clips than the quota.
+ * Separately from that, a player's loudness is checked while a skinwalker is close enough to notice them, which doesn't
+ * depend on the capture range. Everyone else's packets pass through without being decoded. The players near skinwalkers
+ * are worked out on the server thread once a second, the voice chat thread only reads the result.
+ */
+public class VoiceCapturePolicy {
+    private static final int UPDATE_INTERVAL = 20;
+    // Covers a skinwalker walking closer between two updates
+    private static final int HEARING_RANGE = FinalFormIdleGoal.NOTICE_RANGE + 16;
+
+    private static volatile Set<UUID> nearSkinWalkers = Set.of();
+    private static volatile Set<UUID> heardBySkinWalkers = Set.of();
+    private static volatile int clipQuota = ConfigStuff.voiceClipQuota;
+    private static volatile boolean keepOpus = ConfigStuff.keepOpusClips;
+
+    private static final LongAdder DECODED = new LongAdder();
+    private static final LongAdder SKIPPED = new LongAdder();
+
+    public static void init() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (server.getTicks() % UPDATE_INTERVAL == 0) {
+                update(server);
+            }
+        });
+    }
+
+    private static void update(MinecraftServer server) {
+        double range = getCaptureRange(server);
+        double rangeSquared = range * range;
+        double hearingRangeSquared = HEARING_RANGE * HEARING_RANGE;
+        Set<UUID> near = new HashSet<>();
+        Set<UUID> heard = new HashSet<>();
+
+        for (ServerWorld world : server.getWorlds()) {
+            if (world.getPlayers().isEmpty()) {
+                continue;
+            }
+
+            List<? extends SkinWalkerEntity> skinWalkers = world.getEntitiesByType(ModEntities.SKIN_WALKER_ENTITY, SkinWalkerEntity::isAlive);
+            if (skinWalkers.isEmpty()) {
+                continue;
+            }
+
+            for (ServerPlayerEntity player : world.getPlayers()) {
+                double closest = Double.MAX_VALUE;
+                for (SkinWalkerEntity skinWalker : skinWalkers) {
+                    closest = Math.min(closest, skinWalker.squaredDistanceTo(player));
+                }
+
+                if (closest <= rangeSquared) {
+                    near.add(player.getUuid());
+                }
+
+                if (closest <= hearingRangeSquared) {
+                    heard.add(player.getUuid());
+                }
+            }
+        }
+
+        nearSkinWalkers = near;
+        heardBySkinWalkers = heard;
+        clipQuota = getClipQuota(server);
+        keepOpus = isKeepOpusClips(server);
+    }
+
+    /**
+     * Called from the voice chat thread when a player starts talking.
+     */
+    public static boolean shouldCapture(UUID uuid) {
+        if (nearSkinWalkers.contains(uuid)) {
+            return true;
+        }
+
+        VoiceClipStore clips = BackroomsVoicechatPlugin.getClips(uuid);
+        return clips == null || clips.size() < clipQuota;
+    }
+
+    /**
+     * Called from the voice chat thread for every packet, whether the utterance is recorded or not.
+     * @return If a skinwalker is close enough to notice the player when they're too loud.
+     */
+    public static boolean canBeHeard(UUID uuid) {
+        return heardBySkinWalkers.contains(uuid);
+    }
+
+    /**
+     * @return If new clips are kept as the Opus frames they were sent as, instead of being decoded.
+     */
+    public static boolean isKeepingOpus() {
+        return keepOpus;
+    }
+
+    static void onDecoded() {
+        DECODED.increment();
+    }
+
+    static void onSkipped() {
+        SKIPPED.increment();
+    }
+
+    public static long getDecoded() {
+        return DECODED.sum();
+    }
+
+    public static long getSkipped() {
+        return SKIPPED.sum();
+    }
+
+    public static void resetStats() {
+        DECODED.reset();
+        SKIPPED.reset();
+    }
+
+    private static int getCaptureRange(MinecraftServer server) {
+        if (server.isDedicated()) {
+            return ((NewServerProperties) ((MinecraftDedicatedServer) server).getProperties()).getVoiceCaptureRange();
+        } else {
+            return ConfigStuff.voiceCaptureRange;
+        }
+    }
+
+    private static int getClipQuota(MinecraftServer server) {
+        if (server.isDedicated()) {
+            return ((NewServerProperties) ((MinecraftDedicatedServer) server).getProperties()).getVoiceClipQuota();
+        } else {
+            return ConfigStuff.voiceClipQuota;
+        }
+    }
+
+    private static boolean isKeepOpusClips(MinecraftServer server) {
+        if (server.isDedicated()) {
+            return ((NewServerProperties) ((MinecraftDedicatedServer) server).getProperties()).isKeepOpusClips();
+        } else {
+            return ConfigStuff.keepOpusClips;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.sp.sounds.voicechat;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A recorded piece of a player's voice, as pooled 20 ms PCM frames, or as the Opus frames the player sent if
+ * {@link VoiceCapturePolicy#isKeepingOpus()}. Opus clips can be played without decoding or encoding them again.
+ * <p>
+ * Clips are shared between the voice chat thread that records them and the server thread that plays them, so they're
+ * reference counted. The {@link VoiceClipStore} holds one reference, anyone else reading the frames has to
+ * {@link #retain()} the clip first and {@link #release()} it when they're done. The frames go back to the
+ * {@link PcmFramePool} once the last reference is released.
+ */
+public final class VoiceClip {
+    @Nullable
+    private final short[][] frames;
+    @Nullable
+    private final byte[][] opusFrames;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private VoiceClip(@Nullable short[][] frames, @Nullable byte[][] opusFrames) {
+        this.frames = frames;
+        this.opusFrames = opusFrames;
+    }
+
+    static VoiceClip ofPcm(short[][] frames) {
+        return new VoiceClip(frames, null);
+    }
+
+    static VoiceClip ofOpus(byte[][] opusFrames) {
+        return new VoiceClip(null, opusFrames);
+    }
+
+    public boolean isOpus() {
+        return this.opusFrames != null;
+    }
+
+    public int getFrameCount() {
+        return this.frames != null ? this.frames.length : this.opusFrames.length;
+    }
+
+    public short[] getFrame(int index) {
+        if (this.frames == null) {
+            throw new IllegalStateException("Opus clips don't have PCM frames");
+        }
+
+        return this.frames[index];
+    }
+
+    public byte[] getOpusFrame(int index) {
+        if (this.opusFrames == null) {
+            throw new IllegalStateException("PCM clips don't have Opus frames");
+        }
+
+        return this.opusFrames[index];
+    }
+
+    /**
+     * @return If the clip can still be used, false if it was already released by everyone.
+     */
+    public boolean retain() {
+        while (true) {
+            int count = this.references.get();
+            if (count <= 0) {
+                return false;
+            }
+
+            if (this.references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        if (this.references.decrementAndGet() == 0 && this.frames != null) {
+            for (short[] frame : this.frames) {
+                PcmFramePool.release(frame);
+            }
+        }
+    }
+}
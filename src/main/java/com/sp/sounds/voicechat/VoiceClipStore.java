@@ -0,0 +1,76 @@
+package com.sp.sounds.voicechat;
+
+import net.minecraft.util.math.random.Random;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The clips recorded of one player, for the skinwalker to mimic.
+ * <p>
+ * The store has a fixed number of slots, once they're full a new clip replaces a random old one.
+ * Adding and picking clips never locks, the voice chat thread adds clips while the server thread picks them.
+ */
+public class VoiceClipStore {
+    public static final int MAX_CLIPS = 20;
+
+    private final AtomicReferenceArray<VoiceClip> clips = new AtomicReferenceArray<>(MAX_CLIPS);
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Takes over the reference the caller has to the clip.
+     */
+    public void add(VoiceClip clip) {
+        int index = this.size.getAndUpdate(size -> Math.min(size + 1, MAX_CLIPS));
+        if (index >= MAX_CLIPS) {
+            index = ThreadLocalRandom.current().nextInt(MAX_CLIPS);
+        }
+
+        VoiceClip replaced = this.clips.getAndSet(index, clip);
+        if (replaced != null) {
+            replaced.release();
+        }
+    }
+
+    /**
+     * @return A random clip that was retained for the caller, who has to release it, or null if there are none.
+     */
+    @Nullable
+    public VoiceClip pick(Random random) {
+        int size = this.size.get();
+        if (size == 0) {
+            return null;
+        }
+
+        int offset = random.nextInt(size);
+        for (int i = 0; i < size; i++) {
+            VoiceClip clip = this.clips.get((offset + i) % size);
+            if (clip != null && clip.retain()) {
+                return clip;
+            }
+        }
+
+        return null;
+    }
+
+    public int size() {
+        return this.size.get();
+    }
+
+    public boolean isEmpty() {
+        return this.size.get() == 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < MAX_CLIPS; i++) {
+            VoiceClip clip = this.clips.getAndSet(i, null);
+            if (clip != null) {
+                clip.release();
+            }
+        }
+
+        this.size.set(0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.sp.sounds.voicechat;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * One step of the effects a skinwalker puts on the voices it plays back.
+ * <p>
+ * PCM clips get the effect through a {@link VoiceEffectChain}. Opus clips can't be changed without decoding them,
+ * so only the effects that move whole frames around work on them, see {@link #worksOnOpus()}.
+ */
+public enum VoiceEffect {
+    REVERSE,
+    STUTTER,
+    BIT_CRUSH;
+
+    private static final int STUTTER_SIZE = 500;
+    private static final int STUTTER_INTERVAL = 1000;
+    private static final int STUTTER_FRAMES = 2;
+    private static final int STUTTER_FRAME_INTERVAL = 5;
+    private static final int BIT_CRUSH_RESOLUTION = 8;
+
+    public String getName() {
+        return this.name().toLowerCase(Locale.ROOT);
+    }
+
+    @Nullable
+    public static VoiceEffect byName(String name) {
+        for (VoiceEffect effect : values()) {
+            if (effect.getName().equals(name)) {
+                return effect;
+            }
+        }
+
+        return null;
+    }
+
+    public boolean worksOnOpus() {
+        return this != BIT_CRUSH;
+    }
+
+    public void apply(VoiceEffectChain effects) {
+        switch (this) {
+            case REVERSE -> effects.reverse();
+            case STUTTER -> effects.stutter(STUTTER_SIZE, STUTTER_INTERVAL);
+            case BIT_CRUSH -> effects.bitCrush(BIT_CRUSH_RESOLUTION);
+        }
+    }
+
+    /**
+     * @param order The indices of an Opus clip's frames, in the order they're played.
+     * @return The order after this effect, or the same order if the effect doesn't work on Opus clips.
+     */
+    public int[] apply(int[] order) {
+        switch (this) {
+            case REVERSE -> {
+                int[] reversedOrder = new int[order.length];
+                for (int i = 0; i < order.length; i++) {
+                    reversedOrder[i] = order[order.length - 1 - i];
+                }
+
+                return reversedOrder;
+            }
+            case STUTTER -> {
+                int[] stutteredOrder = order.clone();
+                for (int i = 0; i < order.length; i += STUTTER_FRAME_INTERVAL) {
+                    for (int j = 1; j <= STUTTER_FRAMES && (i + j) < order.length; j++) {
+                        stutteredOrder[i + j] = order[i];
+                    }
+                }
+
+                return stutteredOrder;
+            }
+            default -> {
+                return order;
+            }
+        }
+    }
+}
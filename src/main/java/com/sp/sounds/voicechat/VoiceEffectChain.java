@@ -0,0 +1,74 @@
+package com.sp.sounds.voicechat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The effects a skinwalker puts on a clip, applied one frame at a time while the clip plays, see {@link PcmClipPlayer}.
+ * <p>
+ * Effects that move audio around, like reversing and stuttering, only change which sample of the clip ends up at each
+ * position, so instead of building a new clip for each of them, the chain follows a position back through all of
+ * them to the sample it comes from. Effects that change the samples themselves are applied to the frame afterward.
+ * Effects are applied in the order they're added.
+ */
+public class VoiceEffectChain {
+    private final List<Remap> remaps = new ArrayList<>();
+    private int crushMask = -1;
+
+    /**
+     * Plays the whole clip backwards.
+     */
+    public VoiceEffectChain reverse() {
+        this.remaps.add((position, length) -> length - 1 - position);
+        return this;
+    }
+
+    /**
+     * Every interval, holds the first sample for the given number of samples.
+     */
+    public VoiceEffectChain stutter(int size, int interval) {
+        this.remaps.add((position, length) -> {
+            int offset = position % interval;
+            return offset < size ? position - offset : position;
+        });
+        return this;
+    }
+
+    /**
+     * Drops the lower bits of every sample, leaving the given number of bits.
+     */
+    public VoiceEffectChain bitCrush(int resolution) {
+        this.crushMask &= -(1 << (16 - resolution));
+        return this;
+    }
+
+    boolean movesSamples() {
+        return !this.remaps.isEmpty();
+    }
+
+    /**
+     * @return The position in the clip that the sample at the position after all effects comes from.
+     */
+    int getSource(int position, int length) {
+        for (int i = this.remaps.size() - 1; i >= 0; i--) {
+            position = this.remaps.get(i).getSource(position, length);
+        }
+
+        return position;
+    }
+
+    void process(short[] frame) {
+        if (this.crushMask == -1) {
+            return;
+        }
+
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = (short) (frame[i] & this.crushMask);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Remap {
+        int getSource(int position, int length);
+    }
+}
@@ -0,0 +1,129 @@
+package com.sp.sounds.voicechat;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Records what one player is saying into a ring of pooled frames, until they stop talking.
+ * <p>
+ * Only the last {@link #MAX_CLIP_FRAMES} frames of an utterance are kept, older frames are overwritten in place,
+ * so recording a frame never copies what was recorded before it. An utterance is recorded either as decoded frames or
+ * as the Opus frames the player sent, never both.
+ * Only used from the voice chat thread that handles the player's packets.
+ */
+class VoiceRecorder {
+    // 0.8 seconds, anything shorter is too short to mimic
+    static final int MIN_CLIP_FRAMES = 40;
+    // 4 seconds
+    static final int MAX_CLIP_FRAMES = 200;
+
+    private final short[][] ring = new short[MAX_CLIP_FRAMES][];
+    private final byte[][] opusRing = new byte[MAX_CLIP_FRAMES][];
+    private int start;
+    private int count;
+    private boolean started;
+    private boolean capturing;
+    private boolean opus;
+
+    /**
+     * Starts a new utterance, whether and how it's recorded is decided once for the whole utterance.
+     */
+    void start(boolean capturing, boolean opus) {
+        this.started = true;
+        this.capturing = capturing;
+        this.opus = opus;
+    }
+
+    boolean hasStarted() {
+        return this.started;
+    }
+
+    boolean isCapturing() {
+        return this.capturing;
+    }
+
+    boolean isOpus() {
+        return this.opus;
+    }
+
+    /**
+     * Keeps the packet's array, it isn't copied.
+     */
+    void append(byte[] opusFrame) {
+        int index = (this.start + this.count) % MAX_CLIP_FRAMES;
+        this.opusRing[index] = opusFrame;
+
+        if (this.count == MAX_CLIP_FRAMES) {
+            this.start = (this.start + 1) % MAX_CLIP_FRAMES;
+        } else {
+            this.count++;
+        }
+    }
+
+    void append(short[] pcm) {
+        int index = (this.start + this.count) % MAX_CLIP_FRAMES;
+
+        if (this.count == MAX_CLIP_FRAMES) {
+            // The oldest frame is the one being overwritten, its array goes right back into the new frame
+            PcmFramePool.release(this.ring[index]);
+            this.ring[index] = PcmFramePool.copyOf(pcm);
+            this.start = (this.start + 1) % MAX_CLIP_FRAMES;
+            return;
+        }
+
+        this.ring[index] = PcmFramePool.copyOf(pcm);
+        this.count++;
+    }
+
+    /**
+     * Ends the utterance, the recorder is empty afterward.
+     * @return The recorded clip, or null if it was too short.
+     */
+    @Nullable
+    VoiceClip finish() {
+        this.started = false;
+
+        if (this.count < MIN_CLIP_FRAMES) {
+            this.clear();
+            return null;
+        }
+
+        if (this.opus) {
+            byte[][] opusFrames = new byte[this.count][];
+            for (int i = 0; i < this.count; i++) {
+                int index = (this.start + i) % MAX_CLIP_FRAMES;
+                opusFrames[i] = this.opusRing[index];
+                this.opusRing[index] = null;
+            }
+
+            this.start = 0;
+            this.count = 0;
+            return VoiceClip.ofOpus(opusFrames);
+        }
+
+        short[][] frames = new short[this.count][];
+        for (int i = 0; i < this.count; i++) {
+            int index = (this.start + i) % MAX_CLIP_FRAMES;
+            frames[i] = this.ring[index];
+            this.ring[index] = null;
+        }
+
+        this.start = 0;
+        this.count = 0;
+        return VoiceClip.ofPcm(frames);
+    }
+
+    void clear() {
+        this.started = false;
+        for (int i = 0; i < this.count; i++) {
+            int index = (this.start + i) % MAX_CLIP_FRAMES;
+            if (this.ring[index] != null) {
+                PcmFramePool.release(this.ring[index]);
+                this.ring[index] = null;
+            }
+            this.opusRing[index] = null;
+        }
+
+        this.start = 0;
+        this.count = 0;
+    }
+}
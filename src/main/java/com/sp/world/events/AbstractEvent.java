@@ -1,5 +1,6 @@
 package com.sp.world.events;
 
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.sound.SoundEvent;
 import net.minecraft.world.World;
 
@@ -22,6 +23,20 @@ public abstract class AbstractEvent {
 
     }
 
+    /**
+     * Saves what the event decided in {@link #init(World)}, so it can continue after the world is loaded again.
+     */
+    public void writeToNbt(NbtCompound nbt) {
+
+    }
+
+    /**
+     * Reads what {@link #writeToNbt(NbtCompound)} saved, the event isn't initialized again afterward.
+     */
+    public void readFromNbt(NbtCompound nbt) {
+
+    }
+
     protected static void playSound(World world, SoundEvent soundEvent){
         EventSounds.playSound(world, soundEvent);
     }
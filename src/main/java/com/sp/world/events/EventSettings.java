@@ -0,0 +1,32 @@
+package com.sp.world.events;
+
+/**
+ * How a level schedules one of its events.
+ *
+ * @param weight     How likely the event is picked, compared to the weights of the level's other events
+ * @param cooldown   How many ticks have to pass after the event started before it can be picked again
+ * @param minPlayers How many players have to be in the world for the event to be picked
+ * @param group      Events of the same group never run at the same time, events of different groups can
+ */
+public record EventSettings(int weight, int cooldown, int minPlayers, String group) {
+    public static final String DEFAULT_GROUP = "main";
+    public static final EventSettings DEFAULT = new EventSettings(1, 0, 1, DEFAULT_GROUP);
+    // Ambience only plays sounds, so it can run next to the level's other events
+    public static final EventSettings AMBIENCE = DEFAULT.inGroup("ambience");
+
+    public EventSettings withWeight(int weight) {
+        return new EventSettings(weight, this.cooldown, this.minPlayers, this.group);
+    }
+
+    public EventSettings withCooldown(int cooldown) {
+        return new EventSettings(this.weight, cooldown, this.minPlayers, this.group);
+    }
+
+    public EventSettings withMinPlayers(int minPlayers) {
+        return new EventSettings(this.weight, this.cooldown, minPlayers, this.group);
+    }
+
+    public EventSettings inGroup(String group) {
+        return new EventSettings(this.weight, this.cooldown, this.minPlayers, group);
+    }
+}
@@ -0,0 +1,82 @@
+package com.sp.world.events;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * The events of a level with their settings, built once when the level's events change.
+ * <p>
+ * Picking an event only creates the event that was picked, and doesn't allocate anything else.
+ * Which events can be picked right now is decided by the caller, see {@link Filter}.
+ */
+public class EventTable {
+    private final Entry[] entries;
+
+    public EventTable(Collection<Entry> entries) {
+        this.entries = entries.toArray(new Entry[0]);
+    }
+
+    /**
+     * @return A random event out of the ones the filter allows, weighted by their settings, or null if there are none
+     */
+    @Nullable
+    public Entry pick(Filter filter, Random random) {
+        int totalWeight = 0;
+        for (Entry entry : this.entries) {
+            if (filter.canStart(entry)) {
+                totalWeight += entry.settings().weight();
+            }
+        }
+
+        if (totalWeight <= 0) {
+            return null;
+        }
+
+        int roll = random.nextInt(totalWeight);
+        for (Entry entry : this.entries) {
+            if (filter.canStart(entry)) {
+                roll -= entry.settings().weight();
+                if (roll < 0) {
+                    return entry;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    public boolean hasAvailable(Filter filter) {
+        for (Entry entry : this.entries) {
+            if (entry.settings().weight() > 0 && filter.canStart(entry)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Nullable
+    public Entry get(String name) {
+        for (Entry entry : this.entries) {
+            if (entry.name().equals(name)) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    public record Entry(String name, Supplier<AbstractEvent> factory, EventSettings settings) {
+        public AbstractEvent create() {
+            return this.factory.get();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Filter {
+        boolean canStart(Entry entry);
+    }
+}
@@ -13,8 +13,8 @@ public class Level0Blackout extends AbstractEvent {
             return;
         }
 
-        if(level.getLightState() != Level0BackroomsLevel.LightState.BLACKOUT) {
-            level.setLightState(Level0BackroomsLevel.LightState.BLACKOUT);
+        if(level.getState(world).getLightState() != Level0BackroomsLevel.LightState.BLACKOUT) {
+            level.getState(world).setLightState(Level0BackroomsLevel.LightState.BLACKOUT);
             playSound(world, ModSounds.LIGHTS_OUT);
         }
     }
@@ -26,7 +26,7 @@ public class Level0Blackout extends AbstractEvent {
             return;
         }
 
-        level.setLightState(Level0BackroomsLevel.LightState.ON);
+        level.getState(world).setLightState(Level0BackroomsLevel.LightState.ON);
     }
 
     @Override
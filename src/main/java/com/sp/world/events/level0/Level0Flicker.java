@@ -12,7 +12,7 @@ public class Level0Flicker extends AbstractEvent {
             return;
         }
 
-        level.setLightState(Level0BackroomsLevel.LightState.FLICKER);
+        level.getState(world).setLightState(Level0BackroomsLevel.LightState.FLICKER, this.duration());
     }
 
     @Override
@@ -23,7 +23,7 @@ public class Level0Flicker extends AbstractEvent {
             return;
         }
 
-        level.setLightState(Level0BackroomsLevel.LightState.ON);
+        level.getState(world).setLightState(Level0BackroomsLevel.LightState.ON);
     }
 
 
@@ -4,6 +4,7 @@ import com.sp.init.BackroomsLevels;
 import com.sp.init.ModSounds;
 import com.sp.world.events.AbstractEvent;
 import com.sp.world.levels.custom.Level0BackroomsLevel;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.util.math.random.Random;
 import net.minecraft.world.World;
 
@@ -17,7 +18,7 @@ public class Level0IntercomBasic extends AbstractEvent {
             return;
         }
 
-        int intercomCount = level.getIntercomCount();
+        int intercomCount = level.getState(world).getIntercomCount();
         Random random = Random.create();
 
         if (intercomCount <= 1) {
@@ -46,7 +47,7 @@ public class Level0IntercomBasic extends AbstractEvent {
             }
         }
 
-        level.addIntercomCount();
+        level.getState(world).addIntercomCount();
     }
 
     @Override
@@ -57,16 +58,28 @@ public class Level0IntercomBasic extends AbstractEvent {
 
         if (friend){
             if (ticks == 460){
-                level.setLightState(Level0BackroomsLevel.LightState.FLICKER);
+                level.getState(world).setLightState(Level0BackroomsLevel.LightState.FLICKER);
             } else if (ticks == 528){
-                level.setLightState(Level0BackroomsLevel.LightState.OFF);
+                level.getState(world).setLightState(Level0BackroomsLevel.LightState.OFF);
                 playSound(world, ModSounds.LIGHTS_OUT);
             } else if (ticks == 656){
-                level.setLightState(Level0BackroomsLevel.LightState.ON);
+                level.getState(world).setLightState(Level0BackroomsLevel.LightState.ON);
             }
         }
     }
 
+    @Override
+    public void writeToNbt(NbtCompound nbt) {
+        nbt.putBoolean("friend", this.friend);
+        nbt.putInt("duration", this.duration);
+    }
+
+    @Override
+    public void readFromNbt(NbtCompound nbt) {
+        this.friend = nbt.getBoolean("friend");
+        this.duration = nbt.getInt("duration");
+    }
+
     @Override
     public int duration() {
         return duration;
@@ -4,6 +4,7 @@ import com.sp.init.BackroomsLevels;
 import com.sp.init.ModSounds;
 import com.sp.world.events.AbstractEvent;
 import com.sp.world.levels.custom.Level0BackroomsLevel;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.util.math.random.Random;
 import net.minecraft.world.World;
 
@@ -16,7 +17,7 @@ public class Level0Music extends AbstractEvent {
             return;
         }
 
-        int intercomCount = level.getIntercomCount();
+        int intercomCount = level.getState(world).getIntercomCount();
         Random random = Random.create();
 
 
@@ -31,7 +32,7 @@ public class Level0Music extends AbstractEvent {
             }
         }
         else{
-            if (level.getIntercomCount() == 2){
+            if (level.getState(world).getIntercomCount() == 2){
                 playSoundWithRandLocation(world, ModSounds.INTERCOM_REVERSED, 25, 20);
             } else {
                 int rand = random.nextBetween(1, 2);
@@ -42,11 +43,21 @@ public class Level0Music extends AbstractEvent {
                 }
             }
             duration = 200;
-            level.addIntercomCount();
+            level.getState(world).addIntercomCount();
 
         }
     }
 
+    @Override
+    public void writeToNbt(NbtCompound nbt) {
+        nbt.putInt("duration", this.duration);
+    }
+
+    @Override
+    public void readFromNbt(NbtCompound nbt) {
+        this.duration = nbt.getInt("duration");
+    }
+
     @Override
     public int duration() {
         return this.duration;
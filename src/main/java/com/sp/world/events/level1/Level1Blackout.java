@@ -24,8 +24,8 @@ public class Level1Blackout extends AbstractEvent {
             return;
         }
 
-        if(level.getLightState() != Level0BackroomsLevel.LightState.BLACKOUT) {
-            level.setLightState(Level0BackroomsLevel.LightState.BLACKOUT);
+        if(level.getState(world).getLightState() != Level0BackroomsLevel.LightState.BLACKOUT) {
+            level.getState(world).setLightState(Level0BackroomsLevel.LightState.BLACKOUT);
             playSound(world, ModSounds.LIGHTS_OUT);
         }
     }
@@ -77,7 +77,7 @@ public class Level1Blackout extends AbstractEvent {
             return;
         }
 
-        level.setLightState(Level0BackroomsLevel.LightState.ON);
+        level.getState(world).setLightState(Level0BackroomsLevel.LightState.ON);
         playSound(world, ModSounds.LIGHTS_ON);
     }
 
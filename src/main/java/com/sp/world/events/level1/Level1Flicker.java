@@ -13,7 +13,7 @@ public class Level1Flicker extends AbstractEvent {
             return;
         }
 
-        level.setLightState(Level0BackroomsLevel.LightState.FLICKER);
+        level.getState(world).setLightState(Level0BackroomsLevel.LightState.FLICKER, this.duration());
     }
 
     @Override
@@ -24,7 +24,7 @@ public class Level1Flicker extends AbstractEvent {
             return;
         }
 
-        level.setLightState(Level0BackroomsLevel.LightState.ON);
+        level.getState(world).setLightState(Level0BackroomsLevel.LightState.ON);
     }
 
     @Override
@@ -3,6 +3,7 @@ package com.sp.world.events.level2;
 import com.sp.init.ModSounds;
 import com.sp.world.events.AbstractEvent;
 import com.sp.world.events.EventSounds;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.sound.SoundEvent;
 import net.minecraft.util.math.random.Random;
 import net.minecraft.world.World;
@@ -33,6 +34,16 @@ public class Level2Ambience extends AbstractEvent {
         EventSounds.playLevel2Sound(world, soundEvent);
     }
 
+    @Override
+    public void writeToNbt(NbtCompound nbt) {
+        nbt.putInt("duration", this.duration);
+    }
+
+    @Override
+    public void readFromNbt(NbtCompound nbt) {
+        this.duration = nbt.getInt("duration");
+    }
+
     @Override
     public int duration() {
         return duration;
@@ -12,7 +12,7 @@ public class Level2Warp extends AbstractEvent {
             return;
         }
 
-        level.setWarping(true);
+        level.getState(world).setWarping(true);
     }
 
     @Override
@@ -23,7 +23,7 @@ public class Level2Warp extends AbstractEvent {
             return;
         }
 
-        level.setWarping(false);
+        level.getState(world).setWarping(false);
     }
 
     @Override
@@ -20,8 +20,8 @@ public class PoolroomsSunset extends AbstractEvent {
 
             WorldEvents events = InitializeComponents.EVENTS.get(world);
             float currentDayTime = PoolroomsDayCycle.getDayTime(world);
-            level.setSunsetTransitioning(true);
-            level.setTimeOfDay(level.getTimeOfDay() + 0.25f);
+            level.getState(world).setSunsetTransitioning(true);
+            level.getState(world).setTimeOfDay(level.getState(world).getTimeOfDay() + 0.25f);
             events.sync();
 
             if(currentDayTime == 0.0) playSound(world, ModSounds.SUNSET_TRANSITION);
@@ -38,8 +38,8 @@ public class PoolroomsSunset extends AbstractEvent {
             if (backroomsLevel instanceof PoolroomsBackroomsLevel level) {
                 WorldEvents events = InitializeComponents.EVENTS.get(world);
 
-                level.setTimeOfDay(level.getTimeOfDay() >= 1.0f ? 0.0f : level.getTimeOfDay());
-                level.setSunsetTransitioning(false);
+                level.getState(world).setTimeOfDay(level.getState(world).getTimeOfDay() >= 1.0f ? 0.0f : level.getState(world).getTimeOfDay());
+                level.getState(world).setSunsetTransitioning(false);
                 events.sync();
             }
         });
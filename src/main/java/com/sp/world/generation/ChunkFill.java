@@ -0,0 +1,66 @@
+package com.sp.world.generation;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+
+import java.util.Map;
+
+/**
+ * Fills boxes of one block straight into a chunk's sections, for the uniform floors and layers of the fill step.
+ * <p>
+ * Same as the NoiseChunkGenerator, each section is locked once for the whole box and the blocks are written without
+ * checking the lock again, and the heightmaps are only updated once per column instead of once per block.
+ * Only use this during the fill step, before anything else can see the chunk.
+ */
+public class ChunkFill {
+    /**
+     * Fills one whole layer of the chunk.
+     */
+    public static void fillLayer(Chunk chunk, int y, BlockState state) {
+        fill(chunk, 0, y, 0, 15, y, 15, state);
+    }
+
+    /**
+     * Fills the box between the positions, in chunk local x and z coordinates.
+     */
+    public static void fill(Chunk chunk, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState state) {
+        minY = Math.max(minY, chunk.getBottomY());
+        maxY = Math.min(maxY, chunk.getTopY() - 1);
+        if (minY > maxY) {
+            return;
+        }
+
+        ChunkSection[] sections = chunk.getSectionArray();
+
+        for (int index = chunk.getSectionIndex(minY); index <= chunk.getSectionIndex(maxY); index++) {
+            ChunkSection section = sections[index];
+            int sectionY = chunk.sectionIndexToCoord(index) << 4;
+            int fromY = Math.max(minY, sectionY);
+            int toY = Math.min(maxY, sectionY + 15);
+
+            section.lock();
+            try {
+                for (int y = fromY; y <= toY; y++) {
+                    for (int x = minX; x <= maxX; x++) {
+                        for (int z = minZ; z <= maxZ; z++) {
+                            section.setBlockState(x, y & 15, z, state, false);
+                        }
+                    }
+                }
+            } finally {
+                section.unlock();
+            }
+        }
+
+        // The whole column is the same block, so the top of it is the only block the heightmaps care about
+        for (Map.Entry<Heightmap.Type, Heightmap> heightmap : chunk.getHeightmaps()) {
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    heightmap.getValue().trackUpdate(x, maxY, z, state);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.sp.world.generation;
+
+import com.sp.mixininterfaces.GenerationLogHolder;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.BlockRotation;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.Chunk;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything the generators wrote into a chunk, in order, and which blocks changed after it was generated.
+ * <p>
+ * Templates are recorded by their id, rotation and corner, single blocks by their position and state. Together with
+ * the generator's fill step that is enough to build the chunk again, see {@link CompactChunkStorage}.
+ * A chunk that was loaded from a full save, or that got something written into it that can't be recorded,
+ * can't be built again and is saved normally.
+ * Only the backrooms generators start a log, and only in worlds that save chunks compact, see
+ * {@link CompactChunkStorage#isRecording}. Every other chunk doesn't have one, and nothing is recorded for it.
+ */
+public class ChunkGenerationLog {
+    // Past this many entries saving the blocks is smaller than saving the log
+    private static final int MAX_ENTRIES = 4096;
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final LongOpenHashSet modified = new LongOpenHashSet();
+    private boolean replayable;
+
+    public ChunkGenerationLog(boolean replayable) {
+        this.replayable = replayable;
+    }
+
+    /**
+     * A log read back from a compact save, it keeps recording from where it left off.
+     */
+    public ChunkGenerationLog(List<Entry> entries, long[] modified) {
+        this(true);
+        this.entries.addAll(entries);
+        this.modified.addAll(LongArrayList.wrap(modified));
+    }
+
+    public static ChunkGenerationLog get(Chunk chunk) {
+        return ((GenerationLogHolder) chunk).getGenerationLog();
+    }
+
+    /**
+     * @return The chunk's log, or null if nothing is recorded for the chunk
+     */
+    @Nullable
+    public static ChunkGenerationLog getIfRecording(Chunk chunk) {
+        return ((GenerationLogHolder) chunk).peekGenerationLog();
+    }
+
+    public synchronized void addTemplate(Identifier id, int hash, BlockRotation rotation, int minX, int minY, int minZ) {
+        // A template placed after a block was changed would overwrite it when the chunk is built again
+        if (!this.modified.isEmpty()) {
+            this.invalidate();
+        }
+
+        this.add(new TemplateEntry(id, hash, rotation, minX, minY, minZ));
+    }
+
+    public synchronized void addBlock(BlockPos pos, BlockState state) {
+        this.add(new BlockEntry(pos.asLong(), state));
+    }
+
+    /**
+     * Remembers a block that changed after the chunk was generated, its state is saved next to the log.
+     */
+    public synchronized void markModified(BlockPos pos) {
+        if (this.replayable) {
+            this.modified.add(pos.asLong());
+        }
+    }
+
+    public synchronized void invalidate() {
+        this.replayable = false;
+        this.entries.clear();
+        this.modified.clear();
+    }
+
+    public synchronized boolean isReplayable() {
+        return this.replayable;
+    }
+
+    public synchronized List<Entry> getEntries() {
+        return new ArrayList<>(this.entries);
+    }
+
+    public synchronized long[] getModified() {
+        return this.modified.toLongArray();
+    }
+
+    private void add(Entry entry) {
+        if (!this.replayable) {
+            return;
+        }
+
+        if (this.entries.size() >= MAX_ENTRIES) {
+            this.invalidate();
+            return;
+        }
+
+        this.entries.add(entry);
+    }
+
+    public sealed interface Entry permits TemplateEntry, BlockEntry {
+    }
+
+    public record TemplateEntry(Identifier id, int hash, BlockRotation rotation, int minX, int minY, int minZ) implements Entry {
+    }
+
+    public record BlockEntry(long pos, BlockState state) implements Entry {
+    }
+}
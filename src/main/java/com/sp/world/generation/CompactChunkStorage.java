@@ -0,0 +1,328 @@
+package com.sp.world.generation;
+
+import com.mojang.datafixers.util.Either;
+import com.sp.SPBRevamped;
+import com.sp.compat.modmenu.ConfigStuff;
+import com.sp.mixininterfaces.GenerationLogHolder;
+import com.sp.mixininterfaces.NewServerProperties;
+import com.sp.world.generation.chunk_generator.BackroomsChunkGenerator;
+import com.sp.world.generation.template.CompiledTemplate;
+import com.sp.world.generation.template.TemplateArchive;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtHelper;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtString;
+import net.minecraft.registry.Registries;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.dedicated.MinecraftDedicatedServer;
+import net.minecraft.server.world.ChunkHolder;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Util;
+import net.minecraft.util.BlockRotation;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ProtoChunk;
+import net.minecraft.world.chunk.ReadOnlyChunk;
+import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Saves generated backrooms chunks as the steps that built them plus the blocks that changed since, instead of every block.
+ * <p>
+ * A chunk's blocks don't only depend on its own position, rooms and mazes of neighbouring chunks reach into it,
+ * so the generator can't simply be run again for one chunk. Instead everything the generators wrote into the chunk is
+ * recorded in its {@link ChunkGenerationLog}, and when it's loaded the fill step runs again and the recorded templates
+ * and blocks are written in the same order. Blocks that changed after generating are saved with their current state.
+ * <p>
+ * The block and sky light isn't saved either, the chunk is lit again when it's loaded.
+ * Heightmaps, block entities, entities and ticks are saved like always. Chunks without a usable log are saved normally.
+ * <p>
+ * Each template is saved with its hash and copied to the {@link TemplateArchive}, so a template that changes or is
+ * removed later doesn't change chunks that were already generated. A chunk whose templates can't be archived keeps
+ * its blocks. The fill step can't be archived, so {@link BackroomsChunkGenerator#getGenerationVersion()} is saved to
+ * at least notice when it changed.
+ */
+public class CompactChunkStorage {
+    private static final String KEY = SPBRevamped.MOD_ID + ":generation";
+    // 0 is from before templates were saved with their hash
+    private static final int FORMAT = 1;
+    // The generators of the worlds that save compact, a generator has no world to check the setting with itself
+    private static final Set<ChunkGenerator> RECORDING = ConcurrentHashMap.newKeySet();
+
+    public static void init() {
+        ServerWorldEvents.LOAD.register((server, world) -> {
+            if (isEnabled(world)) {
+                RECORDING.add(world.getChunkManager().getChunkGenerator());
+            }
+        });
+
+        ServerWorldEvents.UNLOAD.register((server, world) -> RECORDING.remove(world.getChunkManager().getChunkGenerator()));
+    }
+
+    /**
+     * @return If chunks this generator makes should record a {@link ChunkGenerationLog}
+     */
+    public static boolean isRecording(ChunkGenerator generator) {
+        return RECORDING.contains(generator);
+    }
+
+    public static boolean isEnabled(ServerWorld world) {
+        if (!(world.getChunkManager().getChunkGenerator() instanceof BackroomsChunkGenerator)) {
+            return false;
+        }
+
+        MinecraftServer server = world.getServer();
+        if (server.isDedicated()) {
+            return ((NewServerProperties) ((MinecraftDedicatedServer) server).getProperties()).isCompactChunkStorage();
+        } else {
+            return ConfigStuff.compactChunkStorage;
+        }
+    }
+
+    /**
+     * Replaces the blocks and light of a finished chunk in the nbt vanilla saved with its generation log.
+     */
+    public static void write(ServerWorld world, Chunk chunk, NbtCompound nbt) {
+        if (!(chunk instanceof WorldChunk) || !isEnabled(world)) {
+            return;
+        }
+
+        ChunkGenerationLog log = ChunkGenerationLog.getIfRecording(chunk);
+        if (log == null || !log.isReplayable()) {
+            return;
+        }
+
+        List<ChunkGenerationLog.Entry> entries = log.getEntries();
+        long[] modified = log.getModified();
+
+        for (ChunkGenerationLog.Entry entry : entries) {
+            if (entry instanceof ChunkGenerationLog.TemplateEntry template && !pin(world, template)) {
+                // The chunk couldn't be built from the same template again, so it keeps its blocks
+                return;
+            }
+        }
+
+        Object2IntOpenHashMap<PinnedTemplate> templateIndices = new Object2IntOpenHashMap<>();
+        Reference2IntOpenHashMap<BlockState> stateIndices = new Reference2IntOpenHashMap<>();
+        NbtList templates = new NbtList();
+        IntArrayList hashes = new IntArrayList();
+        NbtList palette = new NbtList();
+        NbtList entryList = new NbtList();
+
+        for (ChunkGenerationLog.Entry entry : entries) {
+            NbtCompound entryNbt = new NbtCompound();
+
+            if (entry instanceof ChunkGenerationLog.TemplateEntry template) {
+                PinnedTemplate key = new PinnedTemplate(template.id(), template.hash());
+                int index = templateIndices.getOrDefault(key, -1);
+                if (index == -1) {
+                    index = templates.size();
+                    templateIndices.put(key, index);
+                    templates.add(NbtString.of(template.id().toString()));
+                    hashes.add(template.hash());
+                }
+
+                entryNbt.putInt("Template", index);
+                entryNbt.putByte("Rotation", (byte) template.rotation().ordinal());
+                entryNbt.putIntArray("Pos", new int[]{template.minX(), template.minY(), template.minZ()});
+            } else if (entry instanceof ChunkGenerationLog.BlockEntry block) {
+                entryNbt.putInt("State", getStateIndex(stateIndices, palette, block.state()));
+                entryNbt.putLong("Pos", block.pos());
+            }
+
+            entryList.add(entryNbt);
+        }
+
+        BlockPos.Mutable mutable = new BlockPos.Mutable();
+        int[] modifiedStates = new int[modified.length];
+        for (int i = 0; i < modified.length; i++) {
+            modifiedStates[i] = getStateIndex(stateIndices, palette, chunk.getBlockState(mutable.set(modified[i])));
+        }
+
+        NbtCompound generation = new NbtCompound();
+        generation.putInt("Format", FORMAT);
+        generation.putInt("GeneratorVersion", ((BackroomsChunkGenerator) world.getChunkManager().getChunkGenerator()).getGenerationVersion());
+        generation.put("Templates", templates);
+        generation.putIntArray("Hashes", hashes.toIntArray());
+        generation.put("Palette", palette);
+        generation.put("Entries", entryList);
+        generation.putLongArray("Modified", modified);
+        generation.putIntArray("ModifiedStates", modifiedStates);
+        nbt.put(KEY, generation);
+
+        NbtList sections = nbt.getList("sections", NbtElement.COMPOUND_TYPE);
+        for (int i = 0; i < sections.size(); i++) {
+            NbtCompound section = sections.getCompound(i);
+            section.remove("block_states");
+            section.remove("BlockLight");
+            section.remove("SkyLight");
+        }
+
+        nbt.putBoolean("isLightOn", false);
+    }
+
+    /**
+     * Starts building the blocks of a chunk that was saved compact again.
+     * <p>
+     * Chunks are deserialized on the server thread, so the rebuild itself is handed to the worker threads. The chunk's
+     * first load step waits for it before the chunk goes on loading, see {@link #awaitReplay}.
+     */
+    public static void read(ServerWorld world, ProtoChunk loaded, NbtCompound nbt) {
+        if (!nbt.contains(KEY, NbtElement.COMPOUND_TYPE)) {
+            return;
+        }
+
+        Chunk chunk = loaded instanceof ReadOnlyChunk readOnlyChunk ? readOnlyChunk.getWrappedChunk() : loaded;
+        if (!(world.getChunkManager().getChunkGenerator() instanceof BackroomsChunkGenerator generator)) {
+            SPBRevamped.LOGGER.warn("Chunk {} was saved compact, but {} doesn't use a backrooms generator anymore", chunk.getPos(), world.getRegistryKey().getValue());
+            return;
+        }
+
+        NbtCompound generation = nbt.getCompound(KEY);
+        ((GenerationLogHolder) loaded).setPendingReplay(CompletableFuture.runAsync(() -> {
+            long startNanos = System.nanoTime();
+            long startBytes = GenerationProfiler.begin();
+
+            try {
+                replay(world, generator, chunk, generation);
+            } catch (Exception e) {
+                // The load can't fail because of this, the chunk keeps whatever was rebuilt and is saved normally from now on
+                SPBRevamped.LOGGER.error("Couldn't rebuild compact chunk {}", chunk.getPos(), e);
+                ChunkGenerationLog.get(chunk).invalidate();
+            }
+
+            GenerationProfiler.end(generator, GenerationProfiler.Step.REPLAY, startNanos, startBytes);
+        }, Util.getMainWorkerExecutor()));
+    }
+
+    /**
+     * Delays a chunk's load step until the chunk is rebuilt, if it was saved compact.
+     * Called with the first load step after the chunk was read, every later step waits for that one.
+     */
+    public static CompletableFuture<Either<Chunk, ChunkHolder.Unloaded>> awaitReplay(Chunk chunk, CompletableFuture<Either<Chunk, ChunkHolder.Unloaded>> loadStep) {
+        CompletableFuture<Void> replay = ((GenerationLogHolder) chunk).takePendingReplay();
+        return replay != null ? replay.thenCompose(ignored -> loadStep) : loadStep;
+    }
+
+    /**
+     * Makes sure the template an entry was placed with can be found again when the chunk is rebuilt.
+     * @return If the template is in the archive
+     */
+    private static boolean pin(ServerWorld world, ChunkGenerationLog.TemplateEntry template) {
+        if (TemplateArchive.contains(world.getServer(), template.id(), template.hash())) {
+            return true;
+        }
+
+        Optional<CompiledTemplate> current = CompiledTemplate.get(world.getStructureTemplateManager(), template.id());
+        return current.isPresent() && current.get().getHash() == template.hash() && TemplateArchive.store(world.getServer(), current.get());
+    }
+
+    private static void replay(ServerWorld world, BackroomsChunkGenerator generator, Chunk chunk, NbtCompound generation) {
+        int format = generation.getInt("Format");
+        NbtList templates = generation.getList("Templates", NbtElement.STRING_TYPE);
+        int[] hashes = generation.getIntArray("Hashes");
+        NbtList paletteNbt = generation.getList("Palette", NbtElement.COMPOUND_TYPE);
+        NbtList entryList = generation.getList("Entries", NbtElement.COMPOUND_TYPE);
+        long[] modified = generation.getLongArray("Modified");
+        int[] modifiedStates = generation.getIntArray("ModifiedStates");
+
+        BlockState[] palette = new BlockState[paletteNbt.size()];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = NbtHelper.toBlockState(Registries.BLOCK.getReadOnlyWrapper(), paletteNbt.getCompound(i));
+        }
+
+        List<ChunkGenerationLog.Entry> entries = new ArrayList<>(entryList.size());
+        boolean complete = true;
+
+        if (format >= 1 && generation.getInt("GeneratorVersion") != generator.getGenerationVersion()) {
+            // The old fill step is gone, the chunk is built with the new one and saved normally from now on
+            SPBRevamped.LOGGER.error("Chunk {} was generated by version {} of {}'s generator, which is version {} now. Some of its blocks might have changed",
+                    chunk.getPos(), generation.getInt("GeneratorVersion"), world.getRegistryKey().getValue(), generator.getGenerationVersion());
+            complete = false;
+        }
+
+        generator.populateChunk(chunk);
+
+        for (int i = 0; i < entryList.size(); i++) {
+            NbtCompound entryNbt = entryList.getCompound(i);
+
+            if (entryNbt.contains("Template")) {
+                int templateIndex = entryNbt.getInt("Template");
+                Identifier id = new Identifier(templates.getString(templateIndex));
+                BlockRotation rotation = BlockRotation.values()[entryNbt.getByte("Rotation")];
+                int[] pos = entryNbt.getIntArray("Pos");
+
+                // The structure template manager is safe to use from the worker threads, the preloader does the same
+                Optional<CompiledTemplate> template = CompiledTemplate.get(world.getStructureTemplateManager(), id);
+                if (format >= 1) {
+                    int hash = hashes[templateIndex];
+                    template = template.filter(current -> current.getHash() == hash).or(() -> TemplateArchive.load(world.getServer(), id, hash));
+                }
+
+                entries.add(new ChunkGenerationLog.TemplateEntry(id, template.map(CompiledTemplate::getHash).orElse(0), rotation, pos[0], pos[1], pos[2]));
+                if (template.isPresent()) {
+                    template.get().replay(chunk, rotation, pos[0], pos[1], pos[2]);
+                } else {
+                    SPBRevamped.LOGGER.warn("Chunk {} uses the template {}, which doesn't exist anymore", chunk.getPos(), id);
+                    complete = false;
+                }
+            } else {
+                BlockState state = palette[entryNbt.getInt("State")];
+                long pos = entryNbt.getLong("Pos");
+                entries.add(new ChunkGenerationLog.BlockEntry(pos, state));
+                setBlockState(chunk, pos, state);
+            }
+        }
+
+        for (int i = 0; i < modified.length; i++) {
+            setBlockState(chunk, modified[i], palette[modifiedStates[i]]);
+        }
+
+        ChunkGenerationLog log = new ChunkGenerationLog(entries, modified);
+        if (!complete) {
+            // The chunk can't be built the same way again, so it's saved normally from now on
+            log.invalidate();
+        }
+
+        ((GenerationLogHolder) chunk).setGenerationLog(log);
+    }
+
+    private record PinnedTemplate(Identifier id, int hash) {
+    }
+
+    private static void setBlockState(Chunk chunk, long pos, BlockState state) {
+        int y = BlockPos.unpackLongY(pos);
+        if (chunk.isOutOfHeightLimit(y)) {
+            return;
+        }
+
+        ChunkSection section = chunk.getSection(chunk.getSectionIndex(y));
+        section.setBlockState(BlockPos.unpackLongX(pos) & 15, y & 15, BlockPos.unpackLongZ(pos) & 15, state, false);
+    }
+
+    private static int getStateIndex(Reference2IntOpenHashMap<BlockState> stateIndices, NbtList palette, BlockState state) {
+        int index = stateIndices.getOrDefault(state, -1);
+        if (index == -1) {
+            index = palette.size();
+            stateIndices.put(state, index);
+            palette.add(NbtHelper.fromBlockState(state));
+        }
+
+        return index;
+    }
+}
@@ -0,0 +1,110 @@
+package com.sp.world.generation;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.ChunkRegion;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkStatus;
+
+import java.util.List;
+
+/**
+ * A ChunkRegion that only writes directly into chunks close to the one that is generating.
+ * <p>
+ * Writes into chunks that are further away and still generating are queued in {@link DeferredChunkWrites} and
+ * applied once that chunk reaches its own features step. Reading a block back sees the queued writes, so the maze
+ * generators can still check what their neighbours placed.
+ * <p>
+ * Writes into further chunks that already ran their features step are dropped and counted. Those chunks can be
+ * full chunks the server thread is using, or read only wrappers of them, so they can't be written from a worldgen thread.
+ */
+public class DeferredChunkRegion extends ChunkRegion {
+    private final DeferredChunkWrites deferredWrites;
+    private final ChunkPos center;
+    private final int directRadius;
+
+    /**
+     * @param directRadius How many chunks around the center chunk can be written without deferring
+     */
+    public DeferredChunkRegion(ServerWorld world, List<Chunk> chunks, ChunkStatus status, int directRadius) {
+        this(world, chunks, status, directRadius, DeferredChunkWrites.get(world));
+    }
+
+    /**
+     * @param deferredWrites Where the writes into further chunks go, the world's own by default
+     */
+    public DeferredChunkRegion(ServerWorld world, List<Chunk> chunks, ChunkStatus status, int directRadius, DeferredChunkWrites deferredWrites) {
+        // Anything further away never reaches the region itself, so vanilla's check of the radius still holds
+        super(world, chunks, status, directRadius);
+        this.deferredWrites = deferredWrites;
+        this.center = chunks.get(chunks.size() / 2).getPos();
+        this.directRadius = directRadius;
+    }
+
+    /**
+     * Applies everything other chunks queued for this chunk. Has to run before the chunk itself generates.
+     */
+    public void applyDeferredWrites(Chunk chunk) {
+        this.deferredWrites.apply(this, chunk);
+    }
+
+    public DeferredChunkWrites getDeferredWrites() {
+        return this.deferredWrites;
+    }
+
+    /**
+     * @return How writes into this chunk are handled
+     */
+    public WriteTarget getWriteTarget(int chunkX, int chunkZ) {
+        if (Math.max(Math.abs(chunkX - this.center.x), Math.abs(chunkZ - this.center.z)) <= this.directRadius) {
+            return WriteTarget.DIRECT;
+        }
+
+        if (this.isChunkLoaded(chunkX, chunkZ) && this.getChunk(chunkX, chunkZ).getStatus().isAtLeast(ChunkStatus.FEATURES)) {
+            return WriteTarget.DROP;
+        }
+
+        return WriteTarget.DEFER;
+    }
+
+    @Override
+    public boolean setBlockState(BlockPos pos, BlockState state, int flags, int maxUpdateDepth) {
+        return switch (this.getWriteTarget(pos.getX() >> 4, pos.getZ() >> 4)) {
+            case DIRECT -> super.setBlockState(pos, state, flags, maxUpdateDepth);
+            case DEFER -> this.deferredWrites.queueBlock(pos, state);
+            case DROP -> {
+                this.deferredWrites.drop();
+                yield false;
+            }
+        };
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        int chunkX = pos.getX() >> 4;
+        int chunkZ = pos.getZ() >> 4;
+
+        if (this.getWriteTarget(chunkX, chunkZ) != WriteTarget.DEFER) {
+            return super.getBlockState(pos);
+        }
+
+        BlockState pendingState = this.deferredWrites.getPendingState(pos);
+        if (pendingState != null) {
+            return pendingState;
+        }
+
+        return this.isChunkLoaded(chunkX, chunkZ) ? super.getBlockState(pos) : Blocks.AIR.getDefaultState();
+    }
+
+    public enum WriteTarget {
+        // Close enough to the generating chunk to be written right away
+        DIRECT,
+        // Still generating, queued until its features step
+        DEFER,
+        // Already past its features step, dropped
+        DROP
+    }
+}
@@ -0,0 +1,339 @@
+package com.sp.world.generation;
+
+import com.sp.SPBRevamped;
+import com.sp.world.generation.template.CompiledTemplate;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtHelper;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.structure.StructureTemplateManager;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.PersistentState;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes a chunk generator made into chunks that weren't generated yet, waiting for those chunks to generate.
+ * <p>
+ * Our mazes reach a few chunks further than the chunk that is generating. Instead of writing into those chunks
+ * while they are still in an early status, the writes are kept here per target chunk and applied once the target
+ * chunk runs its own features step, see {@link DeferredChunkRegion}. The pending writes are saved with the world,
+ * so a chunk that generates after a restart still gets the rest of its neighbours' rooms.
+ * <p>
+ * Which chunks already generated is saved too, as one bit per chunk, so writes aimed at them are dropped instead of
+ * waiting forever for a features step that never comes again. Chunks generated before that was saved are marked
+ * once they load, which also drops what was queued for them.
+ */
+public class DeferredChunkWrites extends PersistentState {
+    private static final Map<RegistryKey<World>, DeferredChunkWrites> WRITES = new ConcurrentHashMap<>();
+    private static final String ID = SPBRevamped.MOD_ID + "_deferred_writes";
+    // Chunks per side of each block of generated bits
+    private static final int GENERATED_REGION_SIZE = 32;
+
+    private final Long2ObjectOpenHashMap<PendingChunk> pendingChunks = new Long2ObjectOpenHashMap<>();
+    // One bit per chunk that ran its features step, in blocks of 32 by 32 chunks
+    private final Long2ObjectOpenHashMap<long[]> generatedChunks = new Long2ObjectOpenHashMap<>();
+    private int droppedWrites;
+
+    public static void init() {
+        ServerWorldEvents.LOAD.register((server, world) -> WRITES.put(world.getRegistryKey(), world.getPersistentStateManager().getOrCreate(
+                nbt -> fromNbt(server.getStructureTemplateManager(), nbt),
+                DeferredChunkWrites::new,
+                ID
+        )));
+
+        // A chunk that loads without going through generation was generated before a restart, nothing can be applied to it anymore
+        ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> {
+            DeferredChunkWrites writes = WRITES.get(world.getRegistryKey());
+            if (writes != null) {
+                writes.finish(chunk.getPos());
+            }
+        });
+
+        ServerWorldEvents.UNLOAD.register((server, world) -> WRITES.remove(world.getRegistryKey()));
+    }
+
+    public static DeferredChunkWrites get(World world) {
+        return WRITES.computeIfAbsent(world.getRegistryKey(), key -> new DeferredChunkWrites());
+    }
+
+    /**
+     * @return If the write was queued, false if the target chunk is already generated
+     */
+    public synchronized boolean queueBlock(BlockPos pos, BlockState state) {
+        long chunkPos = ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4);
+
+        if (this.isGenerated(chunkPos)) {
+            this.droppedWrites++;
+            return false;
+        }
+
+        PendingChunk pendingChunk = this.getOrCreate(chunkPos);
+        pendingChunk.writes.add(new BlockWrite(pos.toImmutable(), state));
+        pendingChunk.lastBlockWrites.put(pos.asLong(), pendingChunk.writes.size() - 1);
+        this.markDirty();
+        return true;
+    }
+
+    /**
+     * @return If the write was queued, false if the target chunk is already generated
+     */
+    public synchronized boolean queue(int chunkX, int chunkZ, ChunkWrite write) {
+        long chunkPos = ChunkPos.toLong(chunkX, chunkZ);
+
+        if (this.isGenerated(chunkPos)) {
+            this.droppedWrites++;
+            return false;
+        }
+
+        this.getOrCreate(chunkPos).writes.add(write);
+        this.markDirty();
+        return true;
+    }
+
+    /**
+     * The state the latest pending write is going to put at this position, if any.
+     */
+    @Nullable
+    public synchronized BlockState getPendingState(BlockPos pos) {
+        PendingChunk pendingChunk = this.pendingChunks.get(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (pendingChunk == null) {
+            return null;
+        }
+
+        int lastBlockWrite = pendingChunk.lastBlockWrites.getOrDefault(pos.asLong(), -1);
+
+        // Anything queued after the last single block write can still cover it
+        for (int i = pendingChunk.writes.size() - 1; i > lastBlockWrite; i--) {
+            BlockState state = pendingChunk.writes.get(i).getState(pos);
+            if (state != null) {
+                return state;
+            }
+        }
+
+        return lastBlockWrite >= 0 ? pendingChunk.writes.get(lastBlockWrite).getState(pos) : null;
+    }
+
+    /**
+     * Applies everything that was queued for this chunk in the order it was queued. Anything queued for it
+     * afterwards is dropped, the chunk is done generating.
+     */
+    public void apply(StructureWorldAccess world, Chunk chunk) {
+        PendingChunk pendingChunk = this.finish(chunk.getPos());
+
+        if (pendingChunk != null) {
+            for (ChunkWrite write : pendingChunk.writes) {
+                write.apply(world, chunk);
+            }
+        }
+    }
+
+    /**
+     * Counts a write into a chunk that was already past its features step, which can't be applied anymore.
+     */
+    public synchronized void drop() {
+        this.droppedWrites++;
+    }
+
+    @Nullable
+    private synchronized PendingChunk finish(ChunkPos pos) {
+        boolean marked = this.markGenerated(pos.x, pos.z);
+        PendingChunk pendingChunk = this.pendingChunks.remove(pos.toLong());
+        if (marked || pendingChunk != null) {
+            this.markDirty();
+        }
+
+        return pendingChunk;
+    }
+
+    private boolean isGenerated(long chunkPos) {
+        int chunkX = ChunkPos.getPackedX(chunkPos);
+        int chunkZ = ChunkPos.getPackedZ(chunkPos);
+        long[] bits = this.generatedChunks.get(getGeneratedRegion(chunkX, chunkZ));
+        if (bits == null) {
+            return false;
+        }
+
+        int index = getGeneratedIndex(chunkX, chunkZ);
+        return (bits[index >> 6] & 1L << index) != 0;
+    }
+
+    /**
+     * @return If the chunk wasn't marked yet
+     */
+    private boolean markGenerated(int chunkX, int chunkZ) {
+        long[] bits = this.generatedChunks.computeIfAbsent(getGeneratedRegion(chunkX, chunkZ), key -> new long[GENERATED_REGION_SIZE * GENERATED_REGION_SIZE / 64]);
+        int index = getGeneratedIndex(chunkX, chunkZ);
+        long bit = 1L << index;
+
+        if ((bits[index >> 6] & bit) != 0) {
+            return false;
+        }
+
+        bits[index >> 6] |= bit;
+        return true;
+    }
+
+    private static long getGeneratedRegion(int chunkX, int chunkZ) {
+        return ChunkPos.toLong(Math.floorDiv(chunkX, GENERATED_REGION_SIZE), Math.floorDiv(chunkZ, GENERATED_REGION_SIZE));
+    }
+
+    private static int getGeneratedIndex(int chunkX, int chunkZ) {
+        return Math.floorMod(chunkZ, GENERATED_REGION_SIZE) * GENERATED_REGION_SIZE + Math.floorMod(chunkX, GENERATED_REGION_SIZE);
+    }
+
+    public synchronized int getPendingChunkCount() {
+        return this.pendingChunks.size();
+    }
+
+    public synchronized int getDroppedWrites() {
+        return this.droppedWrites;
+    }
+
+    private PendingChunk getOrCreate(long chunkPos) {
+        PendingChunk pendingChunk = this.pendingChunks.get(chunkPos);
+        if (pendingChunk == null) {
+            pendingChunk = new PendingChunk();
+            this.pendingChunks.put(chunkPos, pendingChunk);
+        }
+        return pendingChunk;
+    }
+
+    private static DeferredChunkWrites fromNbt(StructureTemplateManager structureTemplateManager, NbtCompound nbt) {
+        DeferredChunkWrites writes = new DeferredChunkWrites();
+        NbtList chunks = nbt.getList("Chunks", NbtElement.COMPOUND_TYPE);
+
+        for (int i = 0; i < chunks.size(); i++) {
+            NbtCompound chunkNbt = chunks.getCompound(i);
+            PendingChunk pendingChunk = writes.getOrCreate(chunkNbt.getLong("Pos"));
+            NbtList writesNbt = chunkNbt.getList("Writes", NbtElement.COMPOUND_TYPE);
+
+            for (int j = 0; j < writesNbt.size(); j++) {
+                NbtCompound writeNbt = writesNbt.getCompound(j);
+                ChunkWrite write = switch (writeNbt.getString("Type")) {
+                    case "block" -> BlockWrite.fromNbt(writeNbt);
+                    case "template" -> CompiledTemplate.readSlice(structureTemplateManager, writeNbt);
+                    default -> null;
+                };
+
+                if (write == null) {
+                    writes.droppedWrites++;
+                    continue;
+                }
+
+                pendingChunk.writes.add(write);
+                if (write instanceof BlockWrite blockWrite) {
+                    pendingChunk.lastBlockWrites.put(blockWrite.pos().asLong(), pendingChunk.writes.size() - 1);
+                }
+            }
+        }
+
+        NbtList generated = nbt.getList("Generated", NbtElement.COMPOUND_TYPE);
+        for (int i = 0; i < generated.size(); i++) {
+            NbtCompound regionNbt = generated.getCompound(i);
+            long[] bits = regionNbt.getLongArray("Bits");
+
+            if (bits.length == GENERATED_REGION_SIZE * GENERATED_REGION_SIZE / 64) {
+                writes.generatedChunks.put(regionNbt.getLong("Pos"), bits);
+            }
+        }
+
+        if (writes.droppedWrites > 0) {
+            SPBRevamped.LOGGER.warn("Dropped {} saved chunk writes whose templates are gone", writes.droppedWrites);
+        }
+
+        return writes;
+    }
+
+    @Override
+    public synchronized NbtCompound writeNbt(NbtCompound nbt) {
+        NbtList chunks = new NbtList();
+
+        for (Long2ObjectMap.Entry<PendingChunk> entry : this.pendingChunks.long2ObjectEntrySet()) {
+            NbtList writesNbt = new NbtList();
+            for (ChunkWrite write : entry.getValue().writes) {
+                writesNbt.add(write.toNbt());
+            }
+
+            NbtCompound chunkNbt = new NbtCompound();
+            chunkNbt.putLong("Pos", entry.getLongKey());
+            chunkNbt.put("Writes", writesNbt);
+            chunks.add(chunkNbt);
+        }
+
+        nbt.put("Chunks", chunks);
+
+        NbtList generated = new NbtList();
+        for (Long2ObjectMap.Entry<long[]> entry : this.generatedChunks.long2ObjectEntrySet()) {
+            NbtCompound regionNbt = new NbtCompound();
+            regionNbt.putLong("Pos", entry.getLongKey());
+            regionNbt.putLongArray("Bits", entry.getValue().clone());
+            generated.add(regionNbt);
+        }
+
+        nbt.put("Generated", generated);
+        return nbt;
+    }
+
+    public interface ChunkWrite {
+        void apply(StructureWorldAccess world, Chunk chunk);
+
+        /**
+         * @return The write as it's saved with the world, with a "Type" the saved writes are read back by
+         */
+        NbtCompound toNbt();
+
+        /**
+         * @return The state this write puts at the position, or null if it doesn't touch it
+         */
+        @Nullable
+        BlockState getState(BlockPos pos);
+    }
+
+    private record BlockWrite(BlockPos pos, BlockState state) implements ChunkWrite {
+        @Override
+        public void apply(StructureWorldAccess world, Chunk chunk) {
+            world.setBlockState(this.pos, this.state, 2);
+        }
+
+        @Override
+        public BlockState getState(BlockPos pos) {
+            return this.pos.equals(pos) ? this.state : null;
+        }
+
+        @Override
+        public NbtCompound toNbt() {
+            NbtCompound nbt = new NbtCompound();
+            nbt.putString("Type", "block");
+            nbt.putLong("Pos", this.pos.asLong());
+            nbt.put("State", NbtHelper.fromBlockState(this.state));
+            return nbt;
+        }
+
+        static BlockWrite fromNbt(NbtCompound nbt) {
+            return new BlockWrite(BlockPos.fromLong(nbt.getLong("Pos")), NbtHelper.toBlockState(Registries.BLOCK.getReadOnlyWrapper(), nbt.getCompound("State")));
+        }
+    }
+
+    private static class PendingChunk {
+        final List<ChunkWrite> writes = new ArrayList<>();
+        // Where the last single block write of a position is, so reading it back doesn't have to go through every write
+        final Long2IntOpenHashMap lastBlockWrites = new Long2IntOpenHashMap();
+    }
+}
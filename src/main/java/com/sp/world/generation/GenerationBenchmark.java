@@ -0,0 +1,120 @@
+package com.sp.world.generation;
+
+import com.sp.SPBRevamped;
+import com.sp.world.generation.chunk_generator.BackroomsChunkGenerator;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.test.GameTest;
+import net.minecraft.test.TestContext;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.ProtoChunk;
+import net.minecraft.world.chunk.UpgradeData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how fast each backrooms generator makes chunks, without the chunk system around it.
+ * <p>
+ * Runs as a game test on a headless server with {@code ./gradlew runGenerationBenchmark}, which bootstraps the
+ * registries and loads the templates from {@code data/spb-revamped/structures} like any server. Every generator then
+ * builds a square of chunks that only exist in memory: the fill step runs on each chunk, and the features step runs on
+ * a {@link DeferredChunkRegion} made of the chunk and its neighbours. Writes into chunks outside the square go to a
+ * {@link DeferredChunkWrites} of the benchmark's own, nothing is written into the world's chunks or saved.
+ * <p>
+ * A smaller square is generated first, so the JIT has compiled the generators before anything is measured.
+ * The report has the chunks per second, p99 chunk time and allocation rate of each level and step, it's written to the log.
+ * The size of the squares can be set with {@code -Dspb-revamped.benchmark.size} and {@code -Dspb-revamped.benchmark.warmup}.
+ */
+public class GenerationBenchmark implements FabricGameTest {
+    private static final int SIZE = Integer.getInteger("spb-revamped.benchmark.size", 16);
+    private static final int WARMUP_SIZE = Integer.getInteger("spb-revamped.benchmark.warmup", 8);
+    // Far enough from the spawn that the exit rooms around it don't skew the numbers
+    private static final int OFFSET = 256;
+    // Same as the margin vanilla gives the features step
+    private static final int REGION_RADIUS = 1;
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void benchmarkGenerators(TestContext context) {
+        MinecraftServer server = context.getWorld().getServer();
+
+        for (ServerWorld world : server.getWorlds()) {
+            if (!(world.getChunkManager().getChunkGenerator() instanceof BackroomsChunkGenerator generator)) {
+                continue;
+            }
+
+            String level = world.getRegistryKey().getValue().getPath();
+            run(world, generator, -OFFSET - WARMUP_SIZE, WARMUP_SIZE);
+            Result result = run(world, generator, OFFSET, SIZE);
+
+            SPBRevamped.LOGGER.info("[genbench] {} fill: {}", level, result.fill().describe());
+            SPBRevamped.LOGGER.info("[genbench] {} features: {}", level, result.features().describe());
+        }
+
+        if (!GenerationProfiler.measuresAllocations()) {
+            SPBRevamped.LOGGER.info("[genbench] Allocations aren't measured on this JVM");
+        }
+
+        context.complete();
+    }
+
+    private static Result run(ServerWorld world, BackroomsChunkGenerator generator, int offset, int size) {
+        Result result = new Result(new GenerationProfiler.Stats(), new GenerationProfiler.Stats());
+        Long2ObjectOpenHashMap<ProtoChunk> chunks = new Long2ObjectOpenHashMap<>();
+        DeferredChunkWrites deferredWrites = new DeferredChunkWrites();
+
+        for (int z = 0; z < size; z++) {
+            for (int x = 0; x < size; x++) {
+                int chunkX = offset + x;
+                int chunkZ = offset + z;
+
+                // Same order as the chunks vanilla hands to a ChunkRegion
+                List<Chunk> region = new ArrayList<>();
+                for (int dz = -REGION_RADIUS; dz <= REGION_RADIUS; dz++) {
+                    for (int dx = -REGION_RADIUS; dx <= REGION_RADIUS; dx++) {
+                        region.add(getOrFill(world, generator, chunks, chunkX + dx, chunkZ + dz, result.fill()));
+                    }
+                }
+
+                ProtoChunk chunk = chunks.get(ChunkPos.toLong(chunkX, chunkZ));
+                long startNanos = System.nanoTime();
+                long startBytes = GenerationProfiler.getAllocatedBytes();
+
+                DeferredChunkRegion chunkRegion = new DeferredChunkRegion(world, region, ChunkStatus.FEATURES, generator.getPlacementRadius(), deferredWrites);
+                chunkRegion.applyDeferredWrites(chunk);
+                generator.generate(chunkRegion, chunk);
+
+                result.features().record(System.nanoTime() - startNanos, GenerationProfiler.getAllocatedBytes() - startBytes);
+                chunk.setStatus(ChunkStatus.FEATURES);
+            }
+        }
+
+        return result;
+    }
+
+    private static ProtoChunk getOrFill(ServerWorld world, BackroomsChunkGenerator generator, Long2ObjectOpenHashMap<ProtoChunk> chunks, int chunkX, int chunkZ, GenerationProfiler.Stats fill) {
+        ProtoChunk chunk = chunks.get(ChunkPos.toLong(chunkX, chunkZ));
+        if (chunk != null) {
+            return chunk;
+        }
+
+        chunk = new ProtoChunk(new ChunkPos(chunkX, chunkZ), UpgradeData.NO_UPGRADE_DATA, world, world.getRegistryManager().get(RegistryKeys.BIOME), null);
+
+        long startNanos = System.nanoTime();
+        long startBytes = GenerationProfiler.getAllocatedBytes();
+        generator.populateChunk(chunk);
+        fill.record(System.nanoTime() - startNanos, GenerationProfiler.getAllocatedBytes() - startBytes);
+
+        chunk.setStatus(ChunkStatus.NOISE);
+        chunks.put(ChunkPos.toLong(chunkX, chunkZ), chunk);
+        return chunk;
+    }
+
+    private record Result(GenerationProfiler.Stats fill, GenerationProfiler.Stats features) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.sp.world.generation;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every chunk the backrooms generators make on a running server, per generator and step.
+ * <p>
+ * It's off unless it's turned on with {@code /backrooms genstats enable} or {@code -Dspb-revamped.genstats=true},
+ * while it's off the generators only check the flag. Together with a pregeneration run this measures the generators
+ * on a dedicated server without anyone playing. The report has the chunks per second, the p99 time a chunk took and
+ * how much it allocated. To compare the generators on their own, without a server generating around them,
+ * see {@link GenerationBenchmark}.
+ */
+public class GenerationProfiler {
+    private static final Map<String, Stats> STATS = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = Boolean.getBoolean("spb-revamped.genstats");
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean ALLOCATIONS = THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+    // Enough for a stable p99 without keeping every chunk that was ever generated
+    private static final int SAMPLES = 4096;
+
+    public enum Step {
+        FILL,
+        FEATURES,
+        REPLAY
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        GenerationProfiler.enabled = enabled;
+    }
+
+    public static void init() {
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> reset());
+    }
+
+    /**
+     * @return What {@link #end} needs, read on the thread doing the work
+     */
+    public static long begin() {
+        return enabled ? getAllocatedBytes() : 0L;
+    }
+
+    public static void end(ChunkGenerator generator, Step step, long startNanos, long startBytes) {
+        if (!enabled) {
+            return;
+        }
+
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = ALLOCATIONS ? getAllocatedBytes() - startBytes : 0L;
+
+        STATS.computeIfAbsent(generator.getClass().getSimpleName() + " " + step.name().toLowerCase(), key -> new Stats()).record(nanos, bytes);
+    }
+
+    /**
+     * @return How much the current thread allocated so far, or 0 if the JVM doesn't measure it
+     */
+    public static long getAllocatedBytes() {
+        return ALLOCATIONS ? ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes() : 0L;
+    }
+
+    public static boolean measuresAllocations() {
+        return ALLOCATIONS;
+    }
+
+    public static void reset() {
+        STATS.clear();
+    }
+
+    public static List<String> getReport() {
+        List<String> lines = new ArrayList<>();
+
+        STATS.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> lines.add(entry.getKey() + ": " + entry.getValue().describe()));
+
+        if (!ALLOCATIONS && !lines.isEmpty()) {
+            lines.add("Allocations aren't measured on this JVM");
+        }
+
+        return lines;
+    }
+
+    public static class Stats {
+        private final int[] latencies = new int[SAMPLES];
+        private int count;
+        private long totalNanos;
+        private long totalBytes;
+        private long firstNanos;
+        private long lastNanos;
+
+        public synchronized void record(long nanos, long bytes) {
+            long now = System.nanoTime();
+            if (this.count == 0) {
+                this.firstNanos = now - nanos;
+            }
+
+            this.latencies[this.count % SAMPLES] = (int) Math.min(nanos / 1000L, Integer.MAX_VALUE);
+            this.count++;
+            this.totalNanos += nanos;
+            this.totalBytes += bytes;
+            this.lastNanos = now;
+        }
+
+        public synchronized String describe() {
+            int[] samples = Arrays.copyOf(this.latencies, Math.min(this.count, SAMPLES));
+            Arrays.sort(samples);
+            int p99 = samples.length == 0 ? 0 : samples[Math.min(samples.length - 1, (int) Math.ceil(samples.length * 0.99) - 1)];
+
+            double seconds = Math.max(this.lastNanos - this.firstNanos, 1L) / 1.0E9;
+            double busySeconds = Math.max(this.totalNanos, 1L) / 1.0E9;
+
+            // Chunks per second counts the idle time between chunks too, busy is how fast it would go if it never waited
+            return String.format("%d chunks, %.1f chunks/s (%.1f busy), mean %.2f ms, p99 %.2f ms, %.1f KB/chunk, %.1f MB/s allocated",
+                    this.count,
+                    this.count / seconds,
+                    this.count / busySeconds,
+                    this.totalNanos / 1.0E6 / Math.max(this.count, 1),
+                    p99 / 1000.0,
+                    this.totalBytes / 1024.0 / Math.max(this.count, 1),
+                    this.totalBytes / 1048576.0 / busySeconds);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.sp.world.generation;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.util.math.noise.PerlinNoiseSampler;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.util.math.random.RandomSplitter;
+import net.minecraft.util.math.random.Xoroshiro128PlusPlusRandom;
+import net.minecraft.world.StructureWorldAccess;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Randomness for the backrooms generators, derived from the world seed and a position.
+ * <p>
+ * The same seed, salt and position always give the same Random, no matter which thread asks or in which order
+ * chunks generate, so layouts can be regenerated. Every caller gets its own Random, nothing here is shared.
+ * The salt keeps different uses at the same position from getting the same numbers.
+ */
+public class GenerationRandom {
+    private static final Map<Key, RandomSplitter> SPLITTERS = new ConcurrentHashMap<>();
+    private static final Map<Key, PerlinNoiseSampler> NOISE_SAMPLERS = new ConcurrentHashMap<>();
+
+    public static void init() {
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            SPLITTERS.clear();
+            NOISE_SAMPLERS.clear();
+        });
+    }
+
+    /**
+     * @param x Usually a chunk or maze region coordinate
+     * @param z Usually a chunk or maze region coordinate
+     */
+    public static Random get(StructureWorldAccess world, String salt, int x, int z) {
+        return get(world.getSeed(), salt, x, z);
+    }
+
+    public static Random get(long seed, String salt, int x, int z) {
+        return SPLITTERS.computeIfAbsent(new Key(seed, salt), key -> new Xoroshiro128PlusPlusRandom(key.seed()).nextSplitter().split(key.salt()).nextSplitter())
+                .split(x, 0, z);
+    }
+
+    /**
+     * The sampler is only read after it's built, so the same one is handed to every thread.
+     */
+    public static PerlinNoiseSampler getNoiseSampler(StructureWorldAccess world, String salt) {
+        return NOISE_SAMPLERS.computeIfAbsent(new Key(world.getSeed(), salt), key -> new PerlinNoiseSampler(get(key.seed(), key.salt(), 0, 0)));
+    }
+
+    private record Key(long seed, String salt) {
+    }
+}
@@ -0,0 +1,312 @@
+package com.sp.world.generation;
+
+import com.mojang.datafixers.util.Either;
+import com.sp.SPBRevamped;
+import com.sp.compat.modmenu.ConfigStuff;
+import com.sp.init.BackroomsLevels;
+import com.sp.mixininterfaces.NewServerProperties;
+import com.sp.world.levels.BackroomsLevel;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.dedicated.MinecraftDedicatedServer;
+import net.minecraft.server.world.ChunkHolder;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.PersistentState;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates the chunks around a level's spawn in the background, so players don't arrive in ungenerated terrain.
+ * <p>
+ * Chunks are requested in a spiral from the spawn by adding a ticket, a few at a time, and the ticket is removed
+ * again once the chunk is fully generated so it can unload. No new chunks are requested while the server's average
+ * tick time is above the limit. The task is saved with the world, so it continues after a restart.
+ */
+public class Pregenerator extends PersistentState {
+    private static final Map<RegistryKey<World>, Pregenerator> TASKS = new ConcurrentHashMap<>();
+    private static final String ID = SPBRevamped.MOD_ID + "_pregen";
+    private static final ChunkTicketType<ChunkPos> TICKET = ChunkTicketType.create("spb_pregen", Comparator.comparingLong(ChunkPos::toLong));
+    // Enough to keep the worker threads busy, without holding lots of chunks in memory at once
+    private static final int MAX_REQUESTS = 16;
+    private static final long REPORT_INTERVAL = 30000L;
+
+    private ChunkPos center = ChunkPos.ORIGIN;
+    private int radius;
+    private int nextIndex;
+    private int completed;
+    private boolean paused;
+    private boolean running;
+
+    private final IntArrayList requested = new IntArrayList();
+    // The FULL future of each requested chunk, at the same index as in requested
+    private final List<CompletableFuture<Either<Chunk, ChunkHolder.Unloaded>>> futures = new ArrayList<>();
+    private long sessionStart;
+    private int sessionCompleted;
+    private long lastReport;
+
+    public static void init() {
+        ServerWorldEvents.LOAD.register((server, world) -> {
+            Pregenerator task = world.getPersistentStateManager().get(Pregenerator::fromNbt, ID);
+            if (task != null && task.running) {
+                task.startSession();
+                TASKS.put(world.getRegistryKey(), task);
+                SPBRevamped.LOGGER.info("Continuing pregeneration of {} at {}/{} chunks", world.getRegistryKey().getValue(), task.completed, task.getTotal());
+            }
+        });
+
+        ServerWorldEvents.UNLOAD.register((server, world) -> TASKS.remove(world.getRegistryKey()));
+
+        ServerTickEvents.END_WORLD_TICK.register(world -> {
+            Pregenerator task = TASKS.get(world.getRegistryKey());
+            if (task != null) {
+                task.tick(world);
+            }
+        });
+    }
+
+    /**
+     * Starts generating the chunks within the radius of the level's spawn, replacing any task the world already had.
+     */
+    public static Pregenerator start(ServerWorld world, int radius) {
+        Pregenerator task = world.getPersistentStateManager().getOrCreate(Pregenerator::fromNbt, Pregenerator::new, ID);
+        task.releaseRequests(world);
+
+        Optional<BackroomsLevel> level = BackroomsLevels.getLevel(world);
+        BlockPos spawn = level.map(backroomsLevel -> BlockPos.ofFloored(backroomsLevel.getSpawnPos())).orElse(world.getSpawnPos());
+
+        task.center = new ChunkPos(spawn);
+        task.radius = radius;
+        task.nextIndex = 0;
+        task.completed = 0;
+        task.paused = false;
+        task.running = true;
+        task.startSession();
+        task.markDirty();
+
+        TASKS.put(world.getRegistryKey(), task);
+        return task;
+    }
+
+    @Nullable
+    public static Pregenerator get(ServerWorld world) {
+        return TASKS.get(world.getRegistryKey());
+    }
+
+    public static Collection<Map.Entry<RegistryKey<World>, Pregenerator>> getTasks() {
+        return TASKS.entrySet();
+    }
+
+    public void setPaused(ServerWorld world, boolean paused) {
+        if (paused) {
+            this.releaseRequests(world);
+        } else if (this.paused) {
+            this.startSession();
+        }
+
+        this.paused = paused;
+        this.markDirty();
+    }
+
+    public void cancel(ServerWorld world) {
+        this.releaseRequests(world);
+        this.running = false;
+        this.markDirty();
+        TASKS.remove(world.getRegistryKey());
+    }
+
+    public boolean isPaused() {
+        return this.paused;
+    }
+
+    public int getCompleted() {
+        return this.completed;
+    }
+
+    public int getTotal() {
+        return (this.radius * 2 + 1) * (this.radius * 2 + 1);
+    }
+
+    /**
+     * @return Chunks per second since the task was started, resumed or loaded
+     */
+    public double getChunksPerSecond() {
+        long millis = System.currentTimeMillis() - this.sessionStart;
+        return millis <= 0 ? 0 : this.sessionCompleted * 1000.0 / millis;
+    }
+
+    public String describe() {
+        double chunksPerSecond = this.getChunksPerSecond();
+        int remaining = this.getTotal() - this.completed;
+
+        return String.format("%d/%d chunks (%.1f%%), %.1f chunks/s%s",
+                this.completed,
+                this.getTotal(),
+                this.completed * 100.0 / this.getTotal(),
+                chunksPerSecond,
+                this.paused ? ", paused" : chunksPerSecond > 0 ? String.format(", about %d s left", (long) (remaining / chunksPerSecond)) : "");
+    }
+
+    private void tick(ServerWorld world) {
+        if (this.paused) {
+            return;
+        }
+
+        // Walking backwards so finished requests can be removed in place
+        for (int i = this.requested.size() - 1; i >= 0; i--) {
+            CompletableFuture<Either<Chunk, ChunkHolder.Unloaded>> future = this.futures.get(i);
+            if (!future.isDone()) {
+                continue;
+            }
+
+            ChunkPos pos = this.getPos(this.requested.getInt(i));
+
+            // The chunk only counts once it's fully generated, if its holder was dropped before that it's asked for again
+            if (future.isCompletedExceptionally() || future.join().left().isEmpty()) {
+                this.futures.set(i, requestChunk(world, pos));
+                continue;
+            }
+
+            world.getChunkManager().removeTicket(TICKET, pos, 0, pos);
+            this.requested.removeInt(i);
+            this.futures.remove(i);
+            this.completed++;
+            this.sessionCompleted++;
+            this.markDirty();
+        }
+
+        if (this.requested.isEmpty() && this.nextIndex >= this.getTotal()) {
+            this.running = false;
+            this.markDirty();
+            TASKS.remove(world.getRegistryKey());
+            SPBRevamped.LOGGER.info("Finished pregenerating {}: {}", world.getRegistryKey().getValue(), this.describe());
+            return;
+        }
+
+        if (world.getServer().getTickTime() < getMaxMspt(world.getServer())) {
+            while (this.requested.size() < MAX_REQUESTS && this.nextIndex < this.getTotal()) {
+                ChunkPos pos = this.getPos(this.nextIndex);
+                world.getChunkManager().addTicket(TICKET, pos, 0, pos);
+                this.requested.add(this.nextIndex++);
+                this.futures.add(requestChunk(world, pos));
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - this.lastReport >= REPORT_INTERVAL) {
+            this.lastReport = now;
+            SPBRevamped.LOGGER.info("Pregenerating {}: {}", world.getRegistryKey().getValue(), this.describe());
+        }
+    }
+
+    private void startSession() {
+        this.sessionStart = System.currentTimeMillis();
+        this.sessionCompleted = 0;
+        this.lastReport = this.sessionStart;
+    }
+
+    /**
+     * Drops the tickets of the chunks that were requested but aren't done yet, they're requested again when the task continues.
+     */
+    private void releaseRequests(ServerWorld world) {
+        if (this.requested.isEmpty()) {
+            return;
+        }
+
+        // Everything before the first unfinished chunk is done, the rest gets counted again when it's requested
+        this.nextIndex = this.getFirstUnfinished();
+        this.completed = this.nextIndex;
+        for (int i = 0; i < this.requested.size(); i++) {
+            ChunkPos pos = this.getPos(this.requested.getInt(i));
+            world.getChunkManager().removeTicket(TICKET, pos, 0, pos);
+        }
+
+        this.requested.clear();
+        this.futures.clear();
+    }
+
+    /**
+     * @return A future that completes once the chunk is fully generated, the ticket keeps the chunk loaded until then.
+     */
+    private static CompletableFuture<Either<Chunk, ChunkHolder.Unloaded>> requestChunk(ServerWorld world, ChunkPos pos) {
+        return world.getChunkManager().getChunkFutureSyncOnMainThread(pos.x, pos.z, ChunkStatus.FULL, true);
+    }
+
+    private int getFirstUnfinished() {
+        int first = this.nextIndex;
+        for (int i = 0; i < this.requested.size(); i++) {
+            first = Math.min(first, this.requested.getInt(i));
+        }
+
+        return first;
+    }
+
+    /**
+     * @return The position of the chunk at this index of a square spiral around the center
+     */
+    private ChunkPos getPos(int index) {
+        if (index == 0) {
+            return this.center;
+        }
+
+        // Ring k holds the indices from (2k - 1)^2 up to (2k + 1)^2
+        int ring = ((int) Math.sqrt(index) + 1) / 2;
+        int side = ring * 2;
+        int offset = index - (side - 1) * (side - 1);
+        int along = offset % side;
+
+        return switch (offset / side) {
+            case 0 -> new ChunkPos(this.center.x + ring, this.center.z - ring + 1 + along);
+            case 1 -> new ChunkPos(this.center.x + ring - 1 - along, this.center.z + ring);
+            case 2 -> new ChunkPos(this.center.x - ring, this.center.z + ring - 1 - along);
+            default -> new ChunkPos(this.center.x - ring + 1 + along, this.center.z - ring);
+        };
+    }
+
+    private static int getMaxMspt(MinecraftServer server) {
+        if (server.isDedicated()) {
+            return ((NewServerProperties) ((MinecraftDedicatedServer) server).getProperties()).getPregenMaxMspt();
+        } else {
+            return ConfigStuff.pregenMaxMspt;
+        }
+    }
+
+    private static Pregenerator fromNbt(NbtCompound nbt) {
+        Pregenerator task = new Pregenerator();
+        task.center = new ChunkPos(nbt.getLong("Center"));
+        task.radius = nbt.getInt("Radius");
+        task.nextIndex = nbt.getInt("Next");
+        task.completed = task.nextIndex;
+        task.paused = nbt.getBoolean("Paused");
+        task.running = nbt.getBoolean("Running");
+        return task;
+    }
+
+    @Override
+    public NbtCompound writeNbt(NbtCompound nbt) {
+        nbt.putLong("Center", this.center.toLong());
+        nbt.putInt("Radius", this.radius);
+        // Chunks that were requested but not finished are requested again after loading
+        nbt.putInt("Next", this.getFirstUnfinished());
+        nbt.putBoolean("Paused", this.paused);
+        nbt.putBoolean("Running", this.running);
+        return nbt;
+    }
+}
@@ -0,0 +1,533 @@
+package com.sp.world.generation;
+
+import com.sp.SPBRevamped;
+import com.sp.world.generation.chunk_generator.BackroomsChunkGenerator;
+import com.sp.world.generation.template.CompiledTemplate;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.minecraft.block.Block;
+import net.minecraft.block.Blocks;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.structure.StructureTemplateManager;
+import net.minecraft.util.BlockRotation;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.PersistentState;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.World;
+import net.minecraft.world.dimension.DimensionType;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every placed template that carries layout markers, grouped by the chunks it covers.
+ * <p>
+ * The room templates carry wool markers that tell the generators about each other, like a megaroom (red wool),
+ * a forced opening or stairwell (lime wool) or a spot that shouldn't get a roof (cyan wool). Instead of reading
+ * those blocks back from chunks that might not be generated yet, or not be in the ChunkRegion at all, the
+ * generators ask this index, which looks the marker up in the templates placed in that chunk.
+ * <p>
+ * Only the template, rotation and position of a placement is kept. They're saved with the world in one file per
+ * 32 by 32 chunks, in {@code data/spb-revamped_region_layout}, and a file is only written again when a placement
+ * was added to it. Files are read the first time a chunk in them is asked about, and dropped from memory again once
+ * they're saved and none of their chunks are loaded.
+ * <p>
+ * Worlds that already had chunks before the index existed don't have their older rooms in it, those keep
+ * reading the marker blocks from the world like they used to.
+ */
+public class RegionLayoutIndex extends PersistentState {
+    private static final Map<RegistryKey<World>, RegionLayoutIndex> INDICES = new ConcurrentHashMap<>();
+    private static final String ID = SPBRevamped.MOD_ID + "_region_layout";
+    // Chunks per side of a saved file, same as the region files of the chunks themselves
+    private static final int FILE_SIZE = 32;
+
+    private static final Set<Block> MARKERS = Set.of(
+            Blocks.RED_WOOL,
+            Blocks.LIME_WOOL,
+            Blocks.CYAN_WOOL,
+            Blocks.PURPLE_WOOL,
+            Blocks.YELLOW_WOOL,
+            Blocks.PINK_WOOL,
+            Blocks.ORANGE_WOOL
+    );
+
+    private final boolean legacy;
+    // The placements covering each chunk, in the order they were placed
+    private final Long2ObjectOpenHashMap<ObjectArrayList<Placement>> chunks = new Long2ObjectOpenHashMap<>();
+    // The placements of each file that was read or written, a placement covering two files is in both
+    private final Long2ObjectOpenHashMap<ObjectArrayList<Placement>> files = new Long2ObjectOpenHashMap<>();
+    private final LongOpenHashSet dirtyFiles = new LongOpenHashSet();
+    // How many chunks are loaded in each file, files without any can be dropped
+    private final Long2IntOpenHashMap loadedChunks = new Long2IntOpenHashMap();
+    private StructureTemplateManager structureTemplateManager;
+    private File directory;
+    private int placementCount;
+
+    private RegionLayoutIndex(boolean legacy) {
+        this.legacy = legacy;
+    }
+
+    public static void init() {
+        ServerWorldEvents.LOAD.register((server, world) -> {
+            if (world.getChunkManager().getChunkGenerator() instanceof BackroomsChunkGenerator) {
+                Path worldDirectory = DimensionType.getSaveDirectory(world.getRegistryKey(), server.getSavePath(WorldSavePath.ROOT));
+                RegionLayoutIndex index = world.getPersistentStateManager().getOrCreate(RegionLayoutIndex::fromNbt, () -> create(worldDirectory), ID);
+                index.structureTemplateManager = server.getStructureTemplateManager();
+                index.directory = worldDirectory.resolve("data").resolve(ID).toFile();
+
+                if (!index.legacy) {
+                    INDICES.put(world.getRegistryKey(), index);
+                }
+            }
+        });
+
+        ServerWorldEvents.UNLOAD.register((server, world) -> INDICES.remove(world.getRegistryKey()));
+
+        ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> {
+            RegionLayoutIndex index = get(world);
+            if (index != null) {
+                index.onChunkLoaded(chunk.getPos());
+            }
+        });
+
+        ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> {
+            RegionLayoutIndex index = get(world);
+            if (index != null) {
+                index.onChunkUnloaded(chunk.getPos());
+            }
+        });
+    }
+
+    /**
+     * @return The index of the world, or null if it doesn't have one and the blocks have to be read instead.
+     */
+    @Nullable
+    public static RegionLayoutIndex get(StructureWorldAccess world) {
+        return get(world.toServerWorld());
+    }
+
+    @Nullable
+    public static RegionLayoutIndex get(ServerWorld world) {
+        return INDICES.get(world.getRegistryKey());
+    }
+
+    /**
+     * Checks the index of the world, or reads the block if the world doesn't have one.
+     */
+    public static boolean hasMarker(StructureWorldAccess world, BlockPos pos, Block marker) {
+        RegionLayoutIndex index = get(world);
+        return index != null ? index.hasMarker(pos, marker) : world.getBlockState(pos).isOf(marker);
+    }
+
+    public static boolean hasMarkerIn(StructureWorldAccess world, int minX, int y, int minZ, int maxX, int maxZ, Block marker) {
+        RegionLayoutIndex index = get(world);
+        if (index != null) {
+            return index.hasMarkerIn(minX, y, minZ, maxX, maxZ, marker);
+        }
+
+        for (BlockPos pos : BlockPos.iterate(minX, y, minZ, maxX, y, maxZ)) {
+            if (world.getBlockState(pos).isOf(marker)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public static boolean isMarker(Block block) {
+        return MARKERS.contains(block);
+    }
+
+    /**
+     * Records a placed template. Templates without markers don't need to be recorded.
+     */
+    public synchronized void record(CompiledTemplate template, BlockPos pos, BlockRotation rotation) {
+        this.add(new Placement(template.getId(), pos.toImmutable(), rotation, template));
+    }
+
+    /**
+     * Same as checking if the block at the position is the marker, without reading the block.
+     */
+    public synchronized boolean hasMarker(BlockPos pos, Block marker) {
+        return this.hasMarker(this.getPlacements(pos.getX() >> 4, pos.getZ() >> 4), pos, marker);
+    }
+
+    /**
+     * @return If any block in the area at this height is the marker
+     */
+    public synchronized boolean hasMarkerIn(int minX, int y, int minZ, int maxX, int maxZ, Block marker) {
+        BlockPos.Mutable mutable = new BlockPos.Mutable();
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                ObjectArrayList<Placement> placements = this.getPlacements(chunkX, chunkZ);
+                if (placements == null) {
+                    continue;
+                }
+
+                // Only the part of the area in this chunk, the other chunks check the rest
+                int areaMinX = Math.max(minX, chunkX << 4);
+                int areaMinZ = Math.max(minZ, chunkZ << 4);
+                int areaMaxX = Math.min(maxX, (chunkX << 4) + 15);
+                int areaMaxZ = Math.min(maxZ, (chunkZ << 4) + 15);
+
+                for (Placement placement : placements) {
+                    BlockBox box = placement.box();
+                    CompiledTemplate template = this.resolve(placement);
+
+                    if (template == null || !template.hasMarker(marker) || y < box.getMinY() || y > box.getMaxY()) {
+                        continue;
+                    }
+
+                    for (int x = Math.max(areaMinX, box.getMinX()); x <= Math.min(areaMaxX, box.getMaxX()); x++) {
+                        for (int z = Math.max(areaMinZ, box.getMinZ()); z <= Math.min(areaMaxZ, box.getMaxZ()); z++) {
+                            if (this.hasMarker(placements, mutable.set(x, y, z), marker)) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return How many placements are in memory right now.
+     */
+    public synchronized int getPlacementCount() {
+        return this.placementCount;
+    }
+
+    private void add(Placement placement) {
+        BlockBox box = placement.box();
+
+        // Earlier placements in those files have to come first, they get overwritten by this one
+        for (int fileX = getFile(box.getMinX()); fileX <= getFile(box.getMaxX()); fileX++) {
+            for (int fileZ = getFile(box.getMinZ()); fileZ <= getFile(box.getMaxZ()); fileZ++) {
+                long file = ChunkPos.toLong(fileX, fileZ);
+                this.load(file).add(placement);
+                this.dirtyFiles.add(file);
+            }
+        }
+
+        for (int chunkX = box.getMinX() >> 4; chunkX <= box.getMaxX() >> 4; chunkX++) {
+            for (int chunkZ = box.getMinZ() >> 4; chunkZ <= box.getMaxZ() >> 4; chunkZ++) {
+                this.chunks.computeIfAbsent(ChunkPos.toLong(chunkX, chunkZ), key -> new ObjectArrayList<>()).add(placement);
+            }
+        }
+
+        this.placementCount++;
+        this.markDirty();
+    }
+
+    private synchronized void onChunkLoaded(ChunkPos pos) {
+        this.loadedChunks.addTo(getFile(pos), 1);
+    }
+
+    private synchronized void onChunkUnloaded(ChunkPos pos) {
+        long file = getFile(pos);
+        if (this.loadedChunks.addTo(file, -1) <= 1) {
+            this.loadedChunks.remove(file);
+
+            if (!this.dirtyFiles.contains(file)) {
+                this.unload(file);
+            }
+        }
+    }
+
+    /**
+     * Drops the placements of a file from memory, they're read again from the saved file when they're needed.
+     * Only for files without unsaved placements.
+     */
+    private void unload(long file) {
+        ObjectArrayList<Placement> placements = this.files.remove(file);
+        if (placements == null) {
+            return;
+        }
+
+        this.placementCount -= placements.size();
+        int fileX = ChunkPos.getPackedX(file);
+        int fileZ = ChunkPos.getPackedZ(file);
+
+        // A chunk only has the placements of its own file
+        for (int chunkX = fileX * FILE_SIZE; chunkX < fileX * FILE_SIZE + FILE_SIZE; chunkX++) {
+            for (int chunkZ = fileZ * FILE_SIZE; chunkZ < fileZ * FILE_SIZE + FILE_SIZE; chunkZ++) {
+                this.chunks.remove(ChunkPos.toLong(chunkX, chunkZ));
+            }
+        }
+    }
+
+    private boolean hasMarker(@Nullable ObjectArrayList<Placement> placements, BlockPos pos, Block marker) {
+        if (placements == null) {
+            return false;
+        }
+
+        // Later placements overwrite earlier ones, same as the blocks would
+        for (int i = placements.size() - 1; i >= 0; i--) {
+            Placement placement = placements.get(i);
+            CompiledTemplate template = this.resolve(placement);
+
+            if (template != null && placement.box().contains(pos)) {
+                Block block = template.getBlock(placement.rotation(), pos.getX() - placement.pos().getX(), pos.getY() - placement.pos().getY(), pos.getZ() - placement.pos().getZ());
+                if (block != null) {
+                    return block == marker;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    @Nullable
+    private ObjectArrayList<Placement> getPlacements(int chunkX, int chunkZ) {
+        this.load(ChunkPos.toLong(Math.floorDiv(chunkX, FILE_SIZE), Math.floorDiv(chunkZ, FILE_SIZE)));
+        return this.chunks.get(ChunkPos.toLong(chunkX, chunkZ));
+    }
+
+    /**
+     * Reads the placements of the file if that didn't happen yet.
+     * @return The placements of the file.
+     */
+    private ObjectArrayList<Placement> load(long file) {
+        ObjectArrayList<Placement> placements = this.files.get(file);
+        if (placements != null) {
+            return placements;
+        }
+
+        placements = new ObjectArrayList<>();
+        this.files.put(file, placements);
+
+        File path = this.getPath(file);
+        if (path == null || !path.isFile()) {
+            return placements;
+        }
+
+        NbtList list;
+        try {
+            list = NbtIo.readCompressed(path).getList("Placements", NbtElement.COMPOUND_TYPE);
+        } catch (IOException e) {
+            SPBRevamped.LOGGER.error("Couldn't read the layout markers in {}", path, e);
+            return placements;
+        }
+
+        int fileX = ChunkPos.getPackedX(file);
+        int fileZ = ChunkPos.getPackedZ(file);
+
+        for (int i = 0; i < list.size(); i++) {
+            Placement placement = Placement.fromNbt(list.getCompound(i));
+            if (placement == null) {
+                continue;
+            }
+
+            placements.add(placement);
+            this.placementCount++;
+            BlockBox box = placement.box();
+
+            // The chunks in the other files get the placement when their own file is read
+            int minChunkX = Math.max(box.getMinX() >> 4, fileX * FILE_SIZE);
+            int minChunkZ = Math.max(box.getMinZ() >> 4, fileZ * FILE_SIZE);
+            int maxChunkX = Math.min(box.getMaxX() >> 4, fileX * FILE_SIZE + FILE_SIZE - 1);
+            int maxChunkZ = Math.min(box.getMaxZ() >> 4, fileZ * FILE_SIZE + FILE_SIZE - 1);
+
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    this.chunks.computeIfAbsent(ChunkPos.toLong(chunkX, chunkZ), key -> new ObjectArrayList<>()).add(placement);
+                }
+            }
+        }
+
+        return placements;
+    }
+
+    @Nullable
+    private File getPath(long file) {
+        return this.directory != null ? new File(this.directory, "r." + ChunkPos.getPackedX(file) + "." + ChunkPos.getPackedZ(file) + ".dat") : null;
+    }
+
+    @Nullable
+    private CompiledTemplate resolve(Placement placement) {
+        if (placement.template == null && this.structureTemplateManager != null) {
+            placement.template = CompiledTemplate.get(this.structureTemplateManager, placement.id()).orElse(null);
+        }
+
+        return placement.template;
+    }
+
+    private static int getFile(int blockCoord) {
+        return Math.floorDiv(blockCoord >> 4, FILE_SIZE);
+    }
+
+    private static long getFile(ChunkPos pos) {
+        return ChunkPos.toLong(Math.floorDiv(pos.x, FILE_SIZE), Math.floorDiv(pos.z, FILE_SIZE));
+    }
+
+    /**
+     * A world that already has chunks when the index is first made was generated without it.
+     */
+    private static RegionLayoutIndex create(Path worldDirectory) {
+        File[] regions = worldDirectory.resolve("region").toFile().listFiles((dir, name) -> name.endsWith(".mca"));
+        boolean legacy = regions != null && regions.length > 0;
+
+        if (legacy) {
+            SPBRevamped.LOGGER.info("{} was generated before the layout index, it keeps reading the markers from the world", worldDirectory);
+        }
+
+        RegionLayoutIndex index = new RegionLayoutIndex(legacy);
+        // Saved right away, so the world is still known as new after a restart
+        index.markDirty();
+        return index;
+    }
+
+    private static RegionLayoutIndex fromNbt(NbtCompound nbt) {
+        RegionLayoutIndex index = new RegionLayoutIndex(nbt.getBoolean("Legacy"));
+
+        // Indices saved as a single list before they were split into files, they're moved to the files on the next save
+        NbtList placements = nbt.getList("Placements", NbtElement.COMPOUND_TYPE);
+        for (int i = 0; i < placements.size(); i++) {
+            Placement placement = Placement.fromNbt(placements.getCompound(i));
+            if (placement != null) {
+                index.add(placement);
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Writes the files that got placements since the last save, then the index itself, which only knows if the world is legacy.
+     * Files that no loaded chunk is in are dropped from memory afterwards, like the ones only worldgen used.
+     */
+    @Override
+    public void save(File file) {
+        Long2ObjectOpenHashMap<NbtCompound> dirty = new Long2ObjectOpenHashMap<>();
+
+        synchronized (this) {
+            for (long dirtyFile : this.dirtyFiles) {
+                NbtList placements = new NbtList();
+                for (Placement placement : this.files.get(dirtyFile)) {
+                    placements.add(placement.toNbt());
+                }
+
+                NbtCompound nbt = new NbtCompound();
+                nbt.put("Placements", placements);
+                dirty.put(dirtyFile, nbt);
+            }
+
+            this.dirtyFiles.clear();
+        }
+
+        if (!dirty.isEmpty() && this.directory != null) {
+            this.directory.mkdirs();
+
+            for (Long2ObjectMap.Entry<NbtCompound> entry : dirty.long2ObjectEntrySet()) {
+                File path = this.getPath(entry.getLongKey());
+                try {
+                    NbtIo.writeCompressed(entry.getValue(), path);
+                } catch (IOException e) {
+                    SPBRevamped.LOGGER.error("Couldn't save the layout markers in {}", path, e);
+                }
+            }
+        }
+
+        synchronized (this) {
+            for (long loadedFile : this.files.keySet().toLongArray()) {
+                if (!this.loadedChunks.containsKey(loadedFile) && !this.dirtyFiles.contains(loadedFile)) {
+                    this.unload(loadedFile);
+                }
+            }
+        }
+
+        super.save(file);
+    }
+
+    @Override
+    public NbtCompound writeNbt(NbtCompound nbt) {
+        nbt.putBoolean("Legacy", this.legacy);
+        return nbt;
+    }
+
+    private static final class Placement {
+        private final Identifier id;
+        private final BlockPos pos;
+        private final BlockRotation rotation;
+        // The box is saved too, so the chunks can be rebuilt on load without loading the templates
+        private final BlockBox box;
+        @Nullable
+        private CompiledTemplate template;
+
+        Placement(Identifier id, BlockPos pos, BlockRotation rotation, CompiledTemplate template) {
+            this(id, pos, rotation, template.getBox(pos, rotation));
+            this.template = template;
+        }
+
+        Placement(Identifier id, BlockPos pos, BlockRotation rotation, BlockBox box) {
+            this.id = id;
+            this.pos = pos;
+            this.rotation = rotation;
+            this.box = box;
+        }
+
+        @Nullable
+        static Placement fromNbt(NbtCompound nbt) {
+            Identifier id = Identifier.tryParse(nbt.getString("Id"));
+            int rotation = nbt.getByte("Rotation");
+
+            if (id == null || rotation < 0 || rotation >= BlockRotation.values().length) {
+                return null;
+            }
+
+            int[] box = nbt.getIntArray("Box");
+            if (box.length != 6) {
+                return null;
+            }
+
+            return new Placement(id, BlockPos.fromLong(nbt.getLong("Pos")), BlockRotation.values()[rotation], new BlockBox(box[0], box[1], box[2], box[3], box[4], box[5]));
+        }
+
+        NbtCompound toNbt() {
+            NbtCompound nbt = new NbtCompound();
+            nbt.putString("Id", this.id.toString());
+            nbt.putLong("Pos", this.pos.asLong());
+            nbt.putByte("Rotation", (byte) this.rotation.ordinal());
+            nbt.putIntArray("Box", new int[]{this.box.getMinX(), this.box.getMinY(), this.box.getMinZ(), this.box.getMaxX(), this.box.getMaxY(), this.box.getMaxZ()});
+            return nbt;
+        }
+
+        Identifier id() {
+            return this.id;
+        }
+
+        BlockPos pos() {
+            return this.pos;
+        }
+
+        BlockRotation rotation() {
+            return this.rotation;
+        }
+
+        BlockBox box() {
+            return this.box;
+        }
+    }
+}
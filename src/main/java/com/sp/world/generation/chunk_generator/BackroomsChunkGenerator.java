@@ -2,9 +2,14 @@ package com.sp.world.generation.chunk_generator;
 
 import com.sp.compat.modmenu.ConfigStuff;
 import com.sp.mixininterfaces.NewServerProperties;
+import com.sp.mixininterfaces.GenerationLogHolder;
+import com.sp.world.generation.ChunkGenerationLog;
+import com.sp.world.generation.CompactChunkStorage;
+import com.sp.world.generation.GenerationProfiler;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.server.dedicated.MinecraftDedicatedServer;
+import net.minecraft.util.Util;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.ChunkRegion;
 import net.minecraft.world.HeightLimitView;
@@ -25,19 +30,32 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
 public abstract class BackroomsChunkGenerator extends ChunkGenerator {
-    private final int placementRadius;
-
     public BackroomsChunkGenerator(BiomeSource biomeSource) {
-        this(biomeSource, 1);
-    }
-
-    public BackroomsChunkGenerator(BiomeSource biomeSource, int placementRadius) {
         super(biomeSource);
-        this.placementRadius = placementRadius;
     }
 
+    /**
+     * Places everything that can reach into other chunks, like the maze rooms. Runs during the features step,
+     * which minecraft runs one chunk at a time, so it can read and write the chunks around it.
+     */
     public abstract void generate(StructureWorldAccess world, Chunk chunk);
 
+    /**
+     * Fills in everything that only depends on this chunk's position, like floors and layers.
+     * Runs on the worldgen worker threads during the noise step, so it can't touch any other chunk or shared state.
+     * It also runs again when a chunk saved by {@link com.sp.world.generation.CompactChunkStorage} is loaded.
+     */
+    public void populateChunk(Chunk chunk) {
+    }
+
+    /**
+     * Saved with compact chunks, which are rebuilt with {@link #populateChunk}. Bump it whenever that changes what it places,
+     * so chunks generated before can tell.
+     */
+    public int getGenerationVersion() {
+        return 1;
+    }
+
     protected int getExitSpawnRadius(StructureWorldAccess world){
         if(world.getServer().isDedicated()) {
             return ((NewServerProperties) ((MinecraftDedicatedServer)world.getServer()).getProperties()).getExitSpawnRadius();
@@ -47,22 +65,40 @@ public abstract class BackroomsChunkGenerator extends ChunkGenerator {
     }
 
     /**
-     * When doing chunk generation, you normally can only change the blockstates within the current chunk (placement radius of 1).
-     * But you can increase that radius which is necessary since the maze generators need to place rooms a few chunks away.
+     * How many chunks around the current chunk can be written directly during generation.
+     * The maze generators place rooms a few chunks away, those writes are deferred until the chunk they land in generates,
+     * see {@link com.sp.world.generation.DeferredChunkRegion}.
      */
     public int getPlacementRadius() {
-        return placementRadius;
+        return 1;
     }
 
 
     /**
-     * We Don't need to use any of these methods
+     * Same as the NoiseChunkGenerator, the noise step is handed to the worker threads so chunks fill in parallel.
      */
     @Override
     public CompletableFuture<Chunk> populateNoise(Executor executor, Blender blender, NoiseConfig noiseConfig, StructureAccessor structureAccessor, Chunk chunk) {
-        return CompletableFuture.completedFuture(chunk);
+        return CompletableFuture.supplyAsync(Util.debugSupplier("wgen_fill_backrooms", () -> {
+            long startNanos = System.nanoTime();
+            long startBytes = GenerationProfiler.begin();
+
+            this.populateChunk(chunk);
+
+            // The fill step runs again when the chunk is rebuilt, so only what's placed after it is recorded
+            if (CompactChunkStorage.isRecording(this)) {
+                ((GenerationLogHolder) chunk).setGenerationLog(new ChunkGenerationLog(true));
+            }
+
+            GenerationProfiler.end(this, GenerationProfiler.Step.FILL, startNanos, startBytes);
+            return chunk;
+        }), Util.getMainWorkerExecutor());
     }
 
+    /**
+     * We Don't need to use any of these methods
+     */
+
     @Override
     public int getSeaLevel() {
         return 0;
@@ -4,12 +4,14 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.sp.SPBRevamped;
 import com.sp.init.ModBlocks;
+import com.sp.world.generation.ChunkFill;
+import com.sp.world.generation.GenerationRandom;
+import com.sp.world.generation.template.CompiledTemplate;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.structure.StructurePlacementData;
-import net.minecraft.structure.StructureTemplate;
 import net.minecraft.structure.StructureTemplateManager;
 import net.minecraft.util.BlockMirror;
 import net.minecraft.util.BlockRotation;
@@ -26,7 +28,6 @@ import net.minecraft.world.biome.source.BiomeSource;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.gen.GenerationStep;
 import net.minecraft.world.gen.StructureAccessor;
-import net.minecraft.world.gen.chunk.Blender;
 import net.minecraft.world.gen.chunk.ChunkGenerator;
 import net.minecraft.world.gen.chunk.ChunkGeneratorSettings;
 import net.minecraft.world.gen.chunk.VerticalBlockSample;
@@ -35,8 +36,6 @@ import org.joml.SimplexNoise;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
 
 public final class InfGrassChunkGenerator extends BackroomsChunkGenerator {
     public static final Codec<InfGrassChunkGenerator> CODEC = RecordCodecBuilder.create(
@@ -47,10 +46,9 @@ public final class InfGrassChunkGenerator extends BackroomsChunkGenerator {
                     .apply(instance, instance.stable(InfGrassChunkGenerator::new))
     );
     private final RegistryEntry<ChunkGeneratorSettings> settings;
-    Random random = Random.create();
 
     public InfGrassChunkGenerator(BiomeSource biomeSource, RegistryEntry<ChunkGeneratorSettings> settings) {
-        super(biomeSource, 2);
+        super(biomeSource);
         this.settings = settings;
     }
 
@@ -61,9 +59,10 @@ public final class InfGrassChunkGenerator extends BackroomsChunkGenerator {
 
         BlockPos.Mutable mutable = new BlockPos.Mutable();
         MinecraftServer server = world.getServer();
+        Random random = GenerationRandom.get(world, "inf_grass", chunk.getPos().x, chunk.getPos().z);
 
         StructureTemplateManager structureTemplateManager = world.getServer().getStructureTemplateManager();
-        Optional<StructureTemplate> optional;
+        Optional<CompiledTemplate> optional;
 
         Identifier roomIdentifier;
         StructurePlacementData structurePlacementData = new StructurePlacementData();
@@ -75,7 +74,7 @@ public final class InfGrassChunkGenerator extends BackroomsChunkGenerator {
             if (server != null) {
                 roomIdentifier = new Identifier(SPBRevamped.MOD_ID, "inf_grass/utility_pole");
 
-                optional = structureTemplateManager.getTemplate(roomIdentifier);
+                optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
                 for (int j = 0; j < 16; j++) {
                     if ((z + j) % 21 == 0) {
@@ -93,9 +92,9 @@ public final class InfGrassChunkGenerator extends BackroomsChunkGenerator {
         } else {
             float rand = random.nextFloat();
             if (rand < 0.01f) {
-                roomIdentifier = this.randFeature(!chunk.getPos().getBlockPos(0,20,0).isWithinDistance(new Vec3i(0,20,0), this.getExitSpawnRadius(world)));
+                roomIdentifier = this.randFeature(random, !chunk.getPos().getBlockPos(0,20,0).isWithinDistance(new Vec3i(0,20,0), this.getExitSpawnRadius(world)));
 
-                optional = structureTemplateManager.getTemplate(roomIdentifier);
+                optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
                 optional.ifPresent(structureTemplate -> structureTemplate.place(
                         world,
@@ -107,7 +106,7 @@ public final class InfGrassChunkGenerator extends BackroomsChunkGenerator {
         }
     }
 
-    private Identifier randFeature(boolean exit) {
+    private Identifier randFeature(Random random, boolean exit) {
         int rand = random.nextBetween(1,3);
         if(exit){
             if(rand == 1){
@@ -123,18 +122,9 @@ public final class InfGrassChunkGenerator extends BackroomsChunkGenerator {
     }
 
 
-    /* this method builds the shape of the terrain. it places stone everywhere, which will later be overwritten with grass, terracotta, snow, sand, etc
-         by the buildSurface method. it also is responsible for putting the water in oceans. it returns a CompletableFuture-- you'll likely want this to be delegated to worker threads. */
     @Override
-    public CompletableFuture<Chunk> populateNoise(Executor executor, Blender blender, NoiseConfig noiseConfig, StructureAccessor structureAccessor, Chunk chunk) {
-        BlockPos.Mutable mutable = new BlockPos.Mutable();
-        for(int k = 0; k < 16; ++k) {
-            for(int l = 0; l < 16; ++l) {
-                chunk.setBlockState(mutable.set(k, 30, l), ModBlocks.DIRT.getDefaultState(), false);
-            }
-        }
-
-        return CompletableFuture.completedFuture(chunk);
+    public void populateChunk(Chunk chunk) {
+        ChunkFill.fillLayer(chunk, 30, ModBlocks.DIRT.getDefaultState());
     }
 
 
@@ -4,12 +4,13 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.sp.SPBRevamped;
 import com.sp.init.ModBlocks;
+import com.sp.world.generation.GenerationRandom;
+import com.sp.world.generation.RegionLayoutIndex;
 import com.sp.world.generation.maze_generator.Level0MazeGenerator;
-import net.minecraft.block.BlockState;
+import com.sp.world.generation.template.CompiledTemplate;
 import net.minecraft.block.Blocks;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.structure.StructurePlacementData;
-import net.minecraft.structure.StructureTemplate;
 import net.minecraft.structure.StructureTemplateManager;
 import net.minecraft.util.BlockMirror;
 import net.minecraft.util.BlockRotation;
@@ -32,7 +33,7 @@ public class Level0ChunkGenerator extends BackroomsChunkGenerator {
 
 
     public Level0ChunkGenerator(BiomeSource biomeSource) {
-        super(biomeSource, 5);
+        super(biomeSource);
     }
 
     @Override
@@ -43,14 +44,14 @@ public class Level0ChunkGenerator extends BackroomsChunkGenerator {
     public void generate(StructureWorldAccess world, Chunk chunk) {
         int x = chunk.getPos().getStartX();
         int z = chunk.getPos().getStartZ();
-        Random random = Random.create();
+        Random random = GenerationRandom.get(world, "level0", chunk.getPos().x, chunk.getPos().z);
 
         BlockPos.Mutable mutable = new BlockPos.Mutable();
         MinecraftServer server = world.getServer();
 
         if (server != null) {
             StructureTemplateManager structureTemplateManager = world.getServer().getStructureTemplateManager();
-            Optional<StructureTemplate> optional;
+            Optional<CompiledTemplate> optional;
 
             int megaRooms = random.nextBetween(1, 2);
 
@@ -72,7 +73,7 @@ public class Level0ChunkGenerator extends BackroomsChunkGenerator {
 
                 roomIdentifier = new Identifier(SPBRevamped.MOD_ID, "level0/megaroom1");
                 structurePlacementData.setMirror(BlockMirror.NONE).setRotation(BlockRotation.NONE).setIgnoreEntities(true);
-                optional = structureTemplateManager.getTemplate(roomIdentifier);
+                optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
                 if (optional.isPresent()) {
                     optional.get().place(
@@ -103,7 +104,7 @@ public class Level0ChunkGenerator extends BackroomsChunkGenerator {
                     if(megaRooms != 1){
                         roomIdentifier = new Identifier(SPBRevamped.MOD_ID, "level0/stairwell_0");
                         structurePlacementData.setMirror(BlockMirror.NONE).setRotation(BlockRotation.NONE).setIgnoreEntities(true);
-                        optional = structureTemplateManager.getTemplate(roomIdentifier);
+                        optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
                         if (optional.isPresent()) {
                             optional.get().place(
@@ -123,7 +124,7 @@ public class Level0ChunkGenerator extends BackroomsChunkGenerator {
                         megaRooms = random.nextBetween(1, 6);
                         roomIdentifier = new Identifier(SPBRevamped.MOD_ID, "level0/megaroom" + megaRooms);
                         structurePlacementData.setMirror(BlockMirror.NONE).setRotation(BlockRotation.NONE).setIgnoreEntities(true);
-                        optional = structureTemplateManager.getTemplate(roomIdentifier);
+                        optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
                         if (optional.isPresent()) {
                             if (megaRooms == 1 || megaRooms == 2) {
@@ -174,12 +175,12 @@ public class Level0ChunkGenerator extends BackroomsChunkGenerator {
             ////Code for 8 x 8 Roof////
             for(int i = 0; i < 2; i++) {
                 for(int j = 0; j < 2; j++) {
-                    roomIdentifier = this.getRoof();
-                    structurePlacementData = this.randRotation();
-                    optional = structureTemplateManager.getTemplate(roomIdentifier);
+                    roomIdentifier = this.getRoof(random);
+                    structurePlacementData = this.randRotation(random);
+                    optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
                     if (optional.isPresent()) {
-                        if (world.getBlockState(mutable.set(x + 8 * i, 18, z + 8 * j)) != Blocks.CYAN_WOOL.getDefaultState() && world.getBlockState(mutable.set(x + 8 * i, 25, z + 8 * j)) == Blocks.AIR.getDefaultState() ){
+                        if (!RegionLayoutIndex.hasMarker(world, mutable.set(x + 8 * i, 18, z + 8 * j), Blocks.CYAN_WOOL) && world.getBlockState(mutable.set(x + 8 * i, 25, z + 8 * j)) == Blocks.AIR.getDefaultState() ){
                             if (structurePlacementData.getRotation() == BlockRotation.CLOCKWISE_90) {
                                 optional.get().place(world, new BlockPos((x + 7) + 8 * i, 25, (z) + 8 * j), mutable.set((x + 7) + 8 * i, 25, (z) + 8 * j), structurePlacementData, random, 16);
                             } else {
@@ -200,8 +201,7 @@ public class Level0ChunkGenerator extends BackroomsChunkGenerator {
 
         for(int i = -80; i <= 80; i += 80){
             for(int j = -80; j <= 80; j += 80){
-                BlockState blockState = world.getBlockState(mutable.set(x + i, 19, z + j));
-                if (blockState == Blocks.RED_WOOL.getDefaultState()){
+                if (RegionLayoutIndex.hasMarker(world, mutable.set(x + i, 19, z + j), Blocks.RED_WOOL)){
                     near = true;
                     break;
                 }
@@ -211,8 +211,7 @@ public class Level0ChunkGenerator extends BackroomsChunkGenerator {
         return near;
     }
 
-    public Identifier getRoof(){
-        Random random = Random.create();
+    public Identifier getRoof(Random random){
         int roofNumber = random.nextBetween(1,5);
 
         if (roofNumber == 1){
@@ -225,9 +224,8 @@ public class Level0ChunkGenerator extends BackroomsChunkGenerator {
 
     }
 
-    public StructurePlacementData randRotation(){
+    public StructurePlacementData randRotation(Random random){
         StructurePlacementData structurePlacementData = new StructurePlacementData();
-        Random random = Random.create();
         int rot = random.nextBetween(1,2);
 
         if(rot == 1){
@@ -3,12 +3,14 @@ package com.sp.world.generation.chunk_generator;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.sp.SPBRevamped;
+import com.sp.world.generation.GenerationRandom;
+import com.sp.world.generation.RegionLayoutIndex;
 import com.sp.world.generation.maze_generator.Level1MazeGenerator;
+import com.sp.world.generation.template.CompiledTemplate;
 import net.minecraft.block.Blocks;
 import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.structure.StructurePlacementData;
-import net.minecraft.structure.StructureTemplate;
 import net.minecraft.structure.StructureTemplateManager;
 import net.minecraft.util.BlockMirror;
 import net.minecraft.util.BlockRotation;
@@ -35,11 +37,9 @@ public final class Level1ChunkGenerator extends BackroomsChunkGenerator {
                     .apply(instance, instance.stable(Level1ChunkGenerator::new))
     );
     private final RegistryEntry<ChunkGeneratorSettings> settings;
-    Random random = Random.create();
-    PerlinNoiseSampler noiseSampler = new PerlinNoiseSampler(random);
 
     public Level1ChunkGenerator(BiomeSource biomeSource, RegistryEntry<ChunkGeneratorSettings> settings) {
-        super(biomeSource, 10);
+        super(biomeSource);
         this.settings = settings;
     }
 
@@ -49,6 +49,8 @@ public final class Level1ChunkGenerator extends BackroomsChunkGenerator {
     public void generate(StructureWorldAccess world, Chunk chunk) {
         int x = chunk.getPos().getStartX();
         int z = chunk.getPos().getStartZ();
+        Random random = GenerationRandom.get(world, "level1", chunk.getPos().x, chunk.getPos().z);
+        PerlinNoiseSampler noiseSampler = GenerationRandom.getNoiseSampler(world, "level1");
         int lights = random.nextBetween(1,6);
         int exit;
 
@@ -56,7 +58,7 @@ public final class Level1ChunkGenerator extends BackroomsChunkGenerator {
         MinecraftServer server = world.getServer();
 
         StructureTemplateManager structureTemplateManager = world.getServer().getStructureTemplateManager();
-        Optional<StructureTemplate> optional;
+        Optional<CompiledTemplate> optional;
 
         Identifier roomIdentifier;
         StructurePlacementData structurePlacementData = new StructurePlacementData();
@@ -65,7 +67,7 @@ public final class Level1ChunkGenerator extends BackroomsChunkGenerator {
         if((float) chunk.getPos().x == 0 && (float) chunk.getPos().z  == 0){
             roomIdentifier = new Identifier(SPBRevamped.MOD_ID, "level1/stairwell_1");
             structurePlacementData.setMirror(BlockMirror.NONE).setRotation(BlockRotation.NONE).setIgnoreEntities(true);
-            optional = structureTemplateManager.getTemplate(roomIdentifier);
+            optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
             if(optional.isPresent()){
                 optional.get().place(
@@ -89,7 +91,7 @@ public final class Level1ChunkGenerator extends BackroomsChunkGenerator {
 
                             roomIdentifier = new Identifier(SPBRevamped.MOD_ID, "level1/stairwell2_1");
                             structurePlacementData.setMirror(BlockMirror.NONE).setRotation(BlockRotation.NONE).setIgnoreEntities(true);
-                            optional = structureTemplateManager.getTemplate(roomIdentifier);
+                            optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
                             if (optional.isPresent()) {
                                 optional.get().place(
@@ -107,7 +109,7 @@ public final class Level1ChunkGenerator extends BackroomsChunkGenerator {
                 if(noise1 > 0){
                     roomIdentifier = new Identifier(SPBRevamped.MOD_ID, "level1/megaroom1");
                     structurePlacementData.setMirror(BlockMirror.NONE).setRotation(BlockRotation.NONE).setIgnoreEntities(true);
-                    optional = structureTemplateManager.getTemplate(roomIdentifier);
+                    optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
                     if (optional.isPresent()) {
                         optional.get().place(
@@ -123,7 +125,7 @@ public final class Level1ChunkGenerator extends BackroomsChunkGenerator {
 
                         roomIdentifier = new Identifier(SPBRevamped.MOD_ID, "level1/light" + lights);
                         structurePlacementData.setMirror(BlockMirror.NONE).setRotation(BlockRotation.NONE).setIgnoreEntities(true);
-                        optional = structureTemplateManager.getTemplate(roomIdentifier);
+                        optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
                         if (optional.isPresent()){
                         optional.get().place(
@@ -140,7 +142,7 @@ public final class Level1ChunkGenerator extends BackroomsChunkGenerator {
 
 
                     } else {
-                        if(world.getBlockState(mutable.set(x, 19, z)) != Blocks.RED_WOOL.getDefaultState()) {
+                        if(!RegionLayoutIndex.hasMarker(world, mutable.set(x, 19, z), Blocks.RED_WOOL)) {
                             Level1MazeGenerator level1MazeGenerator = new Level1MazeGenerator(8, 10, 10, x, z, "level1");
                             level1MazeGenerator.setup(world, false, false,true);
                         }
@@ -149,7 +151,7 @@ public final class Level1ChunkGenerator extends BackroomsChunkGenerator {
 
                 } else{
 
-                    if(world.getBlockState(mutable.set(x, 19, z)) != Blocks.RED_WOOL.getDefaultState()) {
+                    if(!RegionLayoutIndex.hasMarker(world, mutable.set(x, 19, z), Blocks.RED_WOOL)) {
                         Level1MazeGenerator level1MazeGenerator = new Level1MazeGenerator(8, 10, 10, x, z, "level1");
                         level1MazeGenerator.setup(world, false, false,true);
                     }
@@ -3,10 +3,11 @@ package com.sp.world.generation.chunk_generator;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.sp.SPBRevamped;
+import com.sp.world.generation.GenerationRandom;
+import com.sp.world.generation.template.CompiledTemplate;
 import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.structure.StructurePlacementData;
-import net.minecraft.structure.StructureTemplate;
 import net.minecraft.structure.StructureTemplateManager;
 import net.minecraft.util.BlockMirror;
 import net.minecraft.util.BlockRotation;
@@ -31,8 +32,6 @@ public final class Level2ChunkGenerator extends BackroomsChunkGenerator {
                     .apply(instance, instance.stable(Level2ChunkGenerator::new))
     );
     private final RegistryEntry<ChunkGeneratorSettings> settings;
-    Random random = Random.create();
-    PerlinNoiseSampler noiseSampler = new PerlinNoiseSampler(random);
 
     public Level2ChunkGenerator(BiomeSource biomeSource, RegistryEntry<ChunkGeneratorSettings> settings) {
         super(biomeSource);
@@ -43,12 +42,14 @@ public final class Level2ChunkGenerator extends BackroomsChunkGenerator {
     public void generate(StructureWorldAccess world, Chunk chunk) {
         int x = chunk.getPos().getStartX();
         int z = chunk.getPos().getStartZ();
+        Random random = GenerationRandom.get(world, "level2", chunk.getPos().x, chunk.getPos().z);
+        PerlinNoiseSampler noiseSampler = GenerationRandom.getNoiseSampler(world, "level2");
 
         BlockPos.Mutable mutable = new BlockPos.Mutable();
         MinecraftServer server = world.getServer();
 
         StructureTemplateManager structureTemplateManager = world.getServer().getStructureTemplateManager();
-        Optional<StructureTemplate> optional;
+        Optional<CompiledTemplate> optional;
 
         Identifier roomIdentifier;
         StructurePlacementData structurePlacementData = new StructurePlacementData();
@@ -58,7 +59,7 @@ public final class Level2ChunkGenerator extends BackroomsChunkGenerator {
 
         if(chunk.getPos().x == 0 && chunk.getPos().z == 0 ){
             roomIdentifier = new Identifier(SPBRevamped.MOD_ID, "level2/stairwell2_2");
-            optional = structureTemplateManager.getTemplate(roomIdentifier);
+            optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
             optional.ifPresent(structureTemplate -> structureTemplate.place(
                     world,
@@ -71,13 +72,13 @@ public final class Level2ChunkGenerator extends BackroomsChunkGenerator {
             if (server != null) {
 
                 if (noise1 > 0.0) {
-                    roomIdentifier = this.getRoom(false);
+                    roomIdentifier = this.getRoom(random, false);
                 }
                 else{
-                    roomIdentifier = this.getRoom(true);
+                    roomIdentifier = this.getRoom(random, true);
                 }
 
-                optional = structureTemplateManager.getTemplate(roomIdentifier);
+                optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
                 optional.ifPresent(structureTemplate -> structureTemplate.place(
                         world,
@@ -89,8 +90,7 @@ public final class Level2ChunkGenerator extends BackroomsChunkGenerator {
     }
 
 
-    public Identifier getRoom(boolean dark){
-        Random random = Random.create();
+    public Identifier getRoom(Random random, boolean dark){
         int roomNumber = random.nextBetween(1,18);
         Identifier identifier;
 
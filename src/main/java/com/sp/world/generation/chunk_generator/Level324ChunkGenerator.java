@@ -4,9 +4,12 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.sp.SPBRevamped;
 import com.sp.init.ModBlocks;
+import com.sp.world.generation.ChunkFill;
+import com.sp.world.generation.GenerationRandom;
+import com.sp.world.generation.template.CompiledTemplate;
+import net.minecraft.block.BlockState;
 import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.structure.StructurePlacementData;
-import net.minecraft.structure.StructureTemplate;
 import net.minecraft.structure.StructureTemplateManager;
 import net.minecraft.util.BlockMirror;
 import net.minecraft.util.BlockRotation;
@@ -16,15 +19,10 @@ import net.minecraft.util.math.random.Random;
 import net.minecraft.world.StructureWorldAccess;
 import net.minecraft.world.biome.source.BiomeSource;
 import net.minecraft.world.chunk.Chunk;
-import net.minecraft.world.gen.StructureAccessor;
-import net.minecraft.world.gen.chunk.Blender;
 import net.minecraft.world.gen.chunk.ChunkGenerator;
 import net.minecraft.world.gen.chunk.ChunkGeneratorSettings;
-import net.minecraft.world.gen.noise.NoiseConfig;
 
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
 
 public class Level324ChunkGenerator extends BackroomsChunkGenerator {
     public static final Codec<Level324ChunkGenerator> CODEC = RecordCodecBuilder.create(
@@ -37,12 +35,9 @@ public class Level324ChunkGenerator extends BackroomsChunkGenerator {
 
     private final RegistryEntry<ChunkGeneratorSettings> settings;
 
-    private final Random random;
-
     public Level324ChunkGenerator(BiomeSource biomeSource, RegistryEntry<ChunkGeneratorSettings> settings) {
-        super(biomeSource, 10);
+        super(biomeSource);
         this.settings = settings;
-        this.random = Random.create();
     }
 
     @Override
@@ -51,6 +46,7 @@ public class Level324ChunkGenerator extends BackroomsChunkGenerator {
         int z = chunk.getPos().getStartZ();
         BlockPos.Mutable mutable = new BlockPos.Mutable();
         StructureTemplateManager structureTemplateManager = world.getServer().getStructureTemplateManager();
+        Random random = GenerationRandom.get(world, "level324", chunk.getPos().x, chunk.getPos().z);
 
         for (int i = 0; i < 16; i++) {
             for (int j = 0; j < 16; j++) {
@@ -61,7 +57,7 @@ public class Level324ChunkGenerator extends BackroomsChunkGenerator {
                         StructurePlacementData structurePlacementData = new StructurePlacementData();
                         structurePlacementData.setMirror(BlockMirror.NONE).setRotation(BlockRotation.NONE).setIgnoreEntities(true);
 
-                        Optional<StructureTemplate> optional = structureTemplateManager.getTemplate(new Identifier(SPBRevamped.MOD_ID, "level324/hanging_lamp" + (random.nextBetween(0, 5) == 0 ? "_on" : "_off")));
+                        Optional<CompiledTemplate> optional = CompiledTemplate.get(structureTemplateManager, new Identifier(SPBRevamped.MOD_ID, "level324/hanging_lamp" + (random.nextBetween(0, 5) == 0 ? "_on" : "_off")));
 
                         optional.ifPresent(structureTemplate -> structureTemplate.place(
                                 world,
@@ -76,7 +72,7 @@ public class Level324ChunkGenerator extends BackroomsChunkGenerator {
                             StructurePlacementData structurePlacementData = new StructurePlacementData();
                             structurePlacementData.setMirror(BlockMirror.NONE).setRotation(BlockRotation.NONE).setIgnoreEntities(true);
 
-                            Optional<StructureTemplate> optional = structureTemplateManager.getTemplate(new Identifier(SPBRevamped.MOD_ID, "inf_grass/utility_pole"));
+                            Optional<CompiledTemplate> optional = CompiledTemplate.get(structureTemplateManager, new Identifier(SPBRevamped.MOD_ID, "inf_grass/utility_pole"));
 
                             optional.ifPresent(structureTemplate -> structureTemplate.place(
                                     world,
@@ -95,7 +91,7 @@ public class Level324ChunkGenerator extends BackroomsChunkGenerator {
                         StructurePlacementData structurePlacementData = new StructurePlacementData();
                         structurePlacementData.setMirror(BlockMirror.NONE).setRotation(BlockRotation.NONE).setIgnoreEntities(true);
 
-                        Optional<StructureTemplate> optional = structureTemplateManager.getTemplate(new Identifier(SPBRevamped.MOD_ID, "level324/gas_station"));
+                        Optional<CompiledTemplate> optional = CompiledTemplate.get(structureTemplateManager, new Identifier(SPBRevamped.MOD_ID, "level324/gas_station"));
 
                         optional.ifPresent(structureTemplate -> structureTemplate.place(
                                 world,
@@ -108,58 +104,45 @@ public class Level324ChunkGenerator extends BackroomsChunkGenerator {
         }
     }
 
-    public CompletableFuture<Chunk> populateNoise(Executor executor, Blender blender, NoiseConfig noiseConfig, StructureAccessor structureAccessor, Chunk chunk) {
+    @Override
+    public void populateChunk(Chunk chunk) {
         int x = chunk.getPos().getStartX();
         int z = chunk.getPos().getStartZ();
-        BlockPos.Mutable mutable = new BlockPos.Mutable();
+        BlockState concrete = ModBlocks.CONCRETE_BLOCK_11.getDefaultState();
 
         for (int i = 0; i < 16; i++) {
-            for (int j = 0; j < 16; j++) {
-                if (!((z + j > -1 && z + j < 27) && (x + i > 7 && x + i < 55))) {
-                    chunk.setBlockState(mutable.set(i, 0, j), ModBlocks.CONCRETE_BLOCK_11.getDefaultState(), false);
-
-                    chunk.setBlockState(mutable.set(i, 63, j), ModBlocks.CONCRETE_BLOCK_11.getDefaultState(), false);
-
-                    if ((i + Math.abs(x * 16)) % 1000 < 8/* || (j + Math.abs(chunk.getPos().z * 16)) % 1000 < 8*/) {
-
-                        chunk.setBlockState(mutable.set(i, 64, j), ModBlocks.ROAD.getDefaultState(), false);
-                    } else {
-                        chunk.setBlockState(mutable.set(i, 64, j), ModBlocks.RED_DIRT.getDefaultState(), false);
-                    }
-                }
-            }
-        }
-
-        for (int i = 0; i < 2; i++) {
-            for (int j = 0; j < 2; j++) {
-                for (int k = 1; k < 63; k++) {
-                    chunk.setBlockState(mutable.set(i, k, j), ModBlocks.CONCRETE_BLOCK_11.getDefaultState(), false);
-                }
+            BlockState ground = (i + Math.abs(x * 16)) % 1000 < 8 ? ModBlocks.ROAD.getDefaultState() : ModBlocks.RED_DIRT.getDefaultState();
+
+            // The floors are left out where the spawn area is, from 8 to 54 on x and 0 to 26 on z
+            int skipFrom = 16;
+            int skipTo = 15;
+            if (x + i > 7 && x + i < 55) {
+                skipFrom = Math.max(0, -z);
+                skipTo = Math.min(15, 26 - z);
             }
 
-            for (int j = 14; j < 16; j++) {
-                for (int k = 1; k < 63; k++) {
-                    chunk.setBlockState(mutable.set(i, k, j), ModBlocks.CONCRETE_BLOCK_11.getDefaultState(), false);
-                }
+            if (skipFrom > skipTo) {
+                this.fillFloors(chunk, i, 0, 15, concrete, ground);
+            } else {
+                this.fillFloors(chunk, i, 0, skipFrom - 1, concrete, ground);
+                this.fillFloors(chunk, i, skipTo + 1, 15, concrete, ground);
             }
         }
 
-        for (int i = 14; i < 16; i++) {
-            for (int j = 0; j < 2; j++) {
-                for (int k = 1; k < 63; k++) {
-                    chunk.setBlockState(mutable.set(i, k, j), ModBlocks.CONCRETE_BLOCK_11.getDefaultState(), false);
-                }
-            }
+        ChunkFill.fill(chunk, 0, 1, 0, 1, 62, 1, concrete);
+        ChunkFill.fill(chunk, 0, 1, 14, 1, 62, 15, concrete);
+        ChunkFill.fill(chunk, 14, 1, 0, 15, 62, 1, concrete);
+        ChunkFill.fill(chunk, 14, 1, 14, 15, 62, 15, concrete);
+    }
 
-            for (int j = 14; j < 16; j++) {
-                for (int k = 1; k < 63; k++) {
-                    chunk.setBlockState(mutable.set(i, k, j), ModBlocks.CONCRETE_BLOCK_11.getDefaultState(), false);
-                }
-            }
+    private void fillFloors(Chunk chunk, int i, int fromJ, int toJ, BlockState concrete, BlockState ground) {
+        if (fromJ > toJ) {
+            return;
         }
 
-
-        return CompletableFuture.completedFuture(chunk);
+        ChunkFill.fill(chunk, i, 0, fromJ, i, 0, toJ, concrete);
+        ChunkFill.fill(chunk, i, 63, fromJ, i, 63, toJ, concrete);
+        ChunkFill.fill(chunk, i, 64, fromJ, i, 64, toJ, ground);
     }
 
     @Override
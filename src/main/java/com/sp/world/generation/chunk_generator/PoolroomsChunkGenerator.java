@@ -3,12 +3,14 @@ package com.sp.world.generation.chunk_generator;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.sp.SPBRevamped;
+import com.sp.world.generation.GenerationRandom;
+import com.sp.world.generation.RegionLayoutIndex;
 import com.sp.world.generation.maze_generator.PoolroomsMazeGenerator;
+import com.sp.world.generation.template.CompiledTemplate;
 import net.minecraft.block.Blocks;
 import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.structure.StructurePlacementData;
-import net.minecraft.structure.StructureTemplate;
 import net.minecraft.structure.StructureTemplateManager;
 import net.minecraft.util.BlockMirror;
 import net.minecraft.util.BlockRotation;
@@ -36,25 +38,24 @@ public final class PoolroomsChunkGenerator extends BackroomsChunkGenerator {
                     .apply(instance, instance.stable(PoolroomsChunkGenerator::new))
     );
     private final RegistryEntry<ChunkGeneratorSettings> settings;
-    Random random = Random.create();
-    PerlinNoiseSampler noiseSampler = new PerlinNoiseSampler(random);
-
     private final List<String> mainMegaRoomList = List.of("16x16", "16x24", "16x32", "24x16", "24x24", "24x32", "32x16", "32x24", "32x32");
 
     public PoolroomsChunkGenerator(BiomeSource biomeSource, RegistryEntry<ChunkGeneratorSettings> settings) {
-        super(biomeSource, 10);
+        super(biomeSource);
         this.settings = settings;
     }
 
     public void generate(StructureWorldAccess world, Chunk chunk) {
         int x = chunk.getPos().getStartX();
         int z = chunk.getPos().getStartZ();
+        Random random = GenerationRandom.get(world, "poolrooms", chunk.getPos().x, chunk.getPos().z);
+        PerlinNoiseSampler noiseSampler = GenerationRandom.getNoiseSampler(world, "poolrooms");
 
         BlockPos.Mutable mutable = new BlockPos.Mutable();
         MinecraftServer server = world.getServer();
 
         StructureTemplateManager structureTemplateManager = world.getServer().getStructureTemplateManager();
-        Optional<StructureTemplate> optional;
+        Optional<CompiledTemplate> optional;
 
         Identifier roomIdentifier;
         StructurePlacementData structurePlacementData = new StructurePlacementData();
@@ -64,7 +65,7 @@ public final class PoolroomsChunkGenerator extends BackroomsChunkGenerator {
 
         if(chunk.getPos().x == 0 && chunk.getPos().z == 0){
             roomIdentifier = new Identifier(SPBRevamped.MOD_ID, "poolrooms/entrance");
-            optional = structureTemplateManager.getTemplate(roomIdentifier);
+            optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
             optional.ifPresent(structureTemplate -> structureTemplate.place(
                     world,
@@ -87,7 +88,7 @@ public final class PoolroomsChunkGenerator extends BackroomsChunkGenerator {
 
                 if(exit == 0){
                     roomIdentifier = new Identifier(SPBRevamped.MOD_ID, "poolrooms/poolrooms_exit");
-                    optional = structureTemplateManager.getTemplate(roomIdentifier);
+                    optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
                     optional.ifPresent(structureTemplate -> structureTemplate.place(
                             world,
@@ -99,7 +100,7 @@ public final class PoolroomsChunkGenerator extends BackroomsChunkGenerator {
                     ));
 
                     roomIdentifier = new Identifier(SPBRevamped.MOD_ID, "poolrooms/poolrooms_exit2");
-                    optional = structureTemplateManager.getTemplate(roomIdentifier);
+                    optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
                     optional.ifPresent(structureTemplate -> structureTemplate.place(
                             world,
@@ -142,7 +143,7 @@ public final class PoolroomsChunkGenerator extends BackroomsChunkGenerator {
             levelDirectory = "poolrooms/dark";
         }
 
-        Random random = Random.create();
+        Random random = GenerationRandom.get(world, "poolrooms/mega_rooms", originX, originY);
         StructureTemplateManager structureTemplateManager = world.getServer().getStructureTemplateManager();
         Identifier roomIdentifier = null;
 
@@ -166,7 +167,7 @@ public final class PoolroomsChunkGenerator extends BackroomsChunkGenerator {
 
         StructurePlacementData structurePlacementData = new StructurePlacementData();
         structurePlacementData.setMirror(BlockMirror.NONE).setRotation(BlockRotation.NONE).setIgnoreEntities(true);
-        Optional<StructureTemplate> optional = structureTemplateManager.getTemplate(roomIdentifier);
+        Optional<CompiledTemplate> optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
 
         int directoryLength = levelDirectory.length();
         int roomWidth = Integer.parseInt(roomIdentifier.getPath().substring(directoryLength + 10, directoryLength + 12));
@@ -178,7 +179,7 @@ public final class PoolroomsChunkGenerator extends BackroomsChunkGenerator {
         BlockPos structurePos = mutable.set(randX + ((size - 1) * randX) + originX, 18, randY + ((size - 1) * randY) + originY);
 
         if (optional.isPresent() &&
-                world.getBlockState(mutable.set(structurePos.getX(), 18, structurePos.getZ())) != Blocks.PURPLE_WOOL.getDefaultState()
+                !RegionLayoutIndex.hasMarker(world, mutable.set(structurePos.getX(), 18, structurePos.getZ()), Blocks.PURPLE_WOOL)
         ) {
             optional.get().place(world, structurePos, structurePos, structurePlacementData, random, 2);
         }
@@ -209,21 +210,11 @@ public final class PoolroomsChunkGenerator extends BackroomsChunkGenerator {
                     if (!placed) {
                         BlockPos StructurePos = mutable.set(ax + ((size - 1) * ax) + originX, 18, ay + ((size - 1) * ay) + originY);
 
-                        boolean clear = true;
-                        for (int ry = -1; ry <= roomHeight; ry++) {
-                            for (int bx = -1; bx <= roomWidth; bx++) {
-                                if (clear) {
-                                    if (world.getBlockState(new BlockPos(StructurePos.getX() + bx, 18, StructurePos.getZ() + ry)) == Blocks.PURPLE_WOOL.getDefaultState()) {
-                                        clear = false;
-                                        break;
-                                    }
-                                }
-                            }
-                        }
+                        boolean clear = !RegionLayoutIndex.hasMarkerIn(world, StructurePos.getX() - 1, 18, StructurePos.getZ() - 1, StructurePos.getX() + roomWidth, StructurePos.getZ() + roomHeight, Blocks.PURPLE_WOOL);
 
 
                         if (clear) {
-                            optional = structureTemplateManager.getTemplate(roomIdentifier);
+                            optional = CompiledTemplate.get(structureTemplateManager, roomIdentifier);
                             if (optional.isPresent()) {
                                 if (structurePlacementData.getRotation() == BlockRotation.COUNTERCLOCKWISE_90) {
                                     optional.get().place(world, new BlockPos(StructurePos.getX(), 18, StructurePos.getZ() + (roomHeight - 1)), new BlockPos(StructurePos.getX(), 19, StructurePos.getZ() + (roomWidth - 1)), structurePlacementData, random, 2);
@@ -2,6 +2,7 @@ package com.sp.world.generation.maze_generator;
 
 import com.sp.world.generation.maze_generator.cells.MazeCell;
 import net.minecraft.block.BlockState;
+import net.minecraft.util.math.random.Random;
 import net.minecraft.world.StructureWorldAccess;
 
 public abstract class MazeGenerator {
@@ -12,7 +13,26 @@ public abstract class MazeGenerator {
 
     public abstract void setup(StructureWorldAccess world, boolean sky, boolean megaRooms, boolean spawnRandomRooms);
 
-    public abstract void removeWalls(MazeCell currentCell, MazeCell neighbor);
+    /**
+     * Places a room for every cell of the carved maze.
+     */
+    protected void drawCells(StructureWorldAccess world, MazeKernel kernel, int size, int originX, int originY, String levelDirectory, Random random, boolean doors) {
+        for (int i = 0; i < kernel.size(); i++) {
+            if (!kernel.hasCell(i)) {
+                continue;
+            }
+
+            int x = kernel.getX(i);
+            int y = kernel.getY(i);
+            MazeCell cell = new MazeCell(y * size + originY, x * size + originX, size, y, x, kernel.getWalls(i), kernel.getDoors(i));
+
+            if (doors) {
+                cell.drawWallsWithDoors(world, levelDirectory, random);
+            } else {
+                cell.drawWalls(world, levelDirectory, random);
+            }
+        }
+    }
 
     protected boolean isAirOrNull(BlockState blockState) {
         return blockState == null || blockState.isAir();  // Might fix some people randomly crashing bc of null cells
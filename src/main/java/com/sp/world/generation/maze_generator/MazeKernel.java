@@ -0,0 +1,229 @@
+package com.sp.world.generation.maze_generator;
+
+import net.minecraft.util.math.random.Random;
+
+import java.util.Arrays;
+
+/**
+ * Carves a maze with the recursive backtracker on flat arrays instead of a grid of {@link com.sp.world.generation.maze_generator.cells.MazeCell}s.
+ * <p>
+ * Cells are stored x major, so walking the indices in order is the same order the generators used to walk {@code grid[x][y]}.
+ * Walls and doors use the same bits as MazeCell, North, West, South, East from the highest bit down.
+ * Every worldgen thread has its own kernel and reuses its arrays, so carving doesn't allocate anything once they're big enough.
+ */
+public final class MazeKernel {
+    public static final int NORTH = 1 << 3;
+    public static final int WEST = 1 << 2;
+    public static final int SOUTH = 1 << 1;
+    public static final int EAST = 1;
+
+    private static final int ALL_WALLS = NORTH | WEST | SOUTH | EAST;
+    private static final byte EXISTS = 1;
+    private static final byte VISITED = 1 << 1;
+
+    private static final ThreadLocal<MazeKernel> KERNELS = ThreadLocal.withInitial(MazeKernel::new);
+
+    private byte[] walls = new byte[0];
+    private byte[] doors = new byte[0];
+    private byte[] flags = new byte[0];
+    private int[] stack = new int[0];
+
+    // Room for every direction twice, the last direction is added twice when straight paths are preferred
+    private final int[] candidates = new int[8];
+    private final int[] candidateDirections = new int[8];
+
+    private int cols;
+    private int rows;
+
+    private MazeKernel() {
+    }
+
+    /**
+     * @return This thread's kernel, cleared for a maze of this size
+     */
+    public static MazeKernel get(int cols, int rows) {
+        MazeKernel kernel = KERNELS.get();
+        kernel.reset(cols, rows);
+        return kernel;
+    }
+
+    private void reset(int cols, int rows) {
+        int size = cols * rows;
+        this.cols = cols;
+        this.rows = rows;
+
+        if (this.walls.length < size) {
+            this.walls = new byte[size];
+            this.doors = new byte[size];
+            this.flags = new byte[size];
+            this.stack = new int[size + 1];
+        }
+
+        Arrays.fill(this.walls, 0, size, (byte) ALL_WALLS);
+        Arrays.fill(this.doors, 0, size, (byte) 0);
+        Arrays.fill(this.flags, 0, size, (byte) 0);
+    }
+
+    public int getIndex(int x, int y) {
+        return x * this.rows + y;
+    }
+
+    public int getX(int index) {
+        return index / this.rows;
+    }
+
+    public int getY(int index) {
+        return index % this.rows;
+    }
+
+    public int size() {
+        return this.cols * this.rows;
+    }
+
+    public void addCell(int x, int y) {
+        this.flags[this.getIndex(x, y)] |= EXISTS;
+    }
+
+    public boolean hasCell(int index) {
+        return (this.flags[index] & EXISTS) != 0;
+    }
+
+    public boolean hasCell(int x, int y) {
+        return x >= 0 && x < this.cols && y >= 0 && y < this.rows && this.hasCell(this.getIndex(x, y));
+    }
+
+    public int getWalls(int index) {
+        return this.walls[index];
+    }
+
+    public int getDoors(int index) {
+        return this.doors[index];
+    }
+
+    /**
+     * Removes the walls in the mask, if the cell exists.
+     */
+    public void removeWalls(int x, int y, int mask) {
+        if (this.hasCell(x, y)) {
+            this.walls[this.getIndex(x, y)] &= (byte) ~mask;
+        }
+    }
+
+    /**
+     * Carves the maze starting from a cell.
+     *
+     * @param openings Walls a cell should lose no matter how it's carved, asked once per reachable cell
+     * @param preferStraight If the direction the last step went in should be twice as likely
+     * @param sideDoorChance One in this many steps along x gets a door instead of an opening, 0 for no doors
+     * @param forwardDoorChance One in this many steps along y gets a door instead of an opening, 0 for no doors
+     * @return False if the start cell doesn't exist
+     */
+    public boolean carve(int startX, int startY, Random random, Openings openings, boolean preferStraight, int sideDoorChance, int forwardDoorChance) {
+        if (!this.hasCell(startX, startY)) {
+            return false;
+        }
+
+        int current = this.getIndex(startX, startY);
+        int top = 0;
+        int lastDirection = 0;
+
+        this.visit(current, openings);
+        this.stack[top++] = current;
+
+        while (top > 0) {
+            int neighbor = this.pickNeighbor(current, random, preferStraight, lastDirection);
+
+            while (neighbor >= 0) {
+                lastDirection = this.candidateDirections[neighbor];
+                neighbor = this.candidates[neighbor];
+
+                this.visit(neighbor, openings);
+                this.open(current, neighbor, random, sideDoorChance, forwardDoorChance);
+                current = neighbor;
+                this.stack[top++] = current;
+                neighbor = this.pickNeighbor(current, random, preferStraight, lastDirection);
+            }
+
+            current = this.stack[--top];
+        }
+
+        return true;
+    }
+
+    private void visit(int index, Openings openings) {
+        this.flags[index] |= VISITED;
+        this.walls[index] &= (byte) ~openings.getOpenings(this.getX(index), this.getY(index));
+    }
+
+    /**
+     * @return The slot in {@link #candidates} that was picked, or -1 if every neighbor was visited
+     */
+    private int pickNeighbor(int index, Random random, boolean preferStraight, int lastDirection) {
+        int x = this.getX(index);
+        int y = this.getY(index);
+        int count = 0;
+
+        // Same order the generators always checked them in, so the same seed still makes the same maze
+        count = this.addCandidate(count, x, y + 1, NORTH, preferStraight && lastDirection == NORTH);
+        count = this.addCandidate(count, x + 1, y, WEST, preferStraight && lastDirection == WEST);
+        count = this.addCandidate(count, x, y - 1, SOUTH, preferStraight && lastDirection == SOUTH);
+        count = this.addCandidate(count, x - 1, y, EAST, preferStraight && lastDirection == EAST);
+
+        return count == 0 ? -1 : random.nextBetween(0, count - 1);
+    }
+
+    private int addCandidate(int count, int x, int y, int direction, boolean twice) {
+        if (!this.hasCell(x, y)) {
+            return count;
+        }
+
+        int index = this.getIndex(x, y);
+        if ((this.flags[index] & VISITED) != 0) {
+            return count;
+        }
+
+        this.candidates[count] = index;
+        this.candidateDirections[count++] = direction;
+
+        if (twice) {
+            this.candidates[count] = index;
+            this.candidateDirections[count++] = direction;
+        }
+
+        return count;
+    }
+
+    private void open(int current, int neighbor, Random random, int sideDoorChance, int forwardDoorChance) {
+        int currentSide;
+        int neighborSide;
+        int doorChance;
+
+        if (this.getX(current) != this.getX(neighbor)) {
+            boolean east = this.getX(current) > this.getX(neighbor);
+            currentSide = east ? EAST : WEST;
+            neighborSide = east ? WEST : EAST;
+            doorChance = sideDoorChance;
+        } else {
+            boolean south = this.getY(current) > this.getY(neighbor);
+            currentSide = south ? SOUTH : NORTH;
+            neighborSide = south ? NORTH : SOUTH;
+            doorChance = forwardDoorChance;
+        }
+
+        this.walls[current] &= (byte) ~currentSide;
+        this.walls[neighbor] &= (byte) ~neighborSide;
+
+        if (doorChance > 0 && random.nextBetween(1, doorChance) == 1) {
+            this.doors[current] |= (byte) currentSide;
+            this.doors[neighbor] |= (byte) neighborSide;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Openings {
+        /**
+         * @return The walls that should be removed from the cell at these grid coordinates
+         */
+        int getOpenings(int x, int y);
+    }
+}
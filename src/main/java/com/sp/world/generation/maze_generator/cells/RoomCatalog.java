@@ -0,0 +1,203 @@
+package com.sp.world.generation.maze_generator.cells;
+
+import com.sp.SPBRevamped;
+import com.sp.init.BackroomsLevels;
+import com.sp.util.MathStuff;
+import com.sp.world.generation.template.CompiledTemplate;
+import com.sp.world.levels.BackroomsLevel;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.structure.StructureTemplateManager;
+import net.minecraft.util.BlockRotation;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.StructureWorldAccess;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every maze room of a level, resolved once instead of once per cell.
+ * <p>
+ * Rooms are indexed by whether the cell has doors, its wall bitmask and its door bitmask, and every room holds
+ * the template of each variant together with the rotation it's placed with. Picking a room for a cell is just an
+ * array lookup, the room names and rotations below are the same ones {@link MazeCell} used to build per cell.
+ */
+public class RoomCatalog {
+    private static final Map<String, RoomCatalog> CATALOGS = new ConcurrentHashMap<>();
+
+    // Indexed by the wall bitmask, 1111 North, West, South, East
+    private static final char[] ROOM_TYPES = {
+            'a', 'b', 'b', 'c', 'b', 'd', 'c', 'e', 'b', 'c', 'd', 'e', 'c', 'e', 'e', 'a'
+    };
+    private static final BlockRotation[] ROOM_ROTATIONS = {
+            BlockRotation.NONE,                 // 0000   ╬
+            BlockRotation.COUNTERCLOCKWISE_90,  // 0001   ╣
+            BlockRotation.NONE,                 // 0010   ╩
+            BlockRotation.COUNTERCLOCKWISE_90,  // 0011   ╝
+            BlockRotation.CLOCKWISE_90,         // 0100   ╠
+            BlockRotation.NONE,                 // 0101   ║
+            BlockRotation.NONE,                 // 0110   ╚
+            BlockRotation.NONE,                 // 0111   ╨
+            BlockRotation.CLOCKWISE_180,        // 1000   ╦
+            BlockRotation.CLOCKWISE_180,        // 1001   ╗
+            BlockRotation.CLOCKWISE_90,         // 1010   ═
+            BlockRotation.COUNTERCLOCKWISE_90,  // 1011   ╡
+            BlockRotation.CLOCKWISE_90,         // 1100   ╔
+            BlockRotation.CLOCKWISE_180,        // 1101   ╥
+            BlockRotation.CLOCKWISE_90,         // 1110   ╞
+            BlockRotation.NONE                  // 1111
+    };
+
+    private final Room[] rooms = new Room[2 * 16 * 16];
+
+    private RoomCatalog(StructureTemplateManager structureTemplateManager, String levelDirectory, BackroomsLevel.RoomCount roomCount) {
+        for (int hasDoors = 0; hasDoors < 2; hasDoors++) {
+            for (int walls = 0; walls < 16; walls++) {
+                for (int doors = 0; doors < 16; doors++) {
+                    this.rooms[getIndex(hasDoors == 1, walls, doors)] = resolve(structureTemplateManager, levelDirectory, roomCount, hasDoors == 1, walls, doors);
+                }
+            }
+        }
+    }
+
+    public static void init() {
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> {
+            CATALOGS.clear();
+
+            for (BackroomsLevel backroomsLevel : BackroomsLevels.BACKROOMS_LEVELS) {
+                backroomsLevel.getRoomCount().ifPresent(roomCount ->
+                        CATALOGS.put(backroomsLevel.getLevelId(), new RoomCatalog(server.getStructureTemplateManager(), backroomsLevel.getLevelId(), roomCount)));
+            }
+        });
+
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> CATALOGS.clear());
+    }
+
+    /**
+     * Gets the catalog for a level directory, building it if it wasn't already built at server start.
+     */
+    public static RoomCatalog get(StructureWorldAccess world, String levelDirectory) {
+        RoomCatalog catalog = CATALOGS.get(levelDirectory);
+
+        if (catalog != null) {
+            return catalog;
+        }
+
+        BackroomsLevel backroomsLevel = BackroomsLevels.getLevel(world.toServerWorld()).orElseThrow(() ->
+                new IllegalStateException("No Backrooms Level found for the world: " + world.getDimension() + ". Cannot draw walls."));
+
+        BackroomsLevel.RoomCount roomCount = backroomsLevel.getRoomCount().orElseThrow(() ->
+                new IllegalStateException("No Room Count found for the level: " + backroomsLevel.getLevelId() + ". Please state a room count in the level's super constructor."));
+
+        return CATALOGS.computeIfAbsent(levelDirectory, directory -> new RoomCatalog(world.getServer().getStructureTemplateManager(), directory, roomCount));
+    }
+
+    public Room getRoom(boolean hasDoors, int walls, int doors) {
+        return this.rooms[getIndex(hasDoors, walls & 15, doors & 15)];
+    }
+
+    private static int getIndex(boolean hasDoors, int walls, int doors) {
+        return (hasDoors ? 256 : 0) | walls << 4 | doors;
+    }
+
+    private static Room resolve(StructureTemplateManager structureTemplateManager, String levelDirectory, BackroomsLevel.RoomCount roomCount, boolean hasDoors, int walls, int doors) {
+        char type = ROOM_TYPES[walls];
+        BlockRotation rotation = ROOM_ROTATIONS[walls];
+        String name;
+
+        if (!hasDoors || walls == 15) {
+            name = type + "room_";
+        } else if (walls == 0) {
+            name = switch (doors) {
+                case 0 -> "aroom_";
+                case 1, 2, 4, 8 -> "aroom_1door_";
+                case 3, 6, 9, 12 -> "aroom_cornerdoor_";
+                case 5, 10 -> "aroom_halldoor_";
+                case 7, 11, 13, 14 -> "aroom_3door_";
+                default -> "aroom_4door_";
+            };
+            rotation = switch (doors) {
+                case 4, 12, 14 -> BlockRotation.COUNTERCLOCKWISE_90;
+                case 2, 6, 7 -> BlockRotation.CLOCKWISE_180;
+                case 1, 3, 5, 11 -> BlockRotation.CLOCKWISE_90;
+                default -> BlockRotation.NONE;
+            };
+        } else {
+            // The doors are rotated the other way around so they line up with the unrotated template
+            int rotatedDoors = switch (rotation) {
+                case CLOCKWISE_90 -> MathStuff.rotateBits(doors, 1);
+                case CLOCKWISE_180 -> MathStuff.rotateBits(doors, 2);
+                case COUNTERCLOCKWISE_90 -> MathStuff.rotateBits(doors, 3);
+                default -> doors;
+            };
+
+            name = switch (type) {
+                case 'b' -> threeWayDoor(rotatedDoors);
+                case 'c' -> cornerDoor(rotatedDoors);
+                case 'd' -> hallwayDoor(rotatedDoors);
+                default -> singleDoor(rotatedDoors);
+            };
+        }
+
+        int variantCount = switch (type) {
+            case 'a' -> roomCount.aRoomCount();
+            case 'b' -> roomCount.bRoomCount();
+            case 'c' -> roomCount.cRoomCount();
+            case 'd' -> roomCount.dRoomCount();
+            default -> roomCount.eRoomCount();
+        };
+
+        CompiledTemplate[] variants = new CompiledTemplate[Math.max(variantCount, 1)];
+        for (int i = 0; i < variants.length; i++) {
+            variants[i] = CompiledTemplate.get(structureTemplateManager, new Identifier(SPBRevamped.MOD_ID, levelDirectory + "/" + name + (i + 1))).orElse(null);
+        }
+
+        return new Room(variants, rotation);
+    }
+
+    private static String threeWayDoor(int doors) {
+        return switch (doors) {
+            case 0 -> "broom_";
+            case 1 -> "broom_1door_east_";
+            case 4 -> "broom_1door_west_";
+            case 8 -> "broom_1door_north_";
+            case 9 -> "broom_2door_1_";
+            case 12 -> "broom_2door_2_";
+            case 5 -> "broom_2door_";
+            default -> "broom_3door_";
+        };
+    }
+
+    private static String cornerDoor(int doors) {
+        return switch (doors) {
+            case 0 -> "croom_";
+            case 1 -> "croom_1door_1_";
+            case 8 -> "croom_1door_2_";
+            default -> "croom_2door_";
+        };
+    }
+
+    private static String hallwayDoor(int doors) {
+        return switch (doors) {
+            case 0 -> "droom_";
+            case 2 -> "droom_1door_1_";
+            case 8 -> "droom_1door_2_";
+            default -> "droom_2door_";
+        };
+    }
+
+    private static String singleDoor(int doors) {
+        return doors == 8 ? "eroom_door_" : "eroom_";
+    }
+
+    /**
+     * @param variants The template of every variant, or null where a variant doesn't exist
+     */
+    public record Room(CompiledTemplate[] variants, BlockRotation rotation) {
+        @Nullable
+        public CompiledTemplate pick(Random random) {
+            return this.variants[random.nextInt(this.variants.length)];
+        }
+    }
+}
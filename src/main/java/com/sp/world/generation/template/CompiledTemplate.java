@@ -0,0 +1,462 @@
+package com.sp.world.generation.template;
+
+import com.sp.world.generation.ChunkGenerationLog;
+import com.sp.world.generation.DeferredChunkRegion;
+import com.sp.world.generation.DeferredChunkWrites;
+import com.sp.world.generation.RegionLayoutIndex;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.structure.StructurePlacementData;
+import net.minecraft.structure.StructureTemplate;
+import net.minecraft.structure.StructureTemplateManager;
+import net.minecraft.util.BlockMirror;
+import net.minecraft.util.BlockRotation;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3i;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A structure template flattened into palette indexed block arrays, one for each rotation.
+ * <p>
+ * Our rooms are static, so instead of going through {@link StructureTemplate#place} block by block, the blocks
+ * are written straight into the chunk sections during {@link com.sp.world.generation.chunk_generator.BackroomsChunkGenerator#generate}.
+ * Block entities are only added where the template has one. Templates that need anything else, like a mirror,
+ * processors or entities, still fall back to the vanilla placement. Parts of a template that land in a chunk
+ * which isn't generated yet are queued in {@link DeferredChunkWrites}.
+ */
+public class CompiledTemplate {
+    private static final Map<Identifier, Optional<CompiledTemplate>> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final StructureTemplate template;
+    private final boolean hasEntities;
+    private final Identifier id;
+    // Saved with compact chunks, so they can tell if the template changed since they were generated
+    private final int hash;
+    // Layout markers in the template, see RegionLayoutIndex
+    private final Set<Block> markers = new HashSet<>();
+    @Nullable
+    private final Rotated[] rotations;
+
+    private CompiledTemplate(Identifier id, StructureTemplate template) {
+        this.id = id;
+        this.template = template;
+        this.hasEntities = !template.entities.isEmpty();
+
+        NbtCompound nbt = template.writeNbt(new NbtCompound());
+        nbt.remove("DataVersion");
+        this.hash = nbt.hashCode();
+
+        if (!template.blockInfoLists.isEmpty()) {
+            for (StructureTemplate.StructureBlockInfo blockInfo : template.blockInfoLists.get(0).getAll()) {
+                if (RegionLayoutIndex.isMarker(blockInfo.state().getBlock())) {
+                    this.markers.add(blockInfo.state().getBlock());
+                }
+            }
+        }
+
+        // Templates with more than one palette pick one at random, leave those to vanilla
+        if (template.blockInfoLists.size() != 1) {
+            this.rotations = null;
+            return;
+        }
+
+        List<StructureTemplate.StructureBlockInfo> blockInfos = template.blockInfoLists.get(0).getAll();
+        this.rotations = new Rotated[BlockRotation.values().length];
+
+        for (BlockRotation rotation : BlockRotation.values()) {
+            this.rotations[rotation.ordinal()] = new Rotated(id, this.hash, template.getSize(), rotation, blockInfos);
+        }
+    }
+
+    public static void init() {
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> TEMPLATES.clear());
+    }
+
+    public static Optional<CompiledTemplate> get(StructureTemplateManager structureTemplateManager, Identifier id) {
+        return TEMPLATES.computeIfAbsent(id, key -> structureTemplateManager.getTemplate(key).map(template -> new CompiledTemplate(key, template)));
+    }
+
+    /**
+     * Compiles a template that isn't from the structure template manager, like one read back from the {@link TemplateArchive}.
+     * It isn't cached.
+     */
+    public static CompiledTemplate compile(Identifier id, StructureTemplate template) {
+        return new CompiledTemplate(id, template);
+    }
+
+    public static int getCompiledCount() {
+        return TEMPLATES.size();
+    }
+
+    public Identifier getId() {
+        return this.id;
+    }
+
+    /**
+     * @return A hash of the template's contents, which changes whenever the template file does
+     */
+    public int getHash() {
+        return this.hash;
+    }
+
+    public StructureTemplate getTemplate() {
+        return this.template;
+    }
+
+    public Vec3i getSize() {
+        return this.template.getSize();
+    }
+
+    /**
+     * @return Roughly how much memory the template and its rotations take up
+     */
+    public long getEstimatedBytes() {
+        long bytes = 0;
+
+        // A block info, its position and the list entry
+        for (StructureTemplate.PalettedBlockInfoList blockInfos : this.template.blockInfoLists) {
+            bytes += blockInfos.getAll().size() * 64L;
+        }
+
+        if (this.rotations != null) {
+            for (Rotated rotated : this.rotations) {
+                bytes += rotated.blocks.length * 2L + rotated.palette.length * 8L + rotated.blockEntities.size() * 64L;
+            }
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Same arguments as {@link StructureTemplate#place}. Only the rotation of the placement data is used, the blocks
+     * are written without block updates no matter the flags.
+     */
+    public boolean place(StructureWorldAccess world, BlockPos pos, BlockPos pivot, StructurePlacementData placementData, Random random, int flags) {
+        this.recordMarkers(world, pos, placementData);
+
+        if (this.rotations == null || placementData.getMirror() != BlockMirror.NONE || !placementData.getProcessors().isEmpty() || placementData.getBoundingBox() != null || (this.hasEntities && !placementData.shouldIgnoreEntities())) {
+            return this.template.place(world, pos, pivot, placementData, random, flags);
+        }
+
+        return this.rotations[placementData.getRotation().ordinal()].place(world, pos);
+    }
+
+    /**
+     * Reads back a part of a template that was queued in {@link DeferredChunkWrites} before the world was saved.
+     * @return The part, or null if the template doesn't exist anymore or isn't compiled
+     */
+    @Nullable
+    public static DeferredChunkWrites.ChunkWrite readSlice(StructureTemplateManager structureTemplateManager, NbtCompound nbt) {
+        Identifier id = Identifier.tryParse(nbt.getString("Template"));
+        if (id == null) {
+            return null;
+        }
+
+        CompiledTemplate template = get(structureTemplateManager, id).orElse(null);
+        if (template == null || template.rotations == null) {
+            return null;
+        }
+
+        BlockRotation rotation;
+        try {
+            rotation = BlockRotation.valueOf(nbt.getString("Rotation"));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        return new Slice(template.rotations[rotation.ordinal()], nbt.getInt("X"), nbt.getInt("Y"), nbt.getInt("Z"));
+    }
+
+    private void recordMarkers(StructureWorldAccess world, BlockPos pos, StructurePlacementData placementData) {
+        if (this.markers.isEmpty() || this.rotations == null || placementData.getMirror() != BlockMirror.NONE) {
+            return;
+        }
+
+        RegionLayoutIndex index = RegionLayoutIndex.get(world);
+        if (index != null) {
+            index.record(this, pos, placementData.getRotation());
+        }
+    }
+
+    public boolean hasMarker(Block marker) {
+        return this.markers.contains(marker);
+    }
+
+    public BlockBox getBox(BlockPos pos, BlockRotation rotation) {
+        return this.template.calculateBoundingBox(new StructurePlacementData().setRotation(rotation), pos);
+    }
+
+    /**
+     * @param x Relative to the position the template was placed at
+     * @return The block the template places there, or null if it doesn't place one
+     */
+    @Nullable
+    public Block getBlock(BlockRotation rotation, int x, int y, int z) {
+        if (this.rotations == null) {
+            return null;
+        }
+
+        Rotated rotated = this.rotations[rotation.ordinal()];
+        BlockState state = rotated.getState(x - rotated.offsetX, y, z - rotated.offsetZ);
+        return state != null ? state.getBlock() : null;
+    }
+
+    /**
+     * Writes the blocks this template placed into a chunk again, for a chunk saved by {@link com.sp.world.generation.CompactChunkStorage}.
+     * Only the block states are written, everything else the placement did is still saved with the chunk.
+     *
+     * @param minX The corner of the rotated template, as recorded by the chunk's {@link com.sp.world.generation.ChunkGenerationLog}
+     */
+    public void replay(Chunk chunk, BlockRotation rotation, int minX, int minY, int minZ) {
+        if (this.rotations != null) {
+            this.rotations[rotation.ordinal()].replayInChunk(chunk, minX, minY, minZ);
+        }
+    }
+
+    private static class Rotated {
+        private final Identifier id;
+        private final int hash;
+        private final BlockRotation rotation;
+        private final int sizeX;
+        private final int sizeY;
+        private final int sizeZ;
+        // Where the rotated box starts relative to the placement position
+        private final int offsetX;
+        private final int offsetZ;
+
+        private final BlockState[] palette;
+        // 0 is a structure void, everything else is the palette index + 1
+        private final short[] blocks;
+        private final Int2ObjectOpenHashMap<NbtCompound> blockEntities = new Int2ObjectOpenHashMap<>();
+
+        Rotated(Identifier id, int hash, Vec3i size, BlockRotation rotation, List<StructureTemplate.StructureBlockInfo> blockInfos) {
+            this.id = id;
+            this.hash = hash;
+            this.rotation = rotation;
+            boolean swapped = rotation == BlockRotation.CLOCKWISE_90 || rotation == BlockRotation.COUNTERCLOCKWISE_90;
+            this.sizeX = swapped ? size.getZ() : size.getX();
+            this.sizeY = size.getY();
+            this.sizeZ = swapped ? size.getX() : size.getZ();
+
+            BlockPos corner = StructureTemplate.transformAround(new BlockPos(size.getX() - 1, 0, size.getZ() - 1), BlockMirror.NONE, rotation, BlockPos.ORIGIN);
+            this.offsetX = Math.min(corner.getX(), 0);
+            this.offsetZ = Math.min(corner.getZ(), 0);
+
+            Map<BlockState, Integer> paletteIndices = new IdentityHashMap<>();
+            List<BlockState> palette = new ArrayList<>();
+            this.blocks = new short[this.sizeX * this.sizeY * this.sizeZ];
+
+            for (StructureTemplate.StructureBlockInfo blockInfo : blockInfos) {
+                BlockPos rotated = StructureTemplate.transformAround(blockInfo.pos(), BlockMirror.NONE, rotation, BlockPos.ORIGIN);
+                BlockState state = blockInfo.state().rotate(rotation);
+
+                int index = this.getIndex(rotated.getX() - this.offsetX, rotated.getY(), rotated.getZ() - this.offsetZ);
+                this.blocks[index] = (short) (paletteIndices.computeIfAbsent(state, key -> {
+                    palette.add(key);
+                    return palette.size() - 1;
+                }) + 1);
+
+                if (blockInfo.nbt() != null) {
+                    this.blockEntities.put(index, blockInfo.nbt());
+                }
+            }
+
+            this.palette = palette.toArray(new BlockState[0]);
+        }
+
+        boolean place(StructureWorldAccess world, BlockPos pos) {
+            int minX = pos.getX() + this.offsetX;
+            int minY = pos.getY();
+            int minZ = pos.getZ() + this.offsetZ;
+            int maxX = minX + this.sizeX - 1;
+            int maxZ = minZ + this.sizeZ - 1;
+
+            for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+                for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                    if (world instanceof DeferredChunkRegion region) {
+                        DeferredChunkRegion.WriteTarget target = region.getWriteTarget(chunkX, chunkZ);
+
+                        if (target == DeferredChunkRegion.WriteTarget.DEFER) {
+                            region.getDeferredWrites().queue(chunkX, chunkZ, new Slice(this, minX, minY, minZ));
+                            continue;
+                        }
+
+                        if (target == DeferredChunkRegion.WriteTarget.DROP) {
+                            region.getDeferredWrites().drop();
+                            continue;
+                        }
+                    }
+
+                    // Same as a ChunkRegion refusing to set blocks outside of it
+                    if (!world.isChunkLoaded(chunkX, chunkZ)) {
+                        continue;
+                    }
+
+                    this.placeInChunk(world, world.getChunk(chunkX, chunkZ), minX, minY, minZ);
+                }
+            }
+
+            return true;
+        }
+
+        private void placeInChunk(StructureWorldAccess world, Chunk chunk, int minX, int minY, int minZ) {
+            int chunkX = chunk.getPos().getStartX();
+            int chunkZ = chunk.getPos().getStartZ();
+            int startX = Math.max(minX, chunkX);
+            int endX = Math.min(minX + this.sizeX - 1, chunkX + 15);
+            int startZ = Math.max(minZ, chunkZ);
+            int endZ = Math.min(minZ + this.sizeZ - 1, chunkZ + 15);
+            BlockPos.Mutable mutable = new BlockPos.Mutable();
+
+            ChunkGenerationLog log = ChunkGenerationLog.getIfRecording(chunk);
+            if (log != null) {
+                log.addTemplate(this.id, this.hash, this.rotation, minX, minY, minZ);
+            }
+
+            for (int y = 0; y < this.sizeY; y++) {
+                int worldY = minY + y;
+                if (chunk.isOutOfHeightLimit(worldY)) {
+                    continue;
+                }
+
+                ChunkSection section = chunk.getSection(chunk.getSectionIndex(worldY));
+
+                for (int worldX = startX; worldX <= endX; worldX++) {
+                    for (int worldZ = startZ; worldZ <= endZ; worldZ++) {
+                        int index = this.getIndex(worldX - minX, y, worldZ - minZ);
+                        short block = this.blocks[index];
+
+                        if (block == 0) {
+                            continue;
+                        }
+
+                        BlockState state = this.palette[block - 1];
+                        BlockState oldState = section.setBlockState(worldX & 15, worldY & 15, worldZ & 15, state);
+                        mutable.set(worldX, worldY, worldZ);
+
+                        for (Map.Entry<Heightmap.Type, Heightmap> heightmap : chunk.getHeightmaps()) {
+                            heightmap.getValue().trackUpdate(worldX & 15, worldY, worldZ & 15, state);
+                        }
+
+                        if (oldState.hasBlockEntity()) {
+                            chunk.removeBlockEntity(mutable);
+                        }
+
+                        if (state.hasBlockEntity()) {
+                            this.addBlockEntity(chunk, index, mutable);
+                        }
+
+                        if (state.shouldPostProcess(world, mutable)) {
+                            chunk.markBlockForPostProcessing(mutable);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void replayInChunk(Chunk chunk, int minX, int minY, int minZ) {
+            int chunkX = chunk.getPos().getStartX();
+            int chunkZ = chunk.getPos().getStartZ();
+            int startX = Math.max(minX, chunkX);
+            int endX = Math.min(minX + this.sizeX - 1, chunkX + 15);
+            int startZ = Math.max(minZ, chunkZ);
+            int endZ = Math.min(minZ + this.sizeZ - 1, chunkZ + 15);
+
+            for (int y = 0; y < this.sizeY; y++) {
+                int worldY = minY + y;
+                if (chunk.isOutOfHeightLimit(worldY)) {
+                    continue;
+                }
+
+                ChunkSection section = chunk.getSection(chunk.getSectionIndex(worldY));
+
+                for (int worldX = startX; worldX <= endX; worldX++) {
+                    for (int worldZ = startZ; worldZ <= endZ; worldZ++) {
+                        short block = this.blocks[this.getIndex(worldX - minX, y, worldZ - minZ)];
+
+                        if (block != 0) {
+                            section.setBlockState(worldX & 15, worldY & 15, worldZ & 15, this.palette[block - 1], false);
+                        }
+                    }
+                }
+            }
+        }
+
+        @Nullable
+        private BlockState getState(int x, int y, int z) {
+            if (x < 0 || y < 0 || z < 0 || x >= this.sizeX || y >= this.sizeY || z >= this.sizeZ) {
+                return null;
+            }
+
+            short block = this.blocks[this.getIndex(x, y, z)];
+            return block == 0 ? null : this.palette[block - 1];
+        }
+
+        /**
+         * Block entities are created once the chunk is done generating, same as when a ChunkRegion places one.
+         */
+        private void addBlockEntity(Chunk chunk, int index, BlockPos pos) {
+            NbtCompound templateNbt = this.blockEntities.get(index);
+            NbtCompound nbt = templateNbt != null ? templateNbt.copy() : new NbtCompound();
+
+            if (templateNbt == null) {
+                nbt.putString("id", "DUMMY");
+            }
+
+            nbt.putInt("x", pos.getX());
+            nbt.putInt("y", pos.getY());
+            nbt.putInt("z", pos.getZ());
+            chunk.addPendingBlockEntityNbt(nbt);
+        }
+
+        private int getIndex(int x, int y, int z) {
+            return (y * this.sizeZ + z) * this.sizeX + x;
+        }
+    }
+
+    /**
+     * The part of a placed template that falls into a chunk which isn't generated yet.
+     */
+    private record Slice(Rotated rotated, int minX, int minY, int minZ) implements DeferredChunkWrites.ChunkWrite {
+        @Override
+        public void apply(StructureWorldAccess world, Chunk chunk) {
+            this.rotated.placeInChunk(world, chunk, this.minX, this.minY, this.minZ);
+        }
+
+        @Override
+        public BlockState getState(BlockPos pos) {
+            return this.rotated.getState(pos.getX() - this.minX, pos.getY() - this.minY, pos.getZ() - this.minZ);
+        }
+
+        @Override
+        public NbtCompound toNbt() {
+            NbtCompound nbt = new NbtCompound();
+            nbt.putString("Type", "template");
+            nbt.putString("Template", this.rotated.id.toString());
+            nbt.putString("Rotation", this.rotated.rotation.name());
+            nbt.putInt("X", this.minX);
+            nbt.putInt("Y", this.minY);
+            nbt.putInt("Z", this.minZ);
+            return nbt;
+        }
+    }
+}
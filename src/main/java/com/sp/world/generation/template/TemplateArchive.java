@@ -0,0 +1,108 @@
+package com.sp.world.generation.template;
+
+import com.sp.SPBRevamped;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.registry.Registries;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.structure.StructureTemplate;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.WorldSavePath;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a copy of every template a compact chunk was built from in the world's save, by its {@link CompiledTemplate#getHash() hash}.
+ * <p>
+ * A chunk saved by {@link com.sp.world.generation.CompactChunkStorage} only remembers which templates were placed,
+ * so if a template file changes or is removed later, the chunk would be rebuilt wrong. The archived copy lets it be
+ * built from the same template it was generated with.
+ */
+public class TemplateArchive {
+    private static final String DIRECTORY = SPBRevamped.MOD_ID + "_templates";
+    private static final Set<String> ARCHIVED = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Optional<CompiledTemplate>> LOADED = new ConcurrentHashMap<>();
+
+    public static void init() {
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            ARCHIVED.clear();
+            LOADED.clear();
+        });
+    }
+
+    /**
+     * @return If the template with this hash is in the archive
+     */
+    public static boolean contains(MinecraftServer server, Identifier id, int hash) {
+        String name = getName(id, hash);
+        if (ARCHIVED.contains(name)) {
+            return true;
+        }
+
+        if (getFile(server, name).isFile()) {
+            ARCHIVED.add(name);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Writes the template to the archive, unless it's already in there.
+     * @return If the template is in the archive now
+     */
+    public static boolean store(MinecraftServer server, CompiledTemplate template) {
+        if (contains(server, template.getId(), template.getHash())) {
+            return true;
+        }
+
+        String name = getName(template.getId(), template.getHash());
+        File file = getFile(server, name);
+
+        try {
+            file.getParentFile().mkdirs();
+            NbtIo.writeCompressed(template.getTemplate().writeNbt(new NbtCompound()), file);
+        } catch (IOException e) {
+            SPBRevamped.LOGGER.error("Couldn't archive the template {}", template.getId(), e);
+            return false;
+        }
+
+        ARCHIVED.add(name);
+        return true;
+    }
+
+    /**
+     * @return The archived template with this hash, or empty if it was never archived
+     */
+    public static Optional<CompiledTemplate> load(MinecraftServer server, Identifier id, int hash) {
+        return LOADED.computeIfAbsent(getName(id, hash), name -> {
+            File file = getFile(server, name);
+            if (!file.isFile()) {
+                return Optional.empty();
+            }
+
+            try {
+                StructureTemplate template = new StructureTemplate();
+                template.readNbt(Registries.BLOCK.getReadOnlyWrapper(), NbtIo.readCompressed(file));
+                return Optional.of(CompiledTemplate.compile(id, template));
+            } catch (IOException e) {
+                SPBRevamped.LOGGER.error("Couldn't read the archived template {}", id, e);
+                return Optional.empty();
+            }
+        });
+    }
+
+    private static String getName(Identifier id, int hash) {
+        return id.getNamespace() + "/" + id.getPath() + "." + Integer.toHexString(hash) + ".nbt";
+    }
+
+    private static File getFile(MinecraftServer server, String name) {
+        return server.getSavePath(WorldSavePath.ROOT).resolve("data").resolve(DIRECTORY).resolve(name).toFile();
+    }
+}
@@ -0,0 +1,95 @@
+package com.sp.world.generation.template;
+
+import com.sp.SPBRevamped;
+import com.sp.compat.modmenu.ConfigStuff;
+import com.sp.mixininterfaces.NewServerProperties;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.dedicated.MinecraftDedicatedServer;
+import net.minecraft.structure.StructureTemplateManager;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads and compiles every structure template of the mod on the worker threads while the server starts.
+ * <p>
+ * Otherwise the first chunks of each level read and parse their rooms from disk on the worldgen thread.
+ * The server waits for the preload before loading the worlds, so the first generation pass only finds compiled
+ * templates. Loading stops once the templates take up more than the configured amount of memory, anything left
+ * over is loaded when it's first used, same as before.
+ */
+public class TemplatePreloader {
+    private static final String DIRECTORY = "structures";
+    private static final String EXTENSION = ".nbt";
+
+    public static void init() {
+        // Registered before the RoomCatalog, so building the catalogs only finds templates that are already loaded
+        ServerLifecycleEvents.SERVER_STARTING.register(TemplatePreloader::preload);
+    }
+
+    private static void preload(MinecraftServer server) {
+        long budget = getBudgetMb(server) * 1024L * 1024L;
+        if (budget <= 0) {
+            return;
+        }
+
+        StructureTemplateManager structureTemplateManager = server.getStructureTemplateManager();
+        List<Identifier> ids = new ArrayList<>();
+
+        // structures/level1/pillars.nbt is the template level1/pillars
+        server.getResourceManager().findResources(DIRECTORY, id -> id.getNamespace().equals(SPBRevamped.MOD_ID) && id.getPath().endsWith(EXTENSION)).keySet().forEach(id -> {
+            String path = id.getPath();
+            ids.add(new Identifier(id.getNamespace(), path.substring(DIRECTORY.length() + 1, path.length() - EXTENSION.length())));
+        });
+
+        long start = System.nanoTime();
+        AtomicLong bytes = new AtomicLong();
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(ids.size());
+
+        for (Identifier id : ids) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                if (bytes.get() >= budget) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+
+                try {
+                    CompiledTemplate.get(structureTemplateManager, id).ifPresent(template -> {
+                        bytes.addAndGet(template.getEstimatedBytes());
+                        loaded.incrementAndGet();
+                    });
+                } catch (RuntimeException e) {
+                    SPBRevamped.LOGGER.warn("Couldn't preload the template {}", id, e);
+                }
+            }, Util.getMainWorkerExecutor()));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        SPBRevamped.LOGGER.info("Preloaded {} of {} templates in {} ms, about {} MB",
+                loaded.get(),
+                ids.size(),
+                (System.nanoTime() - start) / 1000000L,
+                String.format("%.1f", bytes.get() / 1024.0 / 1024.0));
+
+        if (skipped.get() > 0) {
+            SPBRevamped.LOGGER.info("{} templates didn't fit in the preload memory limit of {} MB, they're loaded when they're first used", skipped.get(), budget / 1024L / 1024L);
+        }
+    }
+
+    private static int getBudgetMb(MinecraftServer server) {
+        if (server.isDedicated()) {
+            return ((NewServerProperties) ((MinecraftDedicatedServer) server).getProperties()).getTemplatePreloadMb();
+        } else {
+            return ConfigStuff.templatePreloadMb;
+        }
+    }
+}
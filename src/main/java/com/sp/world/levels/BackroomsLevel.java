@@ -2,10 +2,11 @@ package com.sp.world.levels;
 
 import com.mojang.serialization.Codec;
 import com.sp.SPBRevamped;
+import com.sp.cca_stuff.InitializeComponents;
 import com.sp.cca_stuff.PlayerComponent;
 import com.sp.world.events.AbstractEvent;
-import com.sp.world.events.EmptyEvent;
-import net.minecraft.nbt.NbtCompound;
+import com.sp.world.events.EventSettings;
+import com.sp.world.events.EventTable;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.Registry;
 import net.minecraft.registry.RegistryKey;
@@ -28,9 +29,16 @@ public abstract class BackroomsLevel {
     private final RegistryKey<World> worldKey;
     private final Vec3d spawnPos;
     public Random random = new Random();
-    private boolean shouldSync = false;
-    private final HashMap<String, Supplier<AbstractEvent>> events = new HashMap<>();
-    private final HashMap<String, LevelTransitionCriteriaCallback> transitions = new HashMap<>();
+    private final LinkedHashMap<String, EventTable.Entry> events = new LinkedHashMap<>();
+    @Nullable
+    private EventTable eventTable;
+    private final LinkedHashMap<String, TriggeredTransition> transitions = new LinkedHashMap<>();
+    private final LinkedHashMap<String, LevelTransitionCriteriaCallback> legacyTransitions = new LinkedHashMap<>();
+    @Nullable
+    private TriggeredTransition[] transitionIndex;
+    // The heights any of the triggers can match at, players outside of them aren't checked any further
+    private double transitionMinY;
+    private double transitionMaxY;
 
     public BackroomsLevel(String levelId, Codec<? extends ChunkGenerator> chunkGenerator, Vec3d spawnPos, RegistryKey<World> worldKey) {
         this(levelId, chunkGenerator, null, spawnPos, worldKey, SPBRevamped.MOD_ID);
@@ -112,61 +120,106 @@ public abstract class BackroomsLevel {
         return false;
     }
 
+    /**
+     * How the server lights the level's chunks.
+     * Levels that are only lit by their own light sources can use {@link LightingModel#FLAT},
+     * which skips vanilla light propagation while generating and when blocks change.
+     * @return the lighting model of the level.
+     */
+    public LightingModel getLightingModel() {
+        return LightingModel.VANILLA;
+    }
+
     public record BoolTextPair(boolean value, MutableText string) {}
 
-    public AbstractEvent getRandomEvent(World world) {
-        if (this.events.isEmpty()) {
-            return new EmptyEvent();
+    public enum LightingModel {
+        VANILLA,
+        // Chunks are never lit, so they keep the light engine's default light everywhere
+        FLAT
+    }
+
+    /**
+     * @return The level's events, rebuilt when an event is registered or unregistered.
+     */
+    public EventTable getEventTable() {
+        if (this.eventTable == null) {
+            this.eventTable = new EventTable(this.events.values());
         }
 
-        List<AbstractEvent> eventList = new ArrayList<>();
+        return this.eventTable;
+    }
 
-        this.events.forEach((key, value) -> {
-            AbstractEvent event = value.get();
-            eventList.add(event);
-        });
+    /**
+     * Lets a level keep one of its events from being picked, on top of its {@link EventSettings}.
+     * @return If the event can be picked right now.
+     */
+    public boolean canStartEvent(World world, EventTable.Entry event) {
+        return true;
+    }
 
-        return eventList.get(random.nextInt(eventList.size()));
+    /**
+     * Called when an event was picked for the level, before it starts.
+     */
+    public void onEventStarted(World world, EventTable.Entry event) {
     }
 
-    public List<LevelTransition> checkForTransition(PlayerComponent playerComponent, World world) {
-        List<LevelTransition> possibleTransitions = new ArrayList<>();
-        this.transitions.forEach((key, value) -> {
-            if (!value.predicate(world, playerComponent, this).isEmpty()) {
-                possibleTransitions.add(value.predicate(world, playerComponent, this).get(0));
+    /**
+     * Checks the player against the level's transitions, each one at most once.
+     * @return The transition of the first trigger the player is in, or null if there's none.
+     */
+    @Nullable
+    public LevelTransition checkForTransition(PlayerComponent playerComponent, World world) {
+        TriggeredTransition[] index = this.getTransitionIndex();
+        double y = playerComponent.player.getY();
+
+        if (index.length > 0 && y >= this.transitionMinY && y <= this.transitionMaxY) {
+            for (TriggeredTransition transition : index) {
+                if (transition.trigger().test(playerComponent.player)) {
+                    return transition.factory().create(world, playerComponent);
+                }
             }
-        });
+        }
 
-        return possibleTransitions;
+        for (LevelTransitionCriteriaCallback callback : this.legacyTransitions.values()) {
+            List<LevelTransition> transitions = callback.predicate(world, playerComponent, this);
+            if (!transitions.isEmpty()) {
+                return transitions.get(0);
+            }
+        }
+
+        return null;
     }
 
-    public void justChanged() {
-        this.shouldSync = true;
+    private TriggeredTransition[] getTransitionIndex() {
+        if (this.transitionIndex == null) {
+            this.transitionIndex = this.transitions.values().toArray(new TriggeredTransition[0]);
+            this.transitionMinY = Double.POSITIVE_INFINITY;
+            this.transitionMaxY = Double.NEGATIVE_INFINITY;
+
+            for (TriggeredTransition transition : this.transitionIndex) {
+                this.transitionMinY = Math.min(this.transitionMinY, transition.trigger().getMinY());
+                this.transitionMaxY = Math.max(this.transitionMaxY, transition.trigger().getMaxY());
+            }
+        }
+
+        return this.transitionIndex;
     }
 
     public abstract int nextEventDelay();
 
     /**
-     * Called when the level needs to be synced or saved to disk.
-     * Here you can put anything you want to save to the NBT.
-     * You do <b>not</b> needing to make a NbtCompound first. That is handled by the WorldEvents class.
-     * <b>NOTE</b>: You should not only save data here which you want to <b>save</b> to disk but also which you want to <b>sync</b>.
-     * @param nbt the NbtCompound to save in, assigned by the WorldEvents class.
+     * Creates the state of this level for a world, override this if the level has anything to save or sync.
+     * @return a new {@link LevelState}.
      */
-    public abstract void writeToNbt(NbtCompound nbt);
+    public LevelState createState() {
+        return new LevelState();
+    }
 
     /**
-     * Called when the level is loaded from disk.
-     * Here you can read anything you want to load from the NBT into your level.
-     * You do <b>not</b> needing to step down into an NbtCompound first. That is handled by the WorldEvents class.
-     * @param nbt the NbtCompound to load in, assigned by the WorldEvents class.
+     * @return the state of this level in the world, the world has to be this level's world.
      */
-    public abstract void readFromNbt(NbtCompound nbt);
-
-    public boolean shouldSync() {
-        boolean shouldSync = this.shouldSync;
-        this.shouldSync = false;
-        return shouldSync;
+    public LevelState getState(World world) {
+        return InitializeComponents.EVENTS.get(world).getLevelState();
     }
 
     /**
@@ -183,21 +236,43 @@ public abstract class BackroomsLevel {
      */
     public abstract void transitionIn(CrossDimensionTeleport crossDimensionTeleport);
 
+    /**
+     * @param trigger Where the player has to be for the transition to start.
+     * @param factory Creates the transition for the player that's in the trigger.
+     */
+    public void registerTransition(String name, TransitionTrigger trigger, TransitionFactory factory) {
+        this.transitions.put(name, new TriggeredTransition(trigger, factory));
+        this.transitionIndex = null;
+    }
+
+    /**
+     * Transitions are now registered with a {@link TransitionTrigger}, callbacks are checked after every trigger,
+     * once per player each tick.
+     */
+    @Deprecated
     public void registerTransition(LevelTransitionCriteriaCallback transition, String name) {
-        this.transitions.put(name, transition);
+        this.legacyTransitions.put(name, transition);
     }
 
     public void unregisterTransition(String name) {
         this.transitions.remove(name);
+        this.legacyTransitions.remove(name);
+        this.transitionIndex = null;
     }
 
 
     public void registerEvents(String name, Supplier<AbstractEvent> event) {
-        this.events.put(name, event);
+        this.registerEvents(name, event, EventSettings.DEFAULT);
+    }
+
+    public void registerEvents(String name, Supplier<AbstractEvent> event, EventSettings settings) {
+        this.events.put(name, new EventTable.Entry(name, event, settings));
+        this.eventTable = null;
     }
 
     public void unregisterEvents(String name) {
         this.events.remove(name);
+        this.eventTable = null;
     }
 
 
@@ -225,6 +300,12 @@ public abstract class BackroomsLevel {
 
     public record CrossDimensionTeleport(PlayerComponent playerComponent, Vec3d pos, BackroomsLevel from, BackroomsLevel to) {}
 
+    public interface TransitionFactory {
+        LevelTransition create(World world, PlayerComponent playerComponent);
+    }
+
+    private record TriggeredTransition(TransitionTrigger trigger, TransitionFactory factory) {}
+
     public interface LevelTransitionCriteriaCallback {
         List<LevelTransition> predicate(World world, PlayerComponent playerComponent, BackroomsLevel from);
     }
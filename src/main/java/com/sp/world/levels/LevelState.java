@@ -0,0 +1,70 @@
+package com.sp.world.levels;
+
+import com.sp.cca_stuff.WorldEvents;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.PacketByteBuf;
+
+/**
+ * Everything about a level that changes while it's played, like its light state or time of day.
+ * <p>
+ * The {@link BackroomsLevel} itself is shared by every world that uses it, so its state lives in the world's
+ * {@link WorldEvents} component instead. That way the client and server worlds, and the worlds of different servers, each
+ * have their own copy. Get it with {@link BackroomsLevel#getState(net.minecraft.world.World)}.
+ */
+public class LevelState {
+    private boolean shouldSync = false;
+
+    public void justChanged() {
+        this.shouldSync = true;
+    }
+
+    public boolean isDirty() {
+        return this.shouldSync;
+    }
+
+    public boolean shouldSync() {
+        boolean shouldSync = this.shouldSync;
+        this.shouldSync = false;
+        return shouldSync;
+    }
+
+    /**
+     * Called when the level needs to be synced or saved to disk.
+     * Here you can put anything you want to save to the NBT.
+     * You do <b>not</b> needing to make a NbtCompound first. That is handled by the WorldEvents class.
+     * <b>NOTE</b>: Unless {@link #writeSyncPacket(PacketByteBuf)} is overridden, this is also what gets <b>synced</b>.
+     * @param nbt the NbtCompound to save in, assigned by the WorldEvents class.
+     */
+    public void writeToNbt(NbtCompound nbt) {
+    }
+
+    /**
+     * Called when the level is loaded from disk.
+     * Here you can read anything you want to load from the NBT into your level.
+     * You do <b>not</b> needing to step down into an NbtCompound first. That is handled by the WorldEvents class.
+     * @param nbt the NbtCompound to load in, assigned by the WorldEvents class.
+     */
+    public void readFromNbt(NbtCompound nbt) {
+    }
+
+    /**
+     * Called when the level state changed and is sent to the clients.
+     * By default, this sends everything {@link #writeToNbt(NbtCompound)} saves, override it to only send what the clients need.
+     * @param buf the buffer to write to, {@link #applySyncPacket(PacketByteBuf)} reads it back on the client.
+     */
+    public void writeSyncPacket(PacketByteBuf buf) {
+        NbtCompound nbt = new NbtCompound();
+        this.writeToNbt(nbt);
+        buf.writeNbt(nbt);
+    }
+
+    /**
+     * Called on the client with what {@link #writeSyncPacket(PacketByteBuf)} wrote.
+     */
+    public void applySyncPacket(PacketByteBuf buf) {
+        NbtCompound nbt = buf.readNbt();
+        if (nbt != null) {
+            this.readFromNbt(nbt);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.sp.world.levels;
+
+import net.minecraft.block.Block;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.World;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Where a player has to be for a level transition to start, see {@link BackroomsLevel#registerTransition(String, TransitionTrigger, BackroomsLevel.TransitionFactory)}.
+ * <p>
+ * A trigger is a region or a block the player touches, optionally with the player standing on the ground or a check of the world on top.
+ * Regions are plain numbers, so the level can tell from the player's height alone if any of its triggers can match.
+ */
+public final class TransitionTrigger {
+    private final Region region;
+    private final boolean onGround;
+    private final Condition condition;
+
+    private TransitionTrigger(Region region, boolean onGround, Condition condition) {
+        this.region = region;
+        this.onGround = onGround;
+        this.condition = condition;
+    }
+
+    /**
+     * The player's feet are at or below the height.
+     */
+    public static TransitionTrigger below(double y) {
+        return new TransitionTrigger(new Height(Double.NEGATIVE_INFINITY, Math.nextUp(y)), false, null);
+    }
+
+    /**
+     * The player's feet are above the height.
+     */
+    public static TransitionTrigger above(double y) {
+        return new TransitionTrigger(new Height(y, Double.POSITIVE_INFINITY), false, null);
+    }
+
+    /**
+     * The player's feet are between the heights, not counting the heights themselves.
+     */
+    public static TransitionTrigger between(double minY, double maxY) {
+        return new TransitionTrigger(new Height(minY, maxY), false, null);
+    }
+
+    public static TransitionTrigger inside(Box box) {
+        return new TransitionTrigger(new Inside(box), false, null);
+    }
+
+    /**
+     * The player is at least the distance away from 0 along the axis, the distance is read from the world every check.
+     */
+    public static TransitionTrigger beyond(Direction.Axis axis, ToIntFunction<World> distance) {
+        return new TransitionTrigger(new Beyond(axis, distance), false, null);
+    }
+
+    /**
+     * The block the given number of blocks below the player's feet is of the given block.
+     */
+    public static TransitionTrigger touching(Block block, int depth) {
+        return new TransitionTrigger(new Contact(block, depth), false, null);
+    }
+
+    /**
+     * Only matches while the player stands on a block.
+     */
+    public TransitionTrigger onGround() {
+        return new TransitionTrigger(this.region, true, this.condition);
+    }
+
+    /**
+     * Adds a check on top of the region, it only runs for players that are in the region.
+     */
+    public TransitionTrigger when(Condition condition) {
+        return new TransitionTrigger(this.region, this.onGround, condition);
+    }
+
+    double getMinY() {
+        return this.region.minY();
+    }
+
+    double getMaxY() {
+        return this.region.maxY();
+    }
+
+    public boolean test(PlayerEntity player) {
+        if (this.onGround && !player.isOnGround()) {
+            return false;
+        }
+
+        if (!this.region.contains(player)) {
+            return false;
+        }
+
+        return this.condition == null || this.condition.test(player.getWorld(), player);
+    }
+
+    @FunctionalInterface
+    public interface Condition {
+        boolean test(World world, PlayerEntity player);
+    }
+
+    private sealed interface Region permits Height, Inside, Beyond, Contact {
+        boolean contains(PlayerEntity player);
+
+        default double minY() {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        default double maxY() {
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private record Height(double minY, double maxY) implements Region {
+        @Override
+        public boolean contains(PlayerEntity player) {
+            double y = player.getY();
+            return y > this.minY && y < this.maxY;
+        }
+    }
+
+    private record Inside(Box box) implements Region {
+        @Override
+        public boolean contains(PlayerEntity player) {
+            return this.box.contains(player.getX(), player.getY(), player.getZ());
+        }
+
+        @Override
+        public double minY() {
+            return this.box.minY;
+        }
+
+        @Override
+        public double maxY() {
+            return this.box.maxY;
+        }
+    }
+
+    private record Beyond(Direction.Axis axis, ToIntFunction<World> distance) implements Region {
+        @Override
+        public boolean contains(PlayerEntity player) {
+            return Math.abs(this.axis.choose(player.getX(), player.getY(), player.getZ())) >= this.distance.applyAsInt(player.getWorld());
+        }
+    }
+
+    private record Contact(Block block, int depth) implements Region {
+        @Override
+        public boolean contains(PlayerEntity player) {
+            return player.getWorld().getBlockState(player.getBlockPos().down(this.depth)).isOf(this.block);
+        }
+    }
+}
@@ -2,11 +2,12 @@ package com.sp.world.levels.custom;
 
 import com.sp.cca_stuff.PlayerComponent;
 import com.sp.init.BackroomsLevels;
+import com.sp.world.events.EventSettings;
 import com.sp.world.events.infinite_grass.InfiniteGrassAmbience;
 import com.sp.world.generation.chunk_generator.InfGrassChunkGenerator;
 import com.sp.world.levels.BackroomsLevel;
+import com.sp.world.levels.TransitionTrigger;
 import net.minecraft.entity.player.PlayerEntity;
-import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
@@ -15,8 +16,6 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 
 public class InfiniteGrassBackroomsLevel extends BackroomsLevel {
@@ -29,17 +28,12 @@ public class InfiniteGrassBackroomsLevel extends BackroomsLevel {
     public void register() {
         super.register();
 
-        this.registerEvents("ambience", InfiniteGrassAmbience::new);
+        this.registerEvents("ambience", InfiniteGrassAmbience::new, EventSettings.AMBIENCE);
 
-        this.registerTransition((world, playerComponent, from) -> {
-            List<LevelTransition> playerList = new ArrayList<>();
-
-            if (from instanceof InfiniteGrassBackroomsLevel && playerComponent.player.getPos().y > 57.5 && playerComponent.player.isOnGround()) {
-                playerList.add(getOverworldTransition(playerComponent));
-            }
-
-            return playerList;
-        }, this.getLevelId() + "->" + BackroomsLevels.OVERWORLD_REPRESENTING_BACKROOMS_LEVEL.getLevelId());
+        this.registerTransition(
+                this.getLevelId() + "->" + BackroomsLevels.OVERWORLD_REPRESENTING_BACKROOMS_LEVEL.getLevelId(),
+                TransitionTrigger.above(57.5).onGround(),
+                (world, playerComponent) -> getOverworldTransition(playerComponent));
     }
 
     private LevelTransition getOverworldTransition(PlayerComponent playerComponent) {
@@ -79,16 +73,6 @@ public class InfiniteGrassBackroomsLevel extends BackroomsLevel {
         return random.nextInt(1000, 1200);
     }
 
-    @Override
-    public void writeToNbt(NbtCompound nbt) {
-
-    }
-
-    @Override
-    public void readFromNbt(NbtCompound nbt) {
-
-    }
-
     @Override
     public void transitionOut(CrossDimensionTeleport crossDimensionTeleport) {
     }
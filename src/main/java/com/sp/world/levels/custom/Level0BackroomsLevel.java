@@ -1,33 +1,29 @@
 package com.sp.world.levels.custom;
 
 import com.sp.SPBRevamped;
-import com.sp.cca_stuff.InitializeComponents;
 import com.sp.cca_stuff.PlayerComponent;
 import com.sp.init.BackroomsLevels;
-import com.sp.world.events.AbstractEvent;
+import com.sp.world.events.EventTable;
 import com.sp.world.events.level0.Level0Blackout;
 import com.sp.world.events.level0.Level0Flicker;
 import com.sp.world.events.level0.Level0IntercomBasic;
 import com.sp.world.events.level0.Level0Music;
 import com.sp.world.generation.chunk_generator.Level0ChunkGenerator;
 import com.sp.world.levels.BackroomsLevel;
+import com.sp.world.levels.LevelState;
+import com.sp.world.levels.TransitionTrigger;
+import com.sp.world.lights.LightFixtureIndex;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.PacketByteBuf;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class Level0BackroomsLevel extends BackroomsLevel {
     ///execute in spb-revamped:level0 run tp 1063 15 24
 
-    private int blackoutCount = 0;
-    private int intercomCount = 0;
-    private LightState lightState = LightState.ON;
-
     public Level0BackroomsLevel() {
         super("level0", Level0ChunkGenerator.CODEC, new RoomCount(8), new Vec3d(0, 21, 0), BackroomsLevels.LEVEL0_WORLD_KEY);
     }
@@ -50,18 +46,10 @@ public class Level0BackroomsLevel extends BackroomsLevel {
         this.registerEvents("intercom", Level0IntercomBasic::new);
         this.registerEvents("music", Level0Music::new);
 
-        this.registerTransition((world, playerComponent, from) -> {
-            List<LevelTransition> playerList = new ArrayList<>();
-
-            if (from instanceof Level0BackroomsLevel && playerComponent.player.getPos().getY() <= 11 && playerComponent.player.isOnGround()) {
-                for (PlayerEntity player : playerComponent.player.getWorld().getPlayers()) {
-                    PlayerComponent otherPlayerComponent = InitializeComponents.PLAYER.get(player);
-                    playerList.add(getLevel1Transition(otherPlayerComponent));
-                }
-            }
-
-            return playerList;
-        }, this.getLevelId() + "->" + BackroomsLevels.LEVEL1_BACKROOMS_LEVEL.getLevelId());
+        this.registerTransition(
+                this.getLevelId() + "->" + BackroomsLevels.LEVEL1_BACKROOMS_LEVEL.getLevelId(),
+                TransitionTrigger.below(11).onGround(),
+                (world, playerComponent) -> getLevel1Transition(playerComponent));
     }
 
     private LevelTransition getLevel1Transition(PlayerComponent playerComponent) {
@@ -98,38 +86,26 @@ public class Level0BackroomsLevel extends BackroomsLevel {
     }
 
     @Override
-    public AbstractEvent getRandomEvent(World world) {
-        AbstractEvent activeEvent = super.getRandomEvent(world);
-
-        if (activeEvent instanceof Level0Blackout) {
-            this.blackoutCount++;
-            if (this.blackoutCount > 2) {
-                while (activeEvent instanceof Level0Blackout) {
-                    activeEvent = super.getRandomEvent(world);
-                }
-            }
-        }
-
-        return activeEvent;
+    public boolean canStartEvent(World world, EventTable.Entry event) {
+        // Only two blackouts per world
+        return !event.name().equals("blackout") || this.getState(world).blackoutCount < 2;
     }
 
     @Override
-    public int nextEventDelay() {
-        return random.nextInt(1000, 1500);
+    public void onEventStarted(World world, EventTable.Entry event) {
+        if (event.name().equals("blackout")) {
+            this.getState(world).blackoutCount++;
+        }
     }
 
     @Override
-    public void writeToNbt(NbtCompound nbt) {
-        nbt.putInt("blackoutCount", blackoutCount);
-        nbt.putInt("intercomCount", intercomCount);
-        nbt.putString("lightState", lightState.name());
+    public int nextEventDelay() {
+        return random.nextInt(1000, 1500);
     }
 
     @Override
-    public void readFromNbt(NbtCompound nbt) {
-        this.blackoutCount = nbt.getInt("blackoutCount");
-        this.intercomCount = nbt.getInt("intercomCount");
-        this.lightState = LightState.valueOf(nbt.getString("lightState"));
+    public LightingModel getLightingModel() {
+        return LightingModel.FLAT;
     }
 
     @Override
@@ -141,27 +117,79 @@ public class Level0BackroomsLevel extends BackroomsLevel {
 
     }
 
-    public int getIntercomCount() {
-        return intercomCount;
+    @Override
+    public LevelState createState() {
+        return new State();
     }
 
-    public void setIntercomCount(int intercomCount) {
-        this.justChanged();
-        this.intercomCount = intercomCount;
+    @Override
+    public State getState(World world) {
+        return (State) super.getState(world);
     }
 
-    public void addIntercomCount() {
-        this.justChanged();
-        this.intercomCount++;
-    }
+    public static class State extends LevelState {
+        private int blackoutCount = 0;
+        private int intercomCount = 0;
+        private LightState lightState = LightState.ON;
 
-    public void setLightState(LightState lightState) {
-        this.justChanged();
-        this.lightState = lightState;
-    }
+        public int getIntercomCount() {
+            return intercomCount;
+        }
 
-    public LightState getLightState() {
-        return this.lightState;
+        public void setIntercomCount(int intercomCount) {
+            this.justChanged();
+            this.intercomCount = intercomCount;
+        }
+
+        public void addIntercomCount() {
+            this.justChanged();
+            this.intercomCount++;
+        }
+
+        public void setLightState(LightState lightState) {
+            this.setLightState(lightState, -1);
+        }
+
+        /**
+         * @param flickerDuration How many ticks the clients flicker for if the new state is FLICKER, -1 to flicker until the state changes
+         */
+        public void setLightState(LightState lightState, int flickerDuration) {
+            this.justChanged();
+            this.lightState = lightState;
+            LightFixtureIndex.markLightStateChanged(BackroomsLevels.LEVEL0_WORLD_KEY, flickerDuration);
+        }
+
+        public LightState getLightState() {
+            return this.lightState;
+        }
+
+        @Override
+        public void writeToNbt(NbtCompound nbt) {
+            nbt.putInt("blackoutCount", blackoutCount);
+            nbt.putInt("intercomCount", intercomCount);
+            nbt.putString("lightState", lightState.name());
+        }
+
+        @Override
+        public void readFromNbt(NbtCompound nbt) {
+            this.blackoutCount = nbt.getInt("blackoutCount");
+            this.intercomCount = nbt.getInt("intercomCount");
+            this.lightState = LightState.valueOf(nbt.getString("lightState"));
+        }
+
+        @Override
+        public void writeSyncPacket(PacketByteBuf buf) {
+            buf.writeVarInt(blackoutCount);
+            buf.writeVarInt(intercomCount);
+            buf.writeEnumConstant(lightState);
+        }
+
+        @Override
+        public void applySyncPacket(PacketByteBuf buf) {
+            this.blackoutCount = buf.readVarInt();
+            this.intercomCount = buf.readVarInt();
+            this.lightState = buf.readEnumConstant(LightState.class);
+        }
     }
 
     public enum LightState {
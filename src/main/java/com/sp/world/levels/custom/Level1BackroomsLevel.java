@@ -1,26 +1,27 @@
 package com.sp.world.levels.custom;
 
 import com.sp.SPBRevamped;
-import com.sp.cca_stuff.InitializeComponents;
 import com.sp.cca_stuff.PlayerComponent;
 import com.sp.init.BackroomsLevels;
+import com.sp.world.events.EventSettings;
 import com.sp.world.events.level1.Level1Ambience;
 import com.sp.world.events.level1.Level1Blackout;
 import com.sp.world.events.level1.Level1Flicker;
 import com.sp.world.generation.chunk_generator.Level1ChunkGenerator;
 import com.sp.world.levels.BackroomsLevel;
+import com.sp.world.levels.LevelState;
+import com.sp.world.levels.TransitionTrigger;
+import com.sp.world.lights.LightFixtureIndex;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.PacketByteBuf;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
 
-import java.util.ArrayList;
-import java.util.List;
 
 public class Level1BackroomsLevel extends BackroomsLevel {
-    private Level0BackroomsLevel.LightState lightState = Level0BackroomsLevel.LightState.ON;
-
     public Level1BackroomsLevel() {
         super("level1", Level1ChunkGenerator.CODEC, new RoomCount(6, 24, 24, 12, 24), new Vec3d(6, 22, 3), BackroomsLevels.LEVEL1_WORLD_KEY);
     }
@@ -31,21 +32,12 @@ public class Level1BackroomsLevel extends BackroomsLevel {
 
         this.registerEvents("blackout", Level1Blackout::new);
         this.registerEvents("flicker", Level1Flicker::new);
-        this.registerEvents("ambience", Level1Ambience::new);
-
-        this.registerTransition((world, playerComponent, from) -> {
-            List<LevelTransition> playerList = new ArrayList<>();
-
+        this.registerEvents("ambience", Level1Ambience::new, EventSettings.AMBIENCE);
 
-            if (from instanceof Level1BackroomsLevel && playerComponent.player.getPos().getY() <= 12 && playerComponent.player.isOnGround()) {
-                for (PlayerEntity player : playerComponent.player.getWorld().getPlayers()) {
-                    PlayerComponent otherPlayerComponent = InitializeComponents.PLAYER.get(player);
-                    playerList.add(getLevel2Transition(otherPlayerComponent));
-                }
-            }
-
-            return playerList;
-        }, this.getLevelId() + "-> level2");
+        this.registerTransition(
+                this.getLevelId() + "-> level2",
+                TransitionTrigger.below(12).onGround(),
+                (world, playerComponent) -> getLevel2Transition(playerComponent));
     }
 
 
@@ -90,32 +82,68 @@ public class Level1BackroomsLevel extends BackroomsLevel {
     }
 
     @Override
-    public void writeToNbt(NbtCompound nbt) {
-        nbt.putString("lightState", lightState.name());
+    public LightingModel getLightingModel() {
+        return LightingModel.FLAT;
     }
 
     @Override
-    public void readFromNbt(NbtCompound nbt) {
-        this.lightState = Level0BackroomsLevel.LightState.valueOf(nbt.getString("lightState"));
+    public void transitionOut(CrossDimensionTeleport crossDimensionTeleport) {
 
     }
 
     @Override
-    public void transitionOut(CrossDimensionTeleport crossDimensionTeleport) {
+    public void transitionIn(CrossDimensionTeleport crossDimensionTeleport) {
 
     }
 
     @Override
-    public void transitionIn(CrossDimensionTeleport crossDimensionTeleport) {
-
+    public LevelState createState() {
+        return new State();
     }
 
-    public void setLightState(Level0BackroomsLevel.LightState lightState) {
-        this.justChanged();
-        this.lightState = lightState;
+    @Override
+    public State getState(World world) {
+        return (State) super.getState(world);
     }
 
-    public Level0BackroomsLevel.LightState getLightState() {
-        return this.lightState;
+    public static class State extends LevelState {
+        private Level0BackroomsLevel.LightState lightState = Level0BackroomsLevel.LightState.ON;
+
+        public void setLightState(Level0BackroomsLevel.LightState lightState) {
+            this.setLightState(lightState, -1);
+        }
+
+        /**
+         * @param flickerDuration How many ticks the clients flicker for if the new state is FLICKER, -1 to flicker until the state changes
+         */
+        public void setLightState(Level0BackroomsLevel.LightState lightState, int flickerDuration) {
+            this.justChanged();
+            this.lightState = lightState;
+            LightFixtureIndex.markLightStateChanged(BackroomsLevels.LEVEL1_WORLD_KEY, flickerDuration);
+        }
+
+        public Level0BackroomsLevel.LightState getLightState() {
+            return this.lightState;
+        }
+
+        @Override
+        public void writeToNbt(NbtCompound nbt) {
+            nbt.putString("lightState", lightState.name());
+        }
+
+        @Override
+        public void readFromNbt(NbtCompound nbt) {
+            this.lightState = Level0BackroomsLevel.LightState.valueOf(nbt.getString("lightState"));
+        }
+
+        @Override
+        public void writeSyncPacket(PacketByteBuf buf) {
+            buf.writeEnumConstant(lightState);
+        }
+
+        @Override
+        public void applySyncPacket(PacketByteBuf buf) {
+            this.lightState = buf.readEnumConstant(Level0BackroomsLevel.LightState.class);
+        }
     }
 }
@@ -5,45 +5,41 @@ import com.sp.cca_stuff.PlayerComponent;
 import com.sp.compat.modmenu.ConfigStuff;
 import com.sp.init.BackroomsLevels;
 import com.sp.mixininterfaces.NewServerProperties;
+import com.sp.world.events.EventSettings;
 import com.sp.world.events.level2.Level2Ambience;
 import com.sp.world.events.level2.Level2Warp;
 import com.sp.world.generation.chunk_generator.Level2ChunkGenerator;
 import com.sp.world.levels.BackroomsLevel;
-import net.minecraft.nbt.NbtCompound;
+import com.sp.world.levels.LevelState;
+import com.sp.world.levels.TransitionTrigger;
 import net.minecraft.server.dedicated.MinecraftDedicatedServer;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.PacketByteBuf;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class Level2BackroomsLevel extends BackroomsLevel {
-    private boolean isWarping = false;
 
     public Level2BackroomsLevel() {
         super("level2", Level2ChunkGenerator.CODEC, new Vec3d(0.5, 20, 8), BackroomsLevels.LEVEL2_WORLD_KEY);
 
         this.registerEvents("warp", Level2Warp::new);
-        this.registerEvents("abience", Level2Ambience::new);
+        this.registerEvents("ambience", Level2Ambience::new, EventSettings.AMBIENCE);
 
-        this.registerTransition((world, playerComponent, from) -> {
-            List<LevelTransition> playerList = new ArrayList<>();
-
-            int exitRadius = ConfigStuff.exitSpawnRadius;
-
-            if (world.getServer() != null) {
-                if (world.getServer().isDedicated()) {
-                    exitRadius = ((NewServerProperties) ((MinecraftDedicatedServer) world.getServer()).getProperties()).getExitSpawnRadius();
-                }
-            }
+        this.registerTransition(
+                "level2 -> poolrooms",
+                TransitionTrigger.beyond(Direction.Axis.Z, Level2BackroomsLevel::getExitRadius),
+                (world, playerComponent) -> getPoolRoomsTransition(playerComponent));
+    }
 
-            if (from instanceof Level2BackroomsLevel && Math.abs(playerComponent.player.getPos().getZ()) >= exitRadius) {
-                playerList.add(getPoolRoomsTransition(playerComponent));
-            }
+    private static int getExitRadius(World world) {
+        if (world.getServer() != null && world.getServer().isDedicated()) {
+            return ((NewServerProperties) ((MinecraftDedicatedServer) world.getServer()).getProperties()).getExitSpawnRadius();
+        }
 
-            return playerList;
-        }, "level2 -> poolrooms");
+        return ConfigStuff.exitSpawnRadius;
     }
 
     private LevelTransition getPoolRoomsTransition(PlayerComponent playerComponent) {
@@ -88,31 +84,60 @@ public class Level2BackroomsLevel extends BackroomsLevel {
         return random.nextInt(500, 800);
     }
 
-    public boolean isWarping() {
-        return isWarping;
+    @Override
+    public LightingModel getLightingModel() {
+        return LightingModel.FLAT;
     }
 
-    public void setWarping(boolean warping) {
-        isWarping = warping;
+    @Override
+    public void transitionOut(CrossDimensionTeleport crossDimensionTeleport) {
+
     }
 
     @Override
-    public void writeToNbt(NbtCompound nbt) {
-        nbt.putBoolean("isWarping", isWarping);
+    public void transitionIn(CrossDimensionTeleport crossDimensionTeleport) {
+
     }
 
     @Override
-    public void readFromNbt(NbtCompound nbt) {
-        this.isWarping = nbt.getBoolean("isWarping");
+    public LevelState createState() {
+        return new State();
     }
 
     @Override
-    public void transitionOut(CrossDimensionTeleport crossDimensionTeleport) {
-
+    public State getState(World world) {
+        return (State) super.getState(world);
     }
 
-    @Override
-    public void transitionIn(CrossDimensionTeleport crossDimensionTeleport) {
+    public static class State extends LevelState {
+        private boolean isWarping = false;
+
+        public boolean isWarping() {
+            return isWarping;
+        }
+
+        public void setWarping(boolean warping) {
+            isWarping = warping;
+        }
+
+        @Override
+        public void writeToNbt(NbtCompound nbt) {
+            nbt.putBoolean("isWarping", isWarping);
+        }
+
+        @Override
+        public void readFromNbt(NbtCompound nbt) {
+            this.isWarping = nbt.getBoolean("isWarping");
+        }
+
+        @Override
+        public void writeSyncPacket(PacketByteBuf buf) {
+            buf.writeBoolean(isWarping);
+        }
 
+        @Override
+        public void applySyncPacket(PacketByteBuf buf) {
+            this.isWarping = buf.readBoolean();
+        }
     }
 }
@@ -1,14 +1,42 @@
 package com.sp.world.levels.custom;
 
+import com.sp.cca_stuff.PlayerComponent;
 import com.sp.init.BackroomsLevels;
 import com.sp.world.generation.chunk_generator.Level324ChunkGenerator;
 import com.sp.world.levels.BackroomsLevel;
-import net.minecraft.nbt.NbtCompound;
+import com.sp.world.levels.TransitionTrigger;
+import net.minecraft.block.Blocks;
 import net.minecraft.util.math.Vec3d;
 
 public class Level324Backroomslevel extends BackroomsLevel {
     public Level324Backroomslevel() {
         super("level324", Level324ChunkGenerator.CODEC, new Vec3d(0,65,0), BackroomsLevels.LEVEL324_WORLD_KEY);
+
+        this.registerTransition(
+                "level324 down",
+                TransitionTrigger.touching(Blocks.RED_WOOL, 3),
+                (world, playerComponent) -> getFloorTransition(playerComponent, -64));
+
+        this.registerTransition(
+                "level324 up",
+                TransitionTrigger.touching(Blocks.YELLOW_WOOL, 3),
+                (world, playerComponent) -> getFloorTransition(playerComponent, 64));
+    }
+
+    /**
+     * Moves the player to the floor above or below right away, without leaving the level.
+     */
+    private LevelTransition getFloorTransition(PlayerComponent playerComponent, double offset) {
+        return new LevelTransition(
+                0,
+                (teleport, tick) -> {},
+                new CrossDimensionTeleport(
+                        playerComponent,
+                        playerComponent.player.getPos().add(0, offset, 0),
+                        this,
+                        this
+                ),
+                (teleport, tick) -> {});
     }
 
     @Override
@@ -26,16 +54,6 @@ public class Level324Backroomslevel extends BackroomsLevel {
         return 0;
     }
 
-    @Override
-    public void writeToNbt(NbtCompound nbt) {
-
-    }
-
-    @Override
-    public void readFromNbt(NbtCompound nbt) {
-
-    }
-
     @Override
     public void transitionOut(CrossDimensionTeleport crossDimensionTeleport) {
 
@@ -3,23 +3,22 @@ package com.sp.world.levels.custom;
 import com.sp.SPBRevamped;
 import com.sp.cca_stuff.PlayerComponent;
 import com.sp.init.BackroomsLevels;
+import com.sp.world.events.EventSettings;
 import com.sp.world.events.poolrooms.PoolroomsAmbience;
 import com.sp.world.events.poolrooms.PoolroomsSunset;
 import com.sp.world.generation.chunk_generator.PoolroomsChunkGenerator;
 import com.sp.world.levels.BackroomsLevel;
+import com.sp.world.levels.LevelState;
+import com.sp.world.levels.TransitionTrigger;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.PacketByteBuf;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.minecraft.util.math.Vec3d;
-
-import java.util.ArrayList;
-import java.util.List;
+import net.minecraft.world.World;
 
 public class PoolroomsBackroomsLevel extends BackroomsLevel {
-    public float timeOfDay = 0;
-    public boolean sunsetTransitioning = false;
-
     public PoolroomsBackroomsLevel() {
         super("poolrooms", PoolroomsChunkGenerator.CODEC, new RoomCount(1), new Vec3d(16, 106, 16), BackroomsLevels.POOLROOMS_WORLD_KEY);
     }
@@ -39,18 +38,12 @@ public class PoolroomsBackroomsLevel extends BackroomsLevel {
         super.register();
 
         this.registerEvents("sunset", PoolroomsSunset::new);
-        this.registerEvents("abience", PoolroomsAmbience::new);
-
-        this.registerTransition((world, playerComponent, from) -> {
-            List<LevelTransition> playerList = new ArrayList<>();
+        this.registerEvents("ambience", PoolroomsAmbience::new, EventSettings.AMBIENCE);
 
-            if (from instanceof PoolroomsBackroomsLevel && playerComponent.player.getWorld().getLightLevel(playerComponent.player.getBlockPos()) == 0 && playerComponent.player.getPos().y < 60 && playerComponent.player.getPos().y > 52) {
-                playerList.add(getInfiniteFieldTransition(playerComponent));
-            }
-
-            return playerList;
-
-        }, this.getLevelId() + "->" + BackroomsLevels.INFINITE_FIELD_BACKROOMS_LEVEL.getLevelId());
+        this.registerTransition(
+                this.getLevelId() + "->" + BackroomsLevels.INFINITE_FIELD_BACKROOMS_LEVEL.getLevelId(),
+                TransitionTrigger.between(52, 60).when((world, player) -> world.getLightLevel(player.getBlockPos()) == 0),
+                (world, playerComponent) -> getInfiniteFieldTransition(playerComponent));
     }
 
     private LevelTransition getInfiniteFieldTransition(PlayerComponent playerComponent) {
@@ -75,14 +68,6 @@ public class PoolroomsBackroomsLevel extends BackroomsLevel {
         return random.nextInt(800, 1000);
     }
 
-    public boolean isNoon() {
-        return timeOfDay != 0.25 && timeOfDay != 0.75;
-    }
-
-    public float getTimeOfDay() {
-        return timeOfDay;
-    }
-
     @Override
     public BoolTextPair allowsTorch() {
         return new BoolTextPair(false, Text.translatable("spb-revamped.flashlight.wet1").append(Text.translatable("spb-revamped.flashlight.wet2").formatted(Formatting.RED)));
@@ -93,39 +78,74 @@ public class PoolroomsBackroomsLevel extends BackroomsLevel {
         return true;
     }
 
-    public void setTimeOfDay(float timeOfDay) {
-        this.justChanged();
-        this.timeOfDay = timeOfDay;
-    }
-
-    public boolean isSunsetTransitioning() {
-        return sunsetTransitioning;
-    }
-
-    public void setSunsetTransitioning(boolean sunsetTransitioning) {
-        this.justChanged();
-        this.sunsetTransitioning = sunsetTransitioning;
-    }
-
     @Override
-    public void writeToNbt(NbtCompound nbt) {
-        nbt.putFloat("timeOfDay", timeOfDay);
-        nbt.putBoolean("sunsetTransitioning", sunsetTransitioning);
+    public void transitionOut(CrossDimensionTeleport crossDimensionTeleport) {
+        crossDimensionTeleport.playerComponent().player.fallDistance = 0;
     }
 
     @Override
-    public void readFromNbt(NbtCompound nbt) {
-        this.timeOfDay = nbt.getFloat("timeOfDay");
-        this.sunsetTransitioning = nbt.getBoolean("sunsetTransitioning");
+    public void transitionIn(CrossDimensionTeleport crossDimensionTeleport) {
+
     }
 
     @Override
-    public void transitionOut(CrossDimensionTeleport crossDimensionTeleport) {
-        crossDimensionTeleport.playerComponent().player.fallDistance = 0;
+    public LevelState createState() {
+        return new State();
     }
 
     @Override
-    public void transitionIn(CrossDimensionTeleport crossDimensionTeleport) {
-
+    public State getState(World world) {
+        return (State) super.getState(world);
+    }
+
+    public static class State extends LevelState {
+        private float timeOfDay = 0;
+        private boolean sunsetTransitioning = false;
+
+        public boolean isNoon() {
+            return timeOfDay != 0.25 && timeOfDay != 0.75;
+        }
+
+        public float getTimeOfDay() {
+            return timeOfDay;
+        }
+
+        public void setTimeOfDay(float timeOfDay) {
+            this.justChanged();
+            this.timeOfDay = timeOfDay;
+        }
+
+        public boolean isSunsetTransitioning() {
+            return sunsetTransitioning;
+        }
+
+        public void setSunsetTransitioning(boolean sunsetTransitioning) {
+            this.justChanged();
+            this.sunsetTransitioning = sunsetTransitioning;
+        }
+
+        @Override
+        public void writeToNbt(NbtCompound nbt) {
+            nbt.putFloat("timeOfDay", timeOfDay);
+            nbt.putBoolean("sunsetTransitioning", sunsetTransitioning);
+        }
+
+        @Override
+        public void readFromNbt(NbtCompound nbt) {
+            this.timeOfDay = nbt.getFloat("timeOfDay");
+            this.sunsetTransitioning = nbt.getBoolean("sunsetTransitioning");
+        }
+
+        @Override
+        public void writeSyncPacket(PacketByteBuf buf) {
+            buf.writeFloat(timeOfDay);
+            buf.writeBoolean(sunsetTransitioning);
+        }
+
+        @Override
+        public void applySyncPacket(PacketByteBuf buf) {
+            this.timeOfDay = buf.readFloat();
+            this.sunsetTransitioning = buf.readBoolean();
+        }
     }
 }
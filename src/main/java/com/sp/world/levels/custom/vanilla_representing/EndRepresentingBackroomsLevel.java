@@ -1,7 +1,6 @@
 package com.sp.world.levels.custom.vanilla_representing;
 
 import com.sp.world.levels.WorldRepresentingBackroomsLevel;
-import net.minecraft.nbt.NbtCompound;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 
@@ -15,16 +14,6 @@ public class EndRepresentingBackroomsLevel extends WorldRepresentingBackroomsLev
         return 0;
     }
 
-    @Override
-    public void writeToNbt(NbtCompound nbt) {
-
-    }
-
-    @Override
-    public void readFromNbt(NbtCompound nbt) {
-
-    }
-
     @Override
     public void transitionOut(CrossDimensionTeleport crossDimensionTeleport) {
 
@@ -0,0 +1,495 @@
+package com.sp.world.lights;
+
+import com.sp.block.custom.FluorescentLightBlock;
+import com.sp.block.custom.ThinFluorescentLightBlock;
+import com.sp.block.custom.TinyFluorescentLightBlock;
+import com.sp.init.BackroomsLevels;
+import com.sp.init.ModBlocks;
+import com.sp.networking.InitializePackets;
+import com.sp.world.levels.BackroomsLevel;
+import com.sp.world.levels.custom.Level0BackroomsLevel;
+import com.sp.world.levels.custom.Level1BackroomsLevel;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.fabricmc.fabric.api.entity.event.v1.ServerEntityWorldChangeEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.state.property.BooleanProperty;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Server side index of every fluorescent light fixture in the loaded chunks of a world.
+ * <p>
+ * Fixtures are collected when their chunk loads and whenever one is placed or broken, so the
+ * light blocks don't need a server ticker anymore. A light state change on the level is applied
+ * to every indexed fixture in one batch at the end of the tick, and nothing runs while the
+ * state is steady. Flickering is animated on the client, see {@link LightFlicker}.
+ */
+public class LightFixtureIndex {
+    private static final Map<RegistryKey<World>, LightFixtureIndex> INDICES = new HashMap<>();
+
+    private final ServerWorld world;
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> fixturesByChunk = new Long2ObjectOpenHashMap<>();
+    private final LongOpenHashSet pendingFixtures = new LongOpenHashSet();
+    private final Random random = Random.create();
+    private final BlockPos.Mutable mutable = new BlockPos.Mutable();
+
+    private long[] orderedFixtures = LongArrays.EMPTY_ARRAY;
+    private boolean orderDirty;
+    private boolean lightStateDirty;
+
+    @Nullable
+    private Level0BackroomsLevel.LightState lastLightState;
+    private int nextFlickerDuration = -1;
+    private long flickerSeed;
+    private long flickerStart;
+    private int flickerDuration;
+
+    private LightFixtureIndex(ServerWorld world) {
+        this.world = world;
+    }
+
+    public static void init() {
+        ServerWorldEvents.LOAD.register((server, world) -> INDICES.put(world.getRegistryKey(), new LightFixtureIndex(world)));
+        ServerWorldEvents.UNLOAD.register((server, world) -> INDICES.remove(world.getRegistryKey()));
+
+        ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> {
+            LightFixtureIndex index = get(world);
+            if (index != null) {
+                index.onChunkLoad(chunk);
+            }
+        });
+
+        ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> {
+            LightFixtureIndex index = get(world);
+            if (index != null) {
+                index.onChunkUnload(chunk);
+            }
+        });
+
+        ServerTickEvents.END_WORLD_TICK.register(world -> {
+            LightFixtureIndex index = get(world);
+            if (index != null) {
+                index.tick();
+            }
+        });
+
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+            LightFixtureIndex index = get(handler.player.getWorld());
+            if (index != null) {
+                index.sendFlicker(handler.player);
+            }
+        });
+
+        ServerEntityWorldChangeEvents.AFTER_PLAYER_CHANGE_WORLD.register((player, origin, destination) -> {
+            LightFixtureIndex index = get(destination);
+            if (index != null) {
+                index.sendFlicker(player);
+            }
+        });
+    }
+
+    @Nullable
+    public static LightFixtureIndex get(World world) {
+        return world instanceof ServerWorld ? INDICES.get(world.getRegistryKey()) : null;
+    }
+
+    /**
+     * Called by the levels whenever their light state changes. The fixtures are updated at the end of the tick.
+     * @param worldKey The world the light state belongs to
+     */
+    public static void markLightStateChanged(RegistryKey<World> worldKey) {
+        markLightStateChanged(worldKey, -1);
+    }
+
+    /**
+     * @param flickerDuration How long the clients should flicker for if the new state is FLICKER, -1 to flicker until the state changes again
+     */
+    public static void markLightStateChanged(RegistryKey<World> worldKey, int flickerDuration) {
+        LightFixtureIndex index = INDICES.get(worldKey);
+        if (index != null) {
+            index.lightStateDirty = true;
+            index.nextFlickerDuration = flickerDuration;
+        }
+    }
+
+    public static void onFixturePlaced(World world, BlockPos pos) {
+        LightFixtureIndex index = get(world);
+        if (index != null) {
+            index.add(pos.asLong());
+            index.queueWithDependents(pos);
+        }
+    }
+
+    public static void onFixtureRemoved(World world, BlockPos pos) {
+        LightFixtureIndex index = get(world);
+        if (index != null) {
+            index.remove(pos.asLong());
+            index.queueWithDependents(pos);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (LongOpenHashSet fixtures : this.fixturesByChunk.values()) {
+            size += fixtures.size();
+        }
+        return size;
+    }
+
+    private void onChunkLoad(WorldChunk chunk) {
+        for (BlockPos pos : chunk.getBlockEntities().keySet()) {
+            this.indexFromChunk(chunk, pos);
+        }
+
+        for (BlockPos pos : chunk.blockEntityNbts.keySet()) {
+            this.indexFromChunk(chunk, pos);
+        }
+
+        //Fixtures on the edge of the chunks to the south and east might copy one of ours
+        ChunkPos chunkPos = chunk.getPos();
+        this.queueEdge(ChunkPos.toLong(chunkPos.x, chunkPos.z + 1), true);
+        this.queueEdge(ChunkPos.toLong(chunkPos.x + 1, chunkPos.z), false);
+    }
+
+    private void indexFromChunk(WorldChunk chunk, BlockPos pos) {
+        if (getFixture(chunk.getBlockState(pos)) != null) {
+            long packed = pos.asLong();
+            this.add(packed);
+            this.pendingFixtures.add(packed);
+        }
+    }
+
+    private void onChunkUnload(WorldChunk chunk) {
+        LongOpenHashSet removed = this.fixturesByChunk.remove(chunk.getPos().toLong());
+        if (removed != null) {
+            this.pendingFixtures.removeAll(removed);
+            this.orderDirty = true;
+        }
+    }
+
+    private void queueEdge(long chunkPos, boolean northEdge) {
+        LongOpenHashSet fixtures = this.fixturesByChunk.get(chunkPos);
+        if (fixtures == null) {
+            return;
+        }
+
+        LongIterator iterator = fixtures.iterator();
+        while (iterator.hasNext()) {
+            long packed = iterator.nextLong();
+            int local = northEdge ? BlockPos.unpackLongZ(packed) & 15 : BlockPos.unpackLongX(packed) & 15;
+            if (local == 0) {
+                this.pendingFixtures.add(packed);
+            }
+        }
+    }
+
+    private void queueWithDependents(BlockPos pos) {
+        this.pendingFixtures.add(pos.asLong());
+        this.pendingFixtures.add(pos.south().asLong());
+        this.pendingFixtures.add(pos.east().asLong());
+        this.pendingFixtures.add(pos.up().asLong());
+    }
+
+    private void add(long packed) {
+        long chunkPos = ChunkPos.toLong(ChunkSectionPos.getSectionCoord(BlockPos.unpackLongX(packed)), ChunkSectionPos.getSectionCoord(BlockPos.unpackLongZ(packed)));
+        if (this.fixturesByChunk.computeIfAbsent(chunkPos, key -> new LongOpenHashSet()).add(packed)) {
+            this.orderDirty = true;
+        }
+    }
+
+    private void remove(long packed) {
+        long chunkPos = ChunkPos.toLong(ChunkSectionPos.getSectionCoord(BlockPos.unpackLongX(packed)), ChunkSectionPos.getSectionCoord(BlockPos.unpackLongZ(packed)));
+        LongOpenHashSet fixtures = this.fixturesByChunk.get(chunkPos);
+        if (fixtures != null && fixtures.remove(packed)) {
+            if (fixtures.isEmpty()) {
+                this.fixturesByChunk.remove(chunkPos);
+            }
+            this.orderDirty = true;
+        }
+    }
+
+    private boolean contains(long packed) {
+        long chunkPos = ChunkPos.toLong(ChunkSectionPos.getSectionCoord(BlockPos.unpackLongX(packed)), ChunkSectionPos.getSectionCoord(BlockPos.unpackLongZ(packed)));
+        LongOpenHashSet fixtures = this.fixturesByChunk.get(chunkPos);
+        return fixtures != null && fixtures.contains(packed);
+    }
+
+    private void tick() {
+        Level0BackroomsLevel.LightState lightState = this.getLightState();
+
+        if (this.lightStateDirty) {
+            this.lightStateDirty = false;
+            this.pendingFixtures.clear();
+            this.settle(this.getOrderedFixtures(), lightState);
+            this.updateFlicker(lightState);
+        } else if (!this.pendingFixtures.isEmpty()) {
+            long[] pending = this.pendingFixtures.toLongArray();
+            this.pendingFixtures.clear();
+            sortByCopyOrder(pending);
+            this.settle(pending, lightState);
+        }
+    }
+
+    private void updateFlicker(@Nullable Level0BackroomsLevel.LightState lightState) {
+        if (lightState == Level0BackroomsLevel.LightState.FLICKER) {
+            this.flickerSeed = this.random.nextLong();
+            this.flickerStart = this.world.getTime();
+            this.flickerDuration = this.nextFlickerDuration;
+
+            for (ServerPlayerEntity player : this.world.getPlayers()) {
+                this.sendFlicker(player);
+            }
+        } else if (this.lastLightState == Level0BackroomsLevel.LightState.FLICKER) {
+            for (ServerPlayerEntity player : this.world.getPlayers()) {
+                PacketByteBuf buffer = PacketByteBufs.create();
+                buffer.writeLong(0);
+                buffer.writeLong(0);
+                buffer.writeInt(0);
+                buffer.writeBoolean(lightState == Level0BackroomsLevel.LightState.ON);
+                ServerPlayNetworking.send(player, InitializePackets.LIGHT_FLICKER, buffer);
+            }
+        }
+
+        this.lastLightState = lightState;
+        this.nextFlickerDuration = -1;
+    }
+
+    /**
+     * Sends the running flicker event to a player, if there is one. A duration of 0 tells the client to stop flickering.
+     */
+    private void sendFlicker(ServerPlayerEntity player) {
+        if (this.lastLightState != Level0BackroomsLevel.LightState.FLICKER) {
+            return;
+        }
+
+        PacketByteBuf buffer = PacketByteBufs.create();
+        buffer.writeLong(this.flickerSeed);
+        buffer.writeLong(this.flickerStart);
+        buffer.writeInt(this.flickerDuration);
+        buffer.writeBoolean(true);
+        ServerPlayNetworking.send(player, InitializePackets.LIGHT_FLICKER, buffer);
+    }
+
+    /**
+     * Brings every given fixture in line with the current light state. Copies are only correct if the fixture they
+     * copy from was settled first, which {@link #sortByCopyOrder(long[])} guarantees.
+     */
+    private void settle(long[] fixtures, @Nullable Level0BackroomsLevel.LightState lightState) {
+        for (long packed : fixtures) {
+            if (!this.contains(packed) || !this.isLoaded(packed)) {
+                continue;
+            }
+
+            BlockPos pos = this.mutable.set(packed);
+            BlockState state = this.world.getBlockState(pos);
+            Fixture fixture = getFixture(state);
+
+            if (fixture == null) {
+                this.remove(packed);
+                continue;
+            }
+
+            //Set to ceiling tile if it can't be seen
+            if (fixture == Fixture.FLUORESCENT && this.world.getRegistryKey() == BackroomsLevels.LEVEL0_WORLD_KEY) {
+                if (this.world.getBlockState(pos.down()) != Blocks.AIR.getDefaultState()) {
+                    BlockPos immutable = pos.toImmutable();
+                    this.remove(packed);
+                    this.world.removeBlockEntity(immutable);
+                    this.world.getWorldChunk(immutable).blockEntityNbts.remove(immutable);
+                    this.world.setBlockState(immutable, ModBlocks.CEILING_TILE.getDefaultState());
+                    continue;
+                }
+            }
+
+            BlockState source = this.getCopySource(pos, fixture);
+            BlockState newState;
+
+            if (source != null) {
+                newState = source.with(fixture.copy, true);
+            } else {
+                newState = fixture.applyLightState(state.with(fixture.copy, false), lightState, this.world);
+            }
+
+            if (newState != state) {
+                this.world.setBlockState(pos.toImmutable(), newState, Block.NOTIFY_LISTENERS);
+            }
+        }
+    }
+
+    @Nullable
+    private BlockState getCopySource(BlockPos pos, Fixture fixture) {
+        if (!fixture.copies) {
+            return null;
+        }
+
+        BlockState north = this.getLoadedState(pos.north());
+        if (north != null && getFixture(north) == fixture) {
+            return north;
+        }
+
+        BlockState west = this.getLoadedState(pos.west());
+        if (west != null && getFixture(west) == fixture) {
+            return west;
+        }
+
+        if (fixture.copiesDown) {
+            BlockState down = this.world.getBlockState(pos.down());
+            if (getFixture(down) == fixture) {
+                return down;
+            }
+        }
+
+        return null;
+    }
+
+    @Nullable
+    private BlockState getLoadedState(BlockPos pos) {
+        if (!this.world.getChunkManager().isChunkLoaded(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()))) {
+            return null;
+        }
+
+        return this.world.getBlockState(pos);
+    }
+
+    private boolean isLoaded(long packed) {
+        return this.world.getChunkManager().isChunkLoaded(ChunkSectionPos.getSectionCoord(BlockPos.unpackLongX(packed)), ChunkSectionPos.getSectionCoord(BlockPos.unpackLongZ(packed)));
+    }
+
+    private long[] getOrderedFixtures() {
+        if (this.orderDirty) {
+            long[] fixtures = new long[this.size()];
+            int i = 0;
+            for (LongOpenHashSet chunkFixtures : this.fixturesByChunk.values()) {
+                LongIterator iterator = chunkFixtures.iterator();
+                while (iterator.hasNext()) {
+                    fixtures[i++] = iterator.nextLong();
+                }
+            }
+
+            sortByCopyOrder(fixtures);
+            this.orderedFixtures = fixtures;
+            this.orderDirty = false;
+        }
+
+        return this.orderedFixtures;
+    }
+
+    /**
+     * A fixture only ever copies from its north, west or lower neighbour, so sorting by x + y + z puts every
+     * source before the fixtures copying it.
+     */
+    private static void sortByCopyOrder(long[] fixtures) {
+        LongArrays.quickSort(fixtures, (a, b) -> Integer.compare(
+                BlockPos.unpackLongX(a) + BlockPos.unpackLongY(a) + BlockPos.unpackLongZ(a),
+                BlockPos.unpackLongX(b) + BlockPos.unpackLongY(b) + BlockPos.unpackLongZ(b)
+        ));
+    }
+
+    @Nullable
+    private Level0BackroomsLevel.LightState getLightState() {
+        BackroomsLevel level = BackroomsLevels.getLevel(this.world).orElse(null);
+
+        if (level instanceof Level0BackroomsLevel level0) {
+            return level0.getState(this.world).getLightState();
+        } else if (level instanceof Level1BackroomsLevel level1) {
+            return level1.getState(this.world).getLightState();
+        }
+
+        return null;
+    }
+
+    @Nullable
+    private static Fixture getFixture(BlockState state) {
+        if (state.isOf(ModBlocks.FLUORESCENT_LIGHT)) {
+            return Fixture.FLUORESCENT;
+        } else if (state.isOf(ModBlocks.THIN_FLUORESCENT_LIGHT)) {
+            return Fixture.THIN;
+        } else if (state.isOf(ModBlocks.TINY_FLUORESCENT_LIGHT)) {
+            return Fixture.TINY;
+        }
+
+        return null;
+    }
+
+    private enum Fixture {
+        FLUORESCENT(FluorescentLightBlock.ON, FluorescentLightBlock.COPY, FluorescentLightBlock.BLACKOUT, true, false),
+        THIN(ThinFluorescentLightBlock.ON, ThinFluorescentLightBlock.COPY, ThinFluorescentLightBlock.BLACKOUT, true, true),
+        TINY(TinyFluorescentLightBlock.ON, TinyFluorescentLightBlock.COPY, TinyFluorescentLightBlock.BLACKOUT, false, false);
+
+        final BooleanProperty on;
+        final BooleanProperty copy;
+        final BooleanProperty blackout;
+        final boolean copies;
+        final boolean copiesDown;
+
+        Fixture(BooleanProperty on, BooleanProperty copy, BooleanProperty blackout, boolean copies, boolean copiesDown) {
+            this.on = on;
+            this.copy = copy;
+            this.blackout = blackout;
+            this.copies = copies;
+            this.copiesDown = copiesDown;
+        }
+
+        boolean flickersIn(World world) {
+            BackroomsLevel level = BackroomsLevels.getLevel(world).orElse(null);
+
+            if (this == FLUORESCENT) {
+                return level instanceof Level0BackroomsLevel level0 && level0.getState(world).getLightState() == Level0BackroomsLevel.LightState.FLICKER;
+            }
+
+            return level instanceof Level1BackroomsLevel level1 && level1.getState(world).getLightState() == Level0BackroomsLevel.LightState.FLICKER;
+        }
+
+        BlockState applyLightState(BlockState state, @Nullable Level0BackroomsLevel.LightState lightState, World world) {
+            if (this == FLUORESCENT) {
+                //Big fluorescents are only driven by level 0, and stay broken after a blackout
+                if (!(BackroomsLevels.getLevel(world).orElse(null) instanceof Level0BackroomsLevel) || lightState == null) {
+                    return state;
+                }
+
+                if (lightState == Level0BackroomsLevel.LightState.BLACKOUT) {
+                    state = state.with(this.blackout, true);
+                }
+
+                //Flickering is animated by the clients
+                if (lightState == Level0BackroomsLevel.LightState.FLICKER) {
+                    return state;
+                }
+
+                return state.with(this.on, lightState == Level0BackroomsLevel.LightState.ON);
+            }
+
+            boolean blackedOut = lightState == Level0BackroomsLevel.LightState.BLACKOUT;
+            state = state.with(this.blackout, blackedOut);
+
+            if (lightState == Level0BackroomsLevel.LightState.FLICKER && !blackedOut && this.flickersIn(world)) {
+                return state;
+            }
+
+            return state.with(this.on, true);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.sp.world.lights;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.state.property.BooleanProperty;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Client side flicker animation. The server only sends the seed, start tick and duration of a flicker event,
+ * every fixture then works out its own on/off pattern from its position, so all players see the same flicker
+ * without a single block update being sent.
+ */
+public class LightFlicker {
+    private static final int MAX_COPY_CHAIN = 64;
+
+    @Nullable
+    private static RegistryKey<World> worldKey;
+    private static long seed;
+    private static long startTick;
+    private static int duration;
+    private static boolean litAfter = true;
+
+    /**
+     * @param duration How many ticks the flicker lasts, or -1 if it lasts until the light state changes
+     */
+    public static void start(RegistryKey<World> worldKey, long seed, long startTick, int duration) {
+        LightFlicker.worldKey = worldKey;
+        LightFlicker.seed = seed;
+        LightFlicker.startTick = startTick;
+        LightFlicker.duration = duration;
+        LightFlicker.litAfter = true;
+    }
+
+    /**
+     * @param litAfter If the fixtures should be lit once they stop flickering
+     */
+    public static void stop(boolean litAfter) {
+        LightFlicker.worldKey = null;
+        LightFlicker.litAfter = litAfter;
+    }
+
+    public static boolean isActive(World world) {
+        if (world.getRegistryKey() != worldKey) {
+            return false;
+        }
+
+        return duration < 0 || world.getTime() < startTick + duration;
+    }
+
+    /**
+     * Whether a fixture is lit at the given time. Each fixture gets its own period between 1 and maxPeriod ticks,
+     * and picks a new random state every period.
+     */
+    public static boolean isLit(BlockPos pos, long time, int maxPeriod) {
+        long posSeed = HashCommon.mix(seed ^ pos.asLong());
+        int period = 1 + (int) Math.floorMod(posSeed, (long) maxPeriod);
+        long step = Math.max(0, time - startTick) / period;
+
+        return (HashCommon.mix(posSeed + step) & 1L) == 0;
+    }
+
+    /**
+     * Overrides the client side ON state of a fixture while a flicker is active, and puts it back once it's over.
+     * @param flickersIn The world this kind of fixture flickers in
+     * @param root The fixture this one flickered in sync with last tick, or null if it wasn't flickering
+     * @param copiesDown If the fixture can copy the one below it, and not just its north and west neighbours
+     * @return The fixture this one flickers in sync with, or null if it isn't flickering now
+     */
+    @Nullable
+    public static BlockPos tickFixture(World world, BlockPos pos, BlockState state, RegistryKey<World> flickersIn, @Nullable BlockPos root, int maxPeriod, boolean copiesDown, BooleanProperty on, BooleanProperty copy, BooleanProperty blackout) {
+        if (world.getRegistryKey() == flickersIn && isActive(world) && !state.get(blackout)) {
+            // Only looked up when the flicker starts, the fixtures don't change while it runs
+            if (root == null) {
+                root = state.get(copy) ? findCopyRoot(world, pos, state, copy, copiesDown) : pos;
+            }
+
+            boolean lit = isLit(root, world.getTime(), maxPeriod);
+
+            if (state.get(on) != lit) {
+                world.setBlockState(pos, state.with(on, lit), Block.NOTIFY_LISTENERS);
+            }
+
+            return root;
+        }
+
+        if (root != null && state.get(on) != litAfter) {
+            world.setBlockState(pos, state.with(on, litAfter), Block.NOTIFY_LISTENERS);
+        }
+
+        return null;
+    }
+
+    /**
+     * Follows the COPY chain to the fixture that drives it, so copies flicker in sync without waiting on their neighbours.
+     */
+    private static BlockPos findCopyRoot(World world, BlockPos pos, BlockState state, BooleanProperty copy, boolean copiesDown) {
+        BlockPos current = pos;
+
+        for (int i = 0; i < MAX_COPY_CHAIN; i++) {
+            BlockPos source;
+
+            if (world.getBlockState(current.north()).isOf(state.getBlock())) {
+                source = current.north();
+            } else if (world.getBlockState(current.west()).isOf(state.getBlock())) {
+                source = current.west();
+            } else if (copiesDown && world.getBlockState(current.down()).isOf(state.getBlock())) {
+                source = current.down();
+            } else {
+                return current;
+            }
+
+            current = source;
+            if (!world.getBlockState(current).get(copy)) {
+                return current;
+            }
+        }
+
+        return current;
+    }
+}